@@ -0,0 +1,39 @@
+package com.estapar.parking.loadgen;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Distribuição do tempo de permanência, em minutos simulados.
+ */
+public enum DwellDistribution {
+
+    FIXED {
+        @Override
+        double sample(Random random, double mean, double sigma) {
+            return mean;
+        }
+    },
+
+    EXPONENTIAL {
+        @Override
+        double sample(Random random, double mean, double sigma) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+    },
+
+    // Cauda longa: a maioria fica pouco tempo, alguns ficam o dia todo
+    LOGNORMAL {
+        @Override
+        double sample(Random random, double mean, double sigma) {
+            double mu = Math.log(mean) - sigma * sigma / 2;
+            return Math.exp(mu + sigma * random.nextGaussian());
+        }
+    };
+
+    abstract double sample(Random random, double mean, double sigma);
+
+    public static DwellDistribution parse(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,92 @@
+package com.estapar.parking.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Log de eventos em JSON Lines: uma linha {"offset_ms":..., "event":{...}}
+ * por evento, na ordem de envio.
+ */
+public final class EventLog {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private EventLog() {}
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(Files.newBufferedWriter(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lê o log sob demanda; o arquivo é fechado ao chegar no fim.
+     */
+    public static Iterator<ScheduledEvent> read(Path path) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        return new Iterator<>() {
+            private ScheduledEvent next = advance();
+
+            private ScheduledEvent advance() {
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            return MAPPER.readValue(line, ScheduledEvent.class);
+                        }
+                    }
+                    reader.close();
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public ScheduledEvent next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                ScheduledEvent current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final BufferedWriter out;
+
+        private Writer(BufferedWriter out) {
+            this.out = out;
+        }
+
+        public synchronized void append(ScheduledEvent event) {
+            try {
+                out.write(MAPPER.writeValueAsString(event));
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.estapar.parking.loadgen;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Gera ciclos ENTRY → PARKED → EXIT em ordem de envio, sem materializar a
+ * execução inteira: só os eventos pendentes de veículos já dentro da
+ * garagem ficam em memória.
+ *
+ * Chegadas seguem um processo de Poisson na taxa pedida (tempo real). O
+ * tempo de permanência é sorteado em minutos simulados e comprimido por
+ * timeScale (segundos simulados por segundo real).
+ */
+public class LifecycleWorkload implements Iterator<ScheduledEvent> {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final Settings settings;
+    private final Random random;
+
+    private final int[] freePlates;
+    private int freeCount;
+
+    private final PriorityQueue<Pending> pending =
+        new PriorityQueue<>(Comparator.comparingLong(Pending::offsetMillis).thenComparingLong(Pending::sequence));
+    private long sequence;
+
+    private double nextArrivalMillis;
+    private long skippedArrivals;
+
+    public LifecycleWorkload(Settings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+        this.freePlates = new int[settings.plates()];
+        for (int i = 0; i < freePlates.length; i++) {
+            freePlates[i] = i;
+        }
+        this.freeCount = freePlates.length;
+        this.nextArrivalMillis = interArrivalMillis();
+    }
+
+    @Override
+    public boolean hasNext() {
+        fillUntilNextPending();
+        if (!pending.isEmpty()) {
+            return settings.drain() || pending.peek().offsetMillis() <= settings.durationMillis();
+        }
+        return false;
+    }
+
+    @Override
+    public ScheduledEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Pending next = pending.poll();
+        if ("EXIT".equals(next.event().eventType())) {
+            freePlates[freeCount++] = next.plate();
+        }
+        return new ScheduledEvent(next.offsetMillis(), next.event());
+    }
+
+    public long skippedArrivals() {
+        return skippedArrivals;
+    }
+
+    // Gera chegadas até que a próxima chegada seja posterior ao próximo evento pendente
+    private void fillUntilNextPending() {
+        while (nextArrivalMillis <= settings.durationMillis()
+            && (pending.isEmpty() || nextArrivalMillis <= pending.peek().offsetMillis())) {
+            arrive((long) nextArrivalMillis);
+            nextArrivalMillis += interArrivalMillis();
+        }
+    }
+
+    private void arrive(long offsetMillis) {
+        if (freeCount == 0) {
+            // Todas as placas estão dentro da garagem
+            skippedArrivals++;
+            return;
+        }
+
+        int slot = random.nextInt(freeCount);
+        int plate = freePlates[slot];
+        freePlates[slot] = freePlates[--freeCount];
+        String licensePlate = String.format("LG%05d", plate);
+
+        // Manobra até a vaga: 1 a 5 minutos simulados, sempre antes da saída
+        double parkMinutes = 1 + random.nextDouble() * 4;
+        double dwellMinutes = Math.max(parkMinutes + 1,
+            settings.dwell().sample(random, settings.dwellMeanMinutes(), settings.dwellSigma()));
+
+        long parkedOffset = offsetMillis + toWallMillis(parkMinutes);
+        long exitOffset = offsetMillis + Math.max(toWallMillis(dwellMinutes), parkedOffset - offsetMillis + 1);
+
+        schedule(plate, offsetMillis, WebhookEvent.entry(licensePlate, timestamp(offsetMillis)));
+
+        BigDecimal lat = null;
+        BigDecimal lng = null;
+        if (!settings.spots().isEmpty()) {
+            double[] spot = settings.spots().get(random.nextInt(settings.spots().size()));
+            lat = BigDecimal.valueOf(spot[0]);
+            lng = BigDecimal.valueOf(spot[1]);
+        }
+        schedule(plate, parkedOffset, WebhookEvent.parked(licensePlate, lat, lng));
+        schedule(plate, exitOffset, WebhookEvent.exit(licensePlate, timestamp(exitOffset)));
+    }
+
+    private void schedule(int plate, long offsetMillis, WebhookEvent event) {
+        pending.add(new Pending(offsetMillis, sequence++, plate, event));
+    }
+
+    private double interArrivalMillis() {
+        return -Math.log(1 - random.nextDouble()) * 1000.0 / settings.arrivalsPerSecond();
+    }
+
+    private long toWallMillis(double simulatedMinutes) {
+        return (long) (simulatedMinutes * 60_000 / settings.timeScale());
+    }
+
+    private String timestamp(long offsetMillis) {
+        long simulatedMillis = (long) (offsetMillis * settings.timeScale());
+        return settings.simulationStart().plusNanos(simulatedMillis * 1_000_000).format(TIMESTAMP);
+    }
+
+    private record Pending(long offsetMillis, long sequence, int plate, WebhookEvent event) {}
+
+    /**
+     * @param arrivalsPerSecond chegadas de veículos por segundo real
+     * @param durationMillis    janela de chegadas em tempo real
+     * @param plates            cardinalidade de placas (veículos distintos)
+     * @param timeScale         segundos simulados por segundo real
+     * @param drain             emitir as saídas pendentes depois da janela
+     * @param spots             coordenadas [lat, lng] usadas nos eventos PARKED (vazio = sem coordenadas)
+     */
+    public record Settings(
+        double arrivalsPerSecond,
+        long durationMillis,
+        int plates,
+        DwellDistribution dwell,
+        double dwellMeanMinutes,
+        double dwellSigma,
+        double timeScale,
+        boolean drain,
+        LocalDateTime simulationStart,
+        List<double[]> spots,
+        long seed
+    ) {}
+}
@@ -0,0 +1,142 @@
+package com.estapar.parking.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gerador de carga para POST /webhook.
+ *
+ * <pre>
+ * generate  --rate 50 --duration 300 --plates 5000 --dwell lognormal --dwell-mean 90
+ *           [--dwell-sigma 0.8] [--time-scale 60] [--drain] [--seed 42]
+ *           [--garage http://localhost:3003/garage] [--record events.jsonl]
+ * replay    --log events.jsonl [--speed 10]
+ *
+ * comuns:   --target http://localhost:3003/webhook --max-in-flight 256
+ *           --timeout 30 --report-interval 5 [--hlog latency.hlog]
+ * </pre>
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("generate") || args[0].equals("replay"))) {
+            System.err.println("Usage: LoadGenerator generate|replay [--option value ...]");
+            System.exit(2);
+        }
+
+        Map<String, String> options = parseOptions(args);
+        PrintStream console = System.out;
+
+        Iterator<ScheduledEvent> events;
+        double speed = 1.0;
+        LifecycleWorkload workload = null;
+
+        if (args[0].equals("generate")) {
+            List<double[]> spots = options.containsKey("garage")
+                ? fetchSpots(URI.create(options.get("garage")))
+                : List.of();
+
+            workload = new LifecycleWorkload(new LifecycleWorkload.Settings(
+                Double.parseDouble(options.getOrDefault("rate", "10")),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))).toMillis(),
+                Integer.parseInt(options.getOrDefault("plates", "1000")),
+                DwellDistribution.parse(options.getOrDefault("dwell", "lognormal")),
+                Double.parseDouble(options.getOrDefault("dwell-mean", "90")),
+                Double.parseDouble(options.getOrDefault("dwell-sigma", "0.8")),
+                Double.parseDouble(options.getOrDefault("time-scale", "60")),
+                options.containsKey("drain"),
+                LocalDateTime.now().withNano(0),
+                spots,
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(System.nanoTime())))
+            ));
+            events = workload;
+            console.println("🚗 Generating lifecycles at " + options.getOrDefault("rate", "10") +
+                " arrivals/s for " + options.getOrDefault("duration", "60") + "s" +
+                (spots.isEmpty() ? "" : " over " + spots.size() + " spots"));
+        } else {
+            if (!options.containsKey("log")) {
+                System.err.println("replay requires --log <file>");
+                System.exit(2);
+            }
+            events = EventLog.read(Path.of(options.get("log")));
+            speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+            console.println("🔁 Replaying " + options.get("log") + " at " + speed + "x");
+        }
+
+        EventLog.Writer recordTo = options.containsKey("record") ? EventLog.writer(Path.of(options.get("record"))) : null;
+        PrintStream hlogOut = options.containsKey("hlog") ? new PrintStream(options.get("hlog")) : null;
+
+        try {
+            WebhookDriver driver = new WebhookDriver(
+                URI.create(options.getOrDefault("target", "http://localhost:3003/webhook")),
+                speed,
+                Integer.parseInt(options.getOrDefault("max-in-flight", "256")),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "30"))),
+                recordTo,
+                hlogOut != null ? new HistogramLogWriter(hlogOut) : null,
+                console,
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("report-interval", "5"))).toMillis()
+            );
+
+            driver.run(events).print(console);
+            if (workload != null && workload.skippedArrivals() > 0) {
+                console.println("⚠️ Skipped " + workload.skippedArrivals() +
+                    " arrivals: every plate was already inside (raise --plates)");
+            }
+        } finally {
+            if (recordTo != null) {
+                recordTo.close();
+            }
+            if (hlogOut != null) {
+                hlogOut.close();
+            }
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "true");
+            }
+        }
+        return options;
+    }
+
+    // Coordenadas reais das vagas, para que os eventos PARKED caiam dentro da garagem
+    private static List<double[]> fetchSpots(URI garage) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(garage).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + garage + " returned " + response.statusCode());
+        }
+
+        List<double[]> spots = new ArrayList<>();
+        for (JsonNode spot : new ObjectMapper().readTree(response.body()).path("spots")) {
+            spots.add(new double[] {spot.path("lat").asDouble(), spot.path("lng").asDouble()});
+        }
+        return spots;
+    }
+}
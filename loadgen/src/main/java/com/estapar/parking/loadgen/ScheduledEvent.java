@@ -0,0 +1,12 @@
+package com.estapar.parking.loadgen;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Evento com o instante de envio relativo ao início da execução. É também
+ * a linha gravada no log de eventos usado pelo replay.
+ */
+public record ScheduledEvent(
+    @JsonProperty("offset_ms") long offsetMillis,
+    @JsonProperty("event") WebhookEvent event
+) {}
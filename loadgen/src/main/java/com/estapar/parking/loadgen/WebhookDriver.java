@@ -0,0 +1,221 @@
+package com.estapar.parking.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Envia eventos para POST /webhook no instante agendado (carga em malha
+ * aberta). A latência é medida a partir do instante agendado e não do
+ * envio efetivo, para que atrasos do servidor não escondam a fila que se
+ * forma do lado do cliente (coordinated omission). O tempo de serviço
+ * (envio → resposta) é registrado à parte.
+ */
+public class WebhookDriver {
+
+    // Latências em microssegundos, até 1 hora, 3 dígitos significativos
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI target;
+    private final double speed;
+    private final int maxInFlight;
+    private final Duration requestTimeout;
+    private final EventLog.Writer recordTo;
+    private final HistogramLogWriter histogramLog;
+    private final PrintStream console;
+    private final long reportIntervalMillis;
+
+    private final Recorder responseTime = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder serviceTime = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong sent = new AtomicLong();
+
+    public WebhookDriver(URI target, double speed, int maxInFlight, Duration requestTimeout,
+                         EventLog.Writer recordTo, HistogramLogWriter histogramLog,
+                         PrintStream console, long reportIntervalMillis) {
+        this.target = target;
+        this.speed = speed;
+        this.maxInFlight = maxInFlight;
+        this.requestTimeout = requestTimeout;
+        this.recordTo = recordTo;
+        this.histogramLog = histogramLog;
+        this.console = console;
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    public Report run(Iterator<ScheduledEvent> events) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Histogram totalResponse = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Histogram totalService = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Histogram intervalResponse = null;
+        Histogram intervalService = null;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+            long startNanos = System.nanoTime();
+            long startMillis = System.currentTimeMillis();
+            if (histogramLog != null) {
+                histogramLog.outputLogFormatVersion();
+                histogramLog.outputStartTime(startMillis);
+                histogramLog.setBaseTime(startMillis);
+                histogramLog.outputLegend();
+            }
+            long nextReportNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(reportIntervalMillis);
+
+            while (events.hasNext()) {
+                ScheduledEvent scheduled = events.next();
+                long intendedNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(scheduled.offsetMillis()) / speed);
+
+                // Relatório parcial enquanto espera o próximo envio
+                while (true) {
+                    long now = System.nanoTime();
+                    if (now >= nextReportNanos) {
+                        intervalResponse = responseTime.getIntervalHistogram(intervalResponse);
+                        intervalService = serviceTime.getIntervalHistogram(intervalService);
+                        totalResponse.add(intervalResponse);
+                        totalService.add(intervalService);
+                        reportInterval(intervalResponse, startNanos, now);
+                        nextReportNanos += TimeUnit.MILLISECONDS.toNanos(reportIntervalMillis);
+                        continue;
+                    }
+                    if (now >= intendedNanos) {
+                        break;
+                    }
+                    LockSupport.parkNanos(Math.min(intendedNanos, nextReportNanos) - now);
+                }
+
+                inFlight.acquire();
+                send(client, scheduled, intendedNanos, inFlight);
+            }
+
+            // Aguarda as respostas pendentes
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            intervalResponse = responseTime.getIntervalHistogram(intervalResponse);
+            intervalService = serviceTime.getIntervalHistogram(intervalService);
+            totalResponse.add(intervalResponse);
+            totalService.add(intervalService);
+            if (histogramLog != null && intervalResponse.getTotalCount() > 0) {
+                histogramLog.outputIntervalHistogram(intervalResponse);
+            }
+
+            return new Report(sent.get(), failures.sum(), snapshotStatuses(), elapsedNanos, totalResponse, totalService);
+        }
+    }
+
+    private void send(HttpClient client, ScheduledEvent scheduled, long intendedNanos, Semaphore inFlight) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(target)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(scheduled.event())))
+                .build();
+        } catch (JsonProcessingException e) {
+            inFlight.release();
+            throw new IllegalStateException(e);
+        }
+
+        if (recordTo != null) {
+            recordTo.append(scheduled);
+        }
+
+        sent.incrementAndGet();
+        long sentNanos = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                long now = System.nanoTime();
+                responseTime.recordValue(Math.min(toMicros(now - intendedNanos), HIGHEST_TRACKABLE_MICROS));
+                serviceTime.recordValue(Math.min(toMicros(now - sentNanos), HIGHEST_TRACKABLE_MICROS));
+                if (error != null) {
+                    failures.increment();
+                } else {
+                    statuses.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                }
+                inFlight.release();
+            });
+    }
+
+    private void reportInterval(Histogram interval, long startNanos, long now) {
+        if (histogramLog != null) {
+            histogramLog.outputIntervalHistogram(interval);
+        }
+        double seconds = reportIntervalMillis / 1000.0;
+        console.printf("⏱️ t=%6.1fs  %8.1f req/s  p50=%8.2fms  p99=%8.2fms  max=%8.2fms%n",
+            (now - startNanos) / 1e9,
+            interval.getTotalCount() / seconds,
+            interval.getValueAtPercentile(50) / 1000.0,
+            interval.getValueAtPercentile(99) / 1000.0,
+            interval.getMaxValue() / 1000.0);
+    }
+
+    private Map<Integer, Long> snapshotStatuses() {
+        Map<Integer, Long> snapshot = new TreeMap<>();
+        statuses.forEach((status, count) -> snapshot.put(status, count.sum()));
+        return snapshot;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public record Report(
+        long sent,
+        long failures,
+        Map<Integer, Long> statuses,
+        long elapsedNanos,
+        Histogram responseTime,
+        Histogram serviceTime
+    ) {
+
+        public void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.println();
+            out.printf("📊 Sent %d events in %.1fs (%.1f req/s)%n", sent, seconds, sent / seconds);
+            out.println("   Status codes: " + statuses + (failures > 0 ? ", connection errors: " + failures : ""));
+            printPercentiles(out, "Response time (from intended send)", responseTime);
+            printPercentiles(out, "Service time (from actual send)", serviceTime);
+            out.println();
+            out.println("Response time distribution (ms):");
+            responseTime.outputPercentileDistribution(out, 1000.0);
+        }
+
+        private static void printPercentiles(PrintStream out, String label, Histogram histogram) {
+            out.printf("   %s: p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                label,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
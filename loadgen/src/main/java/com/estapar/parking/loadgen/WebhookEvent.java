@@ -0,0 +1,32 @@
+package com.estapar.parking.loadgen;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * Mesmo formato JSON do WebhookEventDTO recebido em POST /webhook.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WebhookEvent(
+    @JsonProperty("license_plate") String licensePlate,
+    @JsonProperty("entry_time") String entryTime,
+    @JsonProperty("exit_time") String exitTime,
+    @JsonProperty("event_type") String eventType,
+    @JsonProperty("lat") BigDecimal lat,
+    @JsonProperty("lng") BigDecimal lng
+) {
+
+    public static WebhookEvent entry(String licensePlate, String entryTime) {
+        return new WebhookEvent(licensePlate, entryTime, null, "ENTRY", null, null);
+    }
+
+    public static WebhookEvent parked(String licensePlate, BigDecimal lat, BigDecimal lng) {
+        return new WebhookEvent(licensePlate, null, null, "PARKED", lat, lng);
+    }
+
+    public static WebhookEvent exit(String licensePlate, String exitTime) {
+        return new WebhookEvent(licensePlate, null, exitTime, "EXIT", null, null);
+    }
+}
@@ -0,0 +1,116 @@
+package com.estapar.parking.loadgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LifecycleWorkload Tests")
+class LifecycleWorkloadTest {
+
+    @Test
+    @DisplayName("Deve gerar ENTRY, PARKED e EXIT em ordem para cada placa")
+    void testLifecycle_OrderedPerPlate() {
+        // Arrange
+        LifecycleWorkload workload = new LifecycleWorkload(settings(200, 20, true, List.of()));
+
+        // Act
+        List<ScheduledEvent> events = drain(workload);
+
+        // Assert
+        Map<String, String> lastType = new HashMap<>();
+        long previousOffset = 0;
+        for (ScheduledEvent scheduled : events) {
+            assertTrue(scheduled.offsetMillis() >= previousOffset, "Eventos devem sair em ordem de envio");
+            previousOffset = scheduled.offsetMillis();
+
+            String plate = scheduled.event().licensePlate();
+            String expected = switch (lastType.getOrDefault(plate, "EXIT")) {
+                case "EXIT" -> "ENTRY";
+                case "ENTRY" -> "PARKED";
+                default -> "EXIT";
+            };
+            assertEquals(expected, scheduled.event().eventType(), "Ciclo fora de ordem para " + plate);
+            lastType.put(plate, scheduled.event().eventType());
+        }
+
+        assertFalse(events.isEmpty());
+        assertTrue(lastType.values().stream().allMatch("EXIT"::equals), "Com drain todos devem sair");
+    }
+
+    @Test
+    @DisplayName("Deve respeitar a cardinalidade de placas")
+    void testLifecycle_PlateCardinality() {
+        // Arrange
+        LifecycleWorkload workload = new LifecycleWorkload(settings(500, 10, false, List.of()));
+
+        // Act
+        Set<String> inside = new HashSet<>();
+        Set<String> distinct = new HashSet<>();
+        int maxInside = 0;
+        for (ScheduledEvent scheduled : drain(workload)) {
+            String plate = scheduled.event().licensePlate();
+            distinct.add(plate);
+            if (scheduled.event().eventType().equals("ENTRY")) {
+                assertTrue(inside.add(plate), "Placa já estava dentro: " + plate);
+            } else if (scheduled.event().eventType().equals("EXIT")) {
+                inside.remove(plate);
+            }
+            maxInside = Math.max(maxInside, inside.size());
+        }
+
+        // Assert
+        assertTrue(distinct.size() <= 10);
+        assertTrue(maxInside <= 10);
+        assertTrue(workload.skippedArrivals() > 0, "Com poucas placas chegadas devem ser descartadas");
+    }
+
+    @Test
+    @DisplayName("Deve preencher horários de entrada/saída e coordenadas das vagas")
+    void testLifecycle_TimestampsAndCoordinates() {
+        // Arrange
+        LifecycleWorkload workload = new LifecycleWorkload(
+            settings(50, 100, true, List.of(new double[] {-23.561684, -46.655981})));
+
+        // Act
+        List<ScheduledEvent> events = drain(workload);
+
+        // Assert
+        for (ScheduledEvent scheduled : events) {
+            WebhookEvent event = scheduled.event();
+            switch (event.eventType()) {
+                case "ENTRY" -> assertNotNull(event.entryTime());
+                case "EXIT" -> assertNotNull(event.exitTime());
+                default -> {
+                    assertEquals(-23.561684, event.lat().doubleValue());
+                    assertEquals(-46.655981, event.lng().doubleValue());
+                    assertNull(event.entryTime());
+                }
+            }
+        }
+    }
+
+    private List<ScheduledEvent> drain(LifecycleWorkload workload) {
+        List<ScheduledEvent> events = new ArrayList<>();
+        workload.forEachRemaining(events::add);
+        return events;
+    }
+
+    private LifecycleWorkload.Settings settings(double rate, int plates, boolean drain, List<double[]> spots) {
+        return new LifecycleWorkload.Settings(
+            rate, 2_000, plates, DwellDistribution.LOGNORMAL, 90, 0.8, 3600, drain,
+            LocalDateTime.of(2025, 1, 4, 10, 0), spots, 42);
+    }
+}
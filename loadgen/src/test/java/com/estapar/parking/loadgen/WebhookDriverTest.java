@@ -0,0 +1,103 @@
+package com.estapar.parking.loadgen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+@DisplayName("WebhookDriver Tests")
+class WebhookDriverTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> received = Collections.synchronizedList(new ArrayList<>());
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/webhook", exchange -> {
+            received.add(objectMapper.readTree(exchange.getRequestBody()));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Deve enviar, gravar e reproduzir os mesmos eventos")
+    void testRun_RecordAndReplay(@TempDir Path dir) throws Exception {
+        // Arrange
+        Path log = dir.resolve("events.jsonl");
+        List<ScheduledEvent> events = List.of(
+            new ScheduledEvent(0, WebhookEvent.entry("ABC1234", "2025-01-04T10:00:00")),
+            new ScheduledEvent(50, WebhookEvent.parked("ABC1234", null, null)),
+            new ScheduledEvent(100, WebhookEvent.exit("ABC1234", "2025-01-04T12:00:00")));
+
+        // Act
+        WebhookDriver.Report recorded;
+        try (EventLog.Writer writer = EventLog.writer(log)) {
+            recorded = driver(1.0, writer).run(events.iterator());
+        }
+        List<JsonNode> firstRun = new ArrayList<>(received);
+        received.clear();
+        WebhookDriver.Report replayed = driver(10.0, null).run(EventLog.read(log));
+
+        // Assert
+        assertEquals(3, recorded.sent());
+        assertEquals(Map.of(200, 3L), recorded.statuses());
+        assertEquals(3, recorded.responseTime().getTotalCount());
+        assertEquals(3, Files.readAllLines(log).size());
+        assertEquals(firstRun, received, "Replay deve enviar os mesmos eventos");
+        assertEquals("ENTRY", received.get(0).get("event_type").asText());
+        assertEquals("ABC1234", received.get(0).get("license_plate").asText());
+        assertTrue(replayed.elapsedNanos() < recorded.elapsedNanos(), "Replay a 10x deve ser mais rápido");
+    }
+
+    @Test
+    @DisplayName("Deve imprimir percentis de latência no relatório")
+    void testReport_PrintsPercentiles() throws Exception {
+        // Arrange
+        List<ScheduledEvent> events = List.of(
+            new ScheduledEvent(0, WebhookEvent.entry("XYZ9876", "2025-01-04T10:00:00")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        driver(1.0, null).run(events.iterator()).print(new PrintStream(out, true));
+
+        // Assert
+        String report = out.toString();
+        assertTrue(report.contains("p99="), report);
+        assertTrue(report.contains("Value     Percentile"), "Deve conter a distribuição do HdrHistogram");
+    }
+
+    private WebhookDriver driver(double speed, EventLog.Writer writer) {
+        URI target = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/webhook");
+        return new WebhookDriver(target, speed, 4, Duration.ofSeconds(5), writer, null,
+            new PrintStream(new ByteArrayOutputStream()), 1_000);
+    }
+}
@@ -0,0 +1,141 @@
+package com.estapar.parking.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de log de um ciclo ENTRY + EXIT com 8 threads: linhas antigas via
+ * PrintStream sincronizado contra SLF4J parametrizado com AsyncAppender
+ * (sem descarte, para medir só o custo do log).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class LoggingBenchmark {
+
+    // Nível de com.estapar.parking; INFO é o padrão da aplicação
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    private final String plate = "ABC1234";
+    private final BigDecimal appliedPrice = new BigDecimal("11.00");
+    private final BigDecimal basePrice = new BigDecimal("10.00");
+    private final BigDecimal finalAmount = new BigDecimal("33.00");
+
+    private Logger log;
+    private PrintStream legacyOut;
+    private AsyncAppender async;
+    private Path legacyFile;
+    private Path logFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        legacyFile = Files.createTempFile("legacy", ".log");
+        logFile = Files.createTempFile("slf4j", ".log");
+
+        // Mesmo comportamento do System.out: flush a cada println
+        legacyOut = new PrintStream(new FileOutputStream(legacyFile.toFile()), true);
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %mdc %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(0);
+        async.addAppender(file);
+        async.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(async);
+        context.getLogger("com.estapar.parking").setLevel(ch.qos.logback.classic.Level.toLevel(level));
+
+        log = LoggerFactory.getLogger(ParkingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        async.stop();
+        legacyOut.close();
+        Files.deleteIfExists(legacyFile);
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public void systemOut() {
+        long minutes = 150;
+        double hours = minutes / 60.0;
+        legacyOut.println("🚗 Processing ENTRY for vehicle: " + plate);
+        legacyOut.println("✅ Selected sector: " + "A" + " (" + 40 + "/" + 100 + " occupied)");
+        legacyOut.println("💰 Applied price: R$ " + appliedPrice + " (base: R$ " + basePrice + ")");
+        legacyOut.println("✅ Entry session created with ID: " + 42L);
+        legacyOut.println("🚪 Processing EXIT for vehicle: " + plate);
+        legacyOut.println("⏱️ Parking duration: " + minutes + " minutes");
+        legacyOut.println("📊 Charged hours: " + (long) Math.ceil(hours) + " (actual: " + hours + ")");
+        legacyOut.println("💵 Final amount: R$ " + finalAmount);
+        legacyOut.println("✅ Spot " + 7L + " released");
+        legacyOut.println("✅ Exit processed successfully");
+    }
+
+    @Benchmark
+    public void slf4jAsync() {
+        long minutes = 150;
+        LogContext.plate(plate);
+        log.debug("Processing ENTRY");
+        log.debug("Selected sector {} ({}/{} occupied)", "A", 40L, 100);
+        LogContext.session(42L);
+        log.info("ENTRY sector={} price={} base={}", "A", appliedPrice, basePrice);
+        LogContext.clear();
+
+        LogContext.plate(plate);
+        log.debug("Processing EXIT");
+        LogContext.session(42L);
+        log.debug("Parking duration: {} minutes, charged hours: {}", minutes, (minutes + 59) / 60);
+        log.debug("Spot {} released", 7L);
+        log.info("EXIT amount={} sector={}", finalAmount, "A");
+        LogContext.clear();
+    }
+}
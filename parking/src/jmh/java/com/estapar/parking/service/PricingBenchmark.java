@@ -0,0 +1,100 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do cálculo de preço dinâmico (na entrada) e do valor final (na saída).
+ * dynamicPrice/finalAmount incluem a conversão para BigDecimal gravada na
+ * sessão; os *Cents medem só o PricingEngine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int MAX_CAPACITY = 100;
+
+    // Ocupação do setor no momento da entrada (define a faixa de preço)
+    @Param({"0.10", "0.40", "0.60", "0.90"})
+    public double occupancy;
+
+    private final ParkingService parkingService = new ParkingService();
+    private final PricingEngine pricingEngine = new PricingEngine();
+    private final BigDecimal basePrice = new BigDecimal("10.00");
+    private final Sector sector = new Sector("A", basePrice, MAX_CAPACITY);
+
+    private Long occupiedCount;
+    private BigDecimal appliedPrice;
+    private long appliedPriceCents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        occupiedCount = Math.round(MAX_CAPACITY * occupancy);
+        appliedPrice = parkingService.calculateDynamicPrice(basePrice, occupiedCount, MAX_CAPACITY);
+        appliedPriceCents = PricingEngine.toCents(appliedPrice);
+        sector.setId(1L);
+        pricingEngine.load(List.of(sector));
+
+        // Mesmo nível de log da aplicação: linhas de DEBUG do cálculo desligadas
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.estapar.parking"))
+            .setLevel(ch.qos.logback.classic.Level.INFO);
+    }
+
+    @Benchmark
+    public BigDecimal dynamicPrice() {
+        return parkingService.calculateDynamicPrice(basePrice, occupiedCount, MAX_CAPACITY);
+    }
+
+    @Benchmark
+    public BigDecimal finalAmount(Stay stay) {
+        return parkingService.calculateFinalAmount(stay.entryTime, stay.exitTime, appliedPrice);
+    }
+
+    @Benchmark
+    public long dynamicPriceCents() {
+        return pricingEngine.priceCents(sector, occupiedCount);
+    }
+
+    @Benchmark
+    public long finalAmountCents(Stay stay) {
+        return PricingEngine.finalAmountCents(stay.durationMinutes, appliedPriceCents);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Stay {
+
+        // Permanência do veículo: gratuita, poucas horas e um dia inteiro
+        @Param({"20", "95", "1440"})
+        public long durationMinutes;
+
+        LocalDateTime entryTime;
+        LocalDateTime exitTime;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            entryTime = LocalDateTime.of(2025, 1, 1, 8, 0);
+            exitTime = entryTime.plusMinutes(durationMinutes);
+        }
+    }
+}
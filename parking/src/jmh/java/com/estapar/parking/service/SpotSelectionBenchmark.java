@@ -0,0 +1,100 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Spot;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da escolha da vaga mais próxima: busca linear sobre as vagas livres
+ * (caminho legado) e índice espacial do setor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpotSelectionBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int spotCount;
+
+    // Fração das vagas já ocupadas (fora da lista de candidatas)
+    @Param({"0.0", "0.50", "0.95"})
+    public double occupancy;
+
+    private final ParkingService parkingService = new ParkingService();
+
+    private List<Spot> freeSpots;
+    private SectorSpotIndex index;
+    private double[][] targets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+
+        List<Spot> spots = new ArrayList<>(spotCount);
+        for (long id = 1; id <= spotCount; id++) {
+            Spot spot = new Spot();
+            spot.setId(id);
+            spot.setLatitude(-23.56 + random.nextDouble() * 0.02);
+            spot.setLongitude(-46.66 + random.nextDouble() * 0.02);
+            spots.add(spot);
+        }
+        Collections.shuffle(spots, random);
+
+        int free = Math.max(1, (int) Math.round(spotCount * (1 - occupancy)));
+        freeSpots = new ArrayList<>(spots.subList(0, free));
+        index = new SectorSpotIndex(freeSpots.stream()
+            .map(s -> new SpotPoint(s.getId(), s.getLatitude(), s.getLongitude()))
+            .toList());
+
+        targets = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            targets[i] = new double[] {-23.56 + random.nextDouble() * 0.02, -46.66 + random.nextDouble() * 0.02};
+        }
+    }
+
+    private double[] nextTarget() {
+        return targets[next++ & (QUERIES - 1)];
+    }
+
+    @Benchmark
+    public Spot linearScan() {
+        double[] target = nextTarget();
+        return parkingService.findClosestSpot(freeSpots, target[0], target[1]);
+    }
+
+    @Benchmark
+    public SpotPoint spatialIndex() {
+        double[] target = nextTarget();
+        return index.nearest(target[0], target[1]);
+    }
+
+    @Benchmark
+    public double distance() {
+        double[] target = nextTarget();
+        Spot spot = freeSpots.get(0);
+        return parkingService.calculateDistance(spot.getLatitude(), spot.getLongitude(), target[0], target[1]);
+    }
+}
@@ -2,8 +2,10 @@ package com.estapar.parking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ParkingApplication {
     public static void main(String[] args) {
         SpringApplication.run(ParkingApplication.class, args);
@@ -0,0 +1,119 @@
+package com.estapar.parking.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Limita quantas threads usam conexões JDBC ao mesmo tempo. Com threads
+ * virtuais o número de requisições simultâneas deixa de ser limitado pelo
+ * pool do Tomcat, então a fila de espera passa a ser este semáforo (justo,
+ * com timeout) em vez do banco.
+ *
+ * A permissão é por thread: conexões aninhadas abertas pela mesma thread
+ * (ex.: REQUIRES_NEW) não consomem outra permissão, evitando deadlock.
+ * Por isso o pool deve ter algumas conexões a mais que o limite.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final ThreadLocal<int[]> holds = ThreadLocal.withInitial(() -> new int[1]);
+
+    public ConcurrencyLimitedDataSource(DataSource target, int maxConcurrent, long acquireTimeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int[] held = acquire();
+        try {
+            return limited(held, super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int[] held = acquire();
+        try {
+            return limited(held, super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+
+    private int[] acquire() throws SQLException {
+        int[] held = holds.get();
+        if (held[0] > 0) {
+            held[0]++;
+            return held;
+        }
+
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                    "JDBC concurrency limit reached, timed out after " + acquireTimeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a JDBC permit", e);
+        }
+        held[0] = 1;
+        return held;
+    }
+
+    // Usa o contador da thread que abriu a conexão, mesmo se outra a fechar
+    private void release(int[] held) {
+        if (--held[0] == 0) {
+            permits.release();
+        }
+    }
+
+    private Connection limited(int[] held, Connection target) {
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(
+            ConcurrencyLimitedDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                    if (closed[0]) {
+                        return null;
+                    }
+                    closed[0] = true;
+                    try {
+                        target.close();
+                    } finally {
+                        release(held);
+                    }
+                    return null;
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+}
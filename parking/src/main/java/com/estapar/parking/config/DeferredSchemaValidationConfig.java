@@ -0,0 +1,42 @@
+package com.estapar.parking.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Inicialização rápida (parking.startup.deferred-validation=true).
+ *
+ * No caminho crítico o Flyway só aplica migrações pendentes, sem recalcular
+ * os checksums das já aplicadas, e o Hibernate sobe sem validar as tabelas
+ * (ddl-auto=none). As duas validações ficam para o
+ * {@link DeferredSchemaValidator}, após o ApplicationReadyEvent.
+ */
+@Configuration
+@ConditionalOnProperty(name = "parking.startup.deferred-validation", havingValue = "true")
+public class DeferredSchemaValidationConfig {
+
+    @Bean
+    public FlywayMigrationStrategy migrateWithoutValidation() {
+        return flyway -> Flyway.configure(flyway.getConfiguration().getClassLoader())
+            .configuration(flyway.getConfiguration())
+            .validateOnMigrate(false)
+            .load()
+            .migrate();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer skipSchemaValidation() {
+        return properties -> properties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+    }
+
+    @Bean
+    public DeferredSchemaValidator deferredSchemaValidator(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        return new DeferredSchemaValidator(flyway, entityManagerFactory);
+    }
+}
@@ -0,0 +1,52 @@
+package com.estapar.parking.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Valida o histórico do Flyway (checksums das migrações aplicadas) e as
+ * tabelas mapeadas pelo Hibernate depois que a aplicação já está atendendo.
+ * Se alguma validação falhar, a aplicação passa a recusar tráfego
+ * (readiness REFUSING_TRAFFIC) em vez de seguir com um esquema divergente.
+ */
+public class DeferredSchemaValidator implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(DeferredSchemaValidator.class);
+
+    private final Flyway flyway;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public DeferredSchemaValidator(Flyway flyway, EntityManagerFactory entityManagerFactory) {
+        this.flyway = flyway;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Thread.ofPlatform().daemon().name("deferred-schema-validation")
+            .start(() -> validate(event.getApplicationContext()));
+    }
+
+    /** Executa as duas validações; false (e readiness recusada) se alguma falhar. */
+    boolean validate(ApplicationEventPublisher publisher) {
+        long start = System.nanoTime();
+        try {
+            flyway.validate();
+            entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().validateMappedObjects();
+        } catch (RuntimeException e) {
+            log.error("Deferred schema validation failed, refusing traffic", e);
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+            return false;
+        }
+        log.info("Deferred schema validation passed in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.estapar.parking.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registra uma única vez o tempo entre o início da JVM e a primeira resposta
+ * (time-to-first-request), para comparar com o "Started ... in" do Spring Boot.
+ */
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+    private final AtomicBoolean served = new AtomicBoolean();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+
+        if (!served.get() && served.compareAndSet(false, true)) {
+            long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            log.info("First request served {} ms after JVM start: {} {} -> {}",
+                millis, request.getMethod(), request.getRequestURI(), response.getStatus());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.estapar.parking.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Soma, por thread, o tempo gasto executando comandos JDBC (individuais e
+ * em lote). Instanciado pelo Hibernate para cada sessão via
+ * hibernate.session.events.auto; quem mede lê {@link #elapsedNanos()}
+ * antes e depois do trecho de interesse.
+ *
+ * Só enxerga comandos emitidos pelo Hibernate: os executados diretamente
+ * via JdbcTemplate (ex.: WebhookDeduplicator e WebhookEventLog) não são
+ * somados.
+ */
+public class JdbcTimingSessionListener extends BaseSessionEventListener {
+
+    private static final ThreadLocal<long[]> ELAPSED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private long statementStart;
+    private long batchStart;
+
+    public static long elapsedNanos() {
+        return ELAPSED.get()[0];
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        ELAPSED.get()[0] += System.nanoTime() - statementStart;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        ELAPSED.get()[0] += System.nanoTime() - batchStart;
+    }
+}
@@ -0,0 +1,41 @@
+package com.estapar.parking.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Modo de threads virtuais (spring.threads.virtual.enabled=true).
+ *
+ * O Spring Boot já troca o executor do Tomcat e os executores de tarefas
+ * por threads virtuais; aqui o DataSource recebe o semáforo que limita o
+ * acesso concorrente ao banco.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${parking.jdbc.max-concurrent:8}") int maxConcurrent,
+            @Value("${parking.jdbc.acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    log.info("Virtual threads enabled, JDBC concurrency limited to {}", maxConcurrent);
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrent, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,26 +1,80 @@
 package com.estapar.parking.controller;
 
-import com.estapar.parking.dto.GarageConfigDTO;
-import com.estapar.parking.service.ParkingService;
+import com.estapar.parking.service.GarageConfigurationCache;
+import com.estapar.parking.service.GarageConfigurationCache.CachedGarage;
+import com.estapar.parking.service.GarageConfigurationWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/garage")
 public class GarageController {
     
+    private static final Logger log = LoggerFactory.getLogger(GarageController.class);
+    
+    @Autowired
+    private GarageConfigurationCache garageConfigurationCache;
+    
     @Autowired
-    private ParkingService parkingService;
+    private GarageConfigurationWriter garageConfigurationWriter;
     
     @GetMapping
-    public ResponseEntity<GarageConfigDTO> getGarageConfiguration() {
-        System.out.println("🏢 GET /garage - Fetching garage configuration");
+    public ResponseEntity<StreamingResponseBody> getGarageConfiguration(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("GET /garage");
+        
+        CachedGarage garage = garageConfigurationCache.get();
         
-        GarageConfigDTO config = parkingService.getGarageConfiguration();
+        // Cliente já tem a versão atual: responder sem corpo
+        if (matches(ifNoneMatch, garage.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(garage.etag())
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+        
+        // Layout grande demais para o cache: escrever direto do banco
+        byte[] cachedBody = garage.body();
+        StreamingResponseBody body = cachedBody != null
+            ? out -> out.write(cachedBody)
+            : garageConfigurationWriter::write;
+        
+        return ResponseEntity.ok()
+            .eTag(garage.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+    
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
         
-        return ResponseEntity.ok(config);
+        // If-None-Match usa comparação fraca: W/"x" equivale a "x"
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
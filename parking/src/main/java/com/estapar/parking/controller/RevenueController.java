@@ -2,12 +2,20 @@ package com.estapar.parking.controller;
 
 import com.estapar.parking.dto.RevenueRequestDTO;
 import com.estapar.parking.dto.RevenueResponseDTO;
+import com.estapar.parking.dto.RevenueRollupRebuildDTO;
+import com.estapar.parking.service.RevenueReportService;
+import com.estapar.parking.service.RevenueRollupService;
 import com.estapar.parking.service.RevenueService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/revenue")
@@ -16,6 +24,12 @@ public class RevenueController {
     @Autowired
     private RevenueService revenueService;
     
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private RevenueReportService revenueReportService;
+    
     @GetMapping
     public ResponseEntity<RevenueResponseDTO> getRevenue(@RequestBody RevenueRequestDTO request) {
         try {
@@ -31,4 +45,33 @@ public class RevenueController {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    // Totais por dia e setor no intervalo (inclusive); sector pode ser repetido para filtrar
+    @GetMapping("/report")
+    public ResponseEntity<StreamingResponseBody> getRevenueReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "sector", required = false) List<String> sectors) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = out -> revenueReportService.writeReport(from, to, sectors, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+    
+    // Recalcula daily_sector_revenue para o intervalo (inclusive) a partir das sessões
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<RevenueRollupRebuildDTO> rebuildRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            int rows = revenueRollupService.rebuild(from, to);
+            return ResponseEntity.ok(new RevenueRollupRebuildDTO(from, to, rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.service.GarageLayoutGenerator;
+import com.estapar.parking.service.SimulatorTrafficService;
+import com.estapar.parking.service.SimulatorTrafficService.TrafficStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Optional;
+
+/**
+ * Simulador embutido (perfil simulator), no lugar do serviço externo em
+ * /mock/garage: gera layouts de 3 a 1000 setores e 30 a 500 mil vagas e
+ * dispara ciclos ENTRY/PARKED/EXIT contra POST /webhook.
+ */
+@RestController
+@Profile("simulator")
+@RequestMapping("/mock")
+public class SimulatorController {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatorController.class);
+
+    @Autowired
+    private GarageLayoutGenerator garageLayoutGenerator;
+
+    @Autowired
+    private SimulatorTrafficService simulatorTrafficService;
+
+    @Value("${parking.simulator.sectors:3}")
+    private int defaultSectors = 3;
+
+    @Value("${parking.simulator.spots:30}")
+    private int defaultSpots = 30;
+
+    @Value("${parking.simulator.seed:42}")
+    private long defaultSeed = 42;
+
+    @GetMapping("/garage")
+    public ResponseEntity<StreamingResponseBody> getGarage(
+            @RequestParam(required = false) Integer sectors,
+            @RequestParam(required = false) Integer spots,
+            @RequestParam(required = false) Long seed,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int sectorCount = sectors != null ? sectors : defaultSectors;
+        int spotCount = spots != null ? spots : defaultSpots;
+        long layoutSeed = seed != null ? seed : defaultSeed;
+        log.debug("GET /mock/garage sectors={} spots={} seed={}", sectorCount, spotCount, layoutSeed);
+
+        if (!GarageLayoutGenerator.isValid(sectorCount, spotCount)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = garageLayoutGenerator.etag(sectorCount, spotCount, layoutSeed);
+        if (ifNoneMatch != null && ifNoneMatch.replace("W/", "").contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> garageLayoutGenerator.write(sectorCount, spotCount, layoutSeed, out));
+    }
+
+    @PostMapping("/traffic")
+    public ResponseEntity<TrafficStatus> startTraffic(
+            @RequestParam(defaultValue = "1000") int vehicles,
+            @RequestParam(defaultValue = "16") int concurrency,
+            @RequestParam(required = false) Long seed) {
+        if (!SimulatorTrafficService.isValid(vehicles, concurrency)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<TrafficStatus> started = simulatorTrafficService.start(
+            vehicles, concurrency, seed != null ? seed : System.nanoTime());
+        return started
+            .map(status -> ResponseEntity.accepted().body(status))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    @GetMapping("/traffic")
+    public ResponseEntity<TrafficStatus> getTraffic() {
+        return ResponseEntity.of(simulatorTrafficService.status());
+    }
+}
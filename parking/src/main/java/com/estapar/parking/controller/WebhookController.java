@@ -1,27 +1,67 @@
 package com.estapar.parking.controller;
 
 import com.estapar.parking.dto.WebhookEventDTO;
+import com.estapar.parking.dto.WebhookEventResultDTO;
 import com.estapar.parking.exception.ParkingFullException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
 import com.estapar.parking.exception.VehicleNotFoundException;
+import com.estapar.parking.service.AsyncWebhookIngestor;
+import com.estapar.parking.service.LogContext;
+import com.estapar.parking.service.ParkingMetrics;
 import com.estapar.parking.service.ParkingService;
+import com.estapar.parking.service.WebhookBatchService;
+import com.estapar.parking.service.WebhookDeduplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/webhook")
 public class WebhookController {
     
+    private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
+    
     @Autowired
     private ParkingService parkingService;
     
+    @Autowired
+    private WebhookBatchService webhookBatchService;
+    
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+    
+    @Autowired
+    private WebhookDeduplicator webhookDeduplicator;
+    
+    // Presente apenas com parking.webhook.async.enabled=true
+    @Autowired(required = false)
+    private AsyncWebhookIngestor asyncWebhookIngestor;
+    
     @PostMapping
     public ResponseEntity<Void> handleWebhook(@RequestBody WebhookEventDTO event) {
+        if (asyncWebhookIngestor != null) {
+            return enqueueWebhook(event);
+        }
+        
+        ParkingMetrics.Sample sample = parkingMetrics.start();
+        String eventType = event.getEventType();
+        HttpStatus status;
+        Exception error = null;
+        
+        // Reenvio dentro da janela: responde sem passar pelo ParkingService
+        if (webhookDeduplicator.isDuplicate(event)) {
+            parkingMetrics.recordDuplicate("http", eventType);
+            parkingMetrics.stop(sample, "http", eventType, HttpStatus.OK, null);
+            return ResponseEntity.ok().build();
+        }
+        
         try {
-            String eventType = event.getEventType();
-            
             if ("ENTRY".equals(eventType)) {
                 parkingService.handleEntry(event);
             } else if ("PARKED".equals(eventType)) {
@@ -29,17 +69,88 @@ public class WebhookController {
             } else if ("EXIT".equals(eventType)) {
                 parkingService.handleExit(event);
             } else {
-                return ResponseEntity.badRequest().build();
+                status = HttpStatus.BAD_REQUEST;
+                parkingMetrics.stop(sample, "http", eventType, status, null);
+                return ResponseEntity.status(status).build();
             }
             
-            return ResponseEntity.ok().build();
+            status = HttpStatus.OK;
             
+        } catch (DuplicateKeyException e) {
+            // O mesmo evento foi gravado por outra requisição em paralelo
+            status = HttpStatus.OK;
+            webhookDeduplicator.remember(event);
+            parkingMetrics.recordDuplicate("http", eventType);
         } catch (ParkingFullException | VehicleAlreadyParkedException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            status = rejected(event, HttpStatus.CONFLICT, e);
+            error = status == HttpStatus.OK ? null : e;
         } catch (VehicleNotFoundException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            status = rejected(event, HttpStatus.NOT_FOUND, e);
+            error = status == HttpStatus.OK ? null : e;
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            error = e;
+            log.error("{} failed for {}", eventType, event.getLicensePlate(), e);
+        } finally {
+            LogContext.clear();
+        }
+        
+        parkingMetrics.stop(sample, "http", eventType, status, error);
+        return ResponseEntity.status(status).build();
+    }
+    
+    /**
+     * 409/404 de um evento já aplicado (reenvio após restart ou de outra
+     * instância) responde com o resultado original.
+     */
+    private HttpStatus rejected(WebhookEventDTO event, HttpStatus status, Exception e) {
+        if (webhookDeduplicator.wasProcessed(event)) {
+            parkingMetrics.recordDuplicate("http", event.getEventType());
+            return HttpStatus.OK;
+        }
+        
+        log.info("{} rejected: {}", event.getEventType(), e.getMessage());
+        return status;
+    }
+    
+    private ResponseEntity<Void> enqueueWebhook(WebhookEventDTO event) {
+        String eventType = event.getEventType();
+        if (!"ENTRY".equals(eventType) && !"PARKED".equals(eventType) && !"EXIT".equals(eventType)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (!hasRequiredFields(event)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        if (!asyncWebhookIngestor.enqueue(event)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        
+        return ResponseEntity.accepted().build();
+    }
+    
+    /**
+     * Depois do 202 o evento só é aplicado na fila; sem estes campos ele
+     * falharia lá e iria para o dead-letter, então é recusado aqui.
+     */
+    private boolean hasRequiredFields(WebhookEventDTO event) {
+        if (event.getLicensePlate() == null || event.getLicensePlate().isBlank()) {
+            return false;
+        }
+        return switch (event.getEventType()) {
+            case "ENTRY" -> event.getEntryTime() != null;
+            case "EXIT" -> event.getExitTime() != null;
+            default -> true;
+        };
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<List<WebhookEventResultDTO>> handleWebhookBatch(@RequestBody List<WebhookEventDTO> events) {
+        if (events == null || events.isEmpty()) {
+            return ResponseEntity.badRequest().build();
         }
+        
+        return ResponseEntity.ok(webhookBatchService.processBatch(events));
     }
 }
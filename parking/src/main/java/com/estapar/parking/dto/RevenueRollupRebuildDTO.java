@@ -0,0 +1,49 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+
+public class RevenueRollupRebuildDTO {
+    
+    @JsonProperty("from")
+    private LocalDate from;
+    
+    @JsonProperty("to")
+    private LocalDate to;
+    
+    @JsonProperty("rows")
+    private int rows;
+    
+    public RevenueRollupRebuildDTO() {}
+    
+    public RevenueRollupRebuildDTO(LocalDate from, LocalDate to, int rows) {
+        this.from = from;
+        this.to = to;
+        this.rows = rows;
+    }
+    
+    public LocalDate getFrom() {
+        return from;
+    }
+    
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+    
+    public LocalDate getTo() {
+        return to;
+    }
+    
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+}
@@ -7,6 +7,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class WebhookEventDTO {
     
+    // Opcional: identificador do evento na cancela, usado como chave de idempotência
+    @JsonProperty("event_id")
+    private String eventId;
+    
     @JsonProperty("license_plate")
     private String licensePlate;
     
@@ -29,6 +33,14 @@ public class WebhookEventDTO {
     public WebhookEventDTO() {}
     
     // Getters and Setters
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
     public String getLicensePlate() {
         return licensePlate;
     }
@@ -0,0 +1,59 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class WebhookEventResultDTO {
+    
+    @JsonProperty("index")
+    private int index;
+    
+    @JsonProperty("license_plate")
+    private String licensePlate;
+    
+    @JsonProperty("event_type")
+    private String eventType;
+    
+    @JsonProperty("status")
+    private int status;
+    
+    public WebhookEventResultDTO() {}
+    
+    public WebhookEventResultDTO(int index, String licensePlate, String eventType, int status) {
+        this.index = index;
+        this.licensePlate = licensePlate;
+        this.eventType = eventType;
+        this.status = status;
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+    
+    public void setLicensePlate(String licensePlate) {
+        this.licensePlate = licensePlate;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+    
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
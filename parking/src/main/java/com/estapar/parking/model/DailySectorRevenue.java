@@ -0,0 +1,50 @@
+package com.estapar.parking.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "daily_sector_revenue")
+public class DailySectorRevenue {
+
+    @EmbeddedId
+    private DailySectorRevenueId id;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "session_count", nullable = false)
+    private Long sessionCount;
+
+    public DailySectorRevenue() {}
+
+    public DailySectorRevenue(DailySectorRevenueId id, BigDecimal totalAmount, Long sessionCount) {
+        this.id = id;
+        this.totalAmount = totalAmount;
+        this.sessionCount = sessionCount;
+    }
+
+    public DailySectorRevenueId getId() {
+        return id;
+    }
+
+    public void setId(DailySectorRevenueId id) {
+        this.id = id;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getSessionCount() {
+        return sessionCount;
+    }
+
+    public void setSessionCount(Long sessionCount) {
+        this.sessionCount = sessionCount;
+    }
+}
@@ -0,0 +1,48 @@
+package com.estapar.parking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Embeddable
+public class DailySectorRevenueId implements Serializable {
+
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    @Column(name = "sector_id", nullable = false)
+    private Long sectorId;
+
+    public DailySectorRevenueId() {}
+
+    public DailySectorRevenueId(LocalDate revenueDate, Long sectorId) {
+        this.revenueDate = revenueDate;
+        this.sectorId = sectorId;
+    }
+
+    public LocalDate getRevenueDate() {
+        return revenueDate;
+    }
+
+    public Long getSectorId() {
+        return sectorId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailySectorRevenueId other)) {
+            return false;
+        }
+        return Objects.equals(revenueDate, other.revenueDate) && Objects.equals(sectorId, other.sectorId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(revenueDate, sectorId);
+    }
+}
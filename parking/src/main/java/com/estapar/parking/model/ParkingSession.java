@@ -9,7 +9,9 @@ import java.time.LocalDateTime;
 public class ParkingSession {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "parking_sessions_id")
+    @TableGenerator(name = "parking_sessions_id", table = "id_generators", pkColumnName = "gen_name",
+        valueColumnName = "gen_value", pkColumnValue = "parking_sessions", allocationSize = 50)
     private Long id;
     
     @Column(name = "license_plate", nullable = false, length = 20)
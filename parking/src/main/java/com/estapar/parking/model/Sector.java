@@ -1,5 +1,6 @@
 package com.estapar.parking.model;
 
+import com.estapar.parking.service.GarageLayoutListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -7,11 +8,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(GarageLayoutListener.class)
 @Table(name = "sectors")
 public class Sector {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sectors_id")
+    @TableGenerator(name = "sectors_id", table = "id_generators", pkColumnName = "gen_name",
+        valueColumnName = "gen_value", pkColumnValue = "sectors", allocationSize = 10)
     private Long id;
 
     @Column(name = "sector_code", nullable = false, unique = true, length = 10)
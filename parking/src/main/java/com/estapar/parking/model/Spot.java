@@ -1,14 +1,18 @@
 package com.estapar.parking.model;
 
+import com.estapar.parking.service.GarageLayoutListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(GarageLayoutListener.class)
 @Table(name = "spots")
 public class Spot {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) 
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "spots_id")
+    @TableGenerator(name = "spots_id", table = "id_generators", pkColumnName = "gen_name",
+        valueColumnName = "gen_value", pkColumnValue = "spots", allocationSize = 50)
     private Long id;
 
     @Column(name = "spot_code", nullable = false, unique = true, length = 10)
@@ -33,6 +37,10 @@ public class Spot {
     @Column(name = "occupied_at")
     private LocalDateTime occupiedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Spot() {}
 
     public Spot(String spotCode, Double longitude, Double latitude, Sector sector) {
@@ -107,6 +115,14 @@ public class Spot {
         this.occupiedAt = occupiedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Spot{" +
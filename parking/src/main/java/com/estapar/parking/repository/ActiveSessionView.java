@@ -0,0 +1,8 @@
+package com.estapar.parking.repository;
+
+public interface ActiveSessionView {
+    Long getId();
+    String getLicensePlate();
+    Long getSectorId();
+    Long getSpotId();
+}
@@ -0,0 +1,72 @@
+package com.estapar.parking.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.estapar.parking.model.DailySectorRevenue;
+import com.estapar.parking.model.DailySectorRevenueId;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface DailySectorRevenueRepository extends JpaRepository<DailySectorRevenue, DailySectorRevenueId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO daily_sector_revenue (revenue_date, sector_id, total_amount, session_count) " +
+                   "VALUES (:date, :sectorId, :amount, 1) " +
+                   "ON DUPLICATE KEY UPDATE total_amount = total_amount + :amount, session_count = session_count + 1",
+           nativeQuery = true)
+    int addExit(@Param("date") LocalDate date, @Param("sectorId") Long sectorId, @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_sector_revenue WHERE revenue_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Inclui as sessões já arquivadas (V12) para que o recálculo de meses antigos não zere o faturamento
+    @Modifying
+    @Query(value = "INSERT INTO daily_sector_revenue (revenue_date, sector_id, total_amount, session_count) " +
+                   "SELECT DATE(exit_time), sector_id, SUM(final_amount), COUNT(*) FROM (" +
+                   "SELECT exit_time, sector_id, final_amount FROM parking_sessions " +
+                   "WHERE exit_time >= :start AND exit_time < :end AND final_amount IS NOT NULL " +
+                   "UNION ALL " +
+                   "SELECT exit_time, sector_id, final_amount FROM parking_sessions_archive " +
+                   "WHERE exit_time >= :start AND exit_time < :end AND final_amount IS NOT NULL" +
+                   ") s GROUP BY DATE(exit_time), sector_id",
+           nativeQuery = true)
+    int insertFromSessions(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Fetch size MIN_VALUE: o Connector/J entrega as linhas uma a uma em vez de carregar tudo
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT r.id.revenueDate AS date, s.sectorCode AS sector, " +
+           "r.totalAmount AS totalAmount, r.sessionCount AS sessionCount " +
+           "FROM DailySectorRevenue r, Sector s WHERE s.id = r.id.sectorId " +
+           "AND r.id.revenueDate BETWEEN :from AND :to " +
+           "ORDER BY r.id.revenueDate, s.sectorCode")
+    Stream<RevenueReportRow> streamReport(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT r.id.revenueDate AS date, s.sectorCode AS sector, " +
+           "r.totalAmount AS totalAmount, r.sessionCount AS sessionCount " +
+           "FROM DailySectorRevenue r, Sector s WHERE s.id = r.id.sectorId " +
+           "AND r.id.revenueDate BETWEEN :from AND :to AND s.sectorCode IN :sectors " +
+           "ORDER BY r.id.revenueDate, s.sectorCode")
+    Stream<RevenueReportRow> streamReport(@Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("sectors") Collection<String> sectors);
+}
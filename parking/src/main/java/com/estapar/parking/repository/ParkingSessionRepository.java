@@ -2,6 +2,8 @@ package com.estapar.parking.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -17,9 +19,24 @@ public interface ParkingSessionRepository extends JpaRepository<ParkingSession,
     
     Optional<ParkingSession> findByLicensePlateAndExitTimeIsNull(String licensePlate);
     
-    @Query("SELECT COALESCE(SUM(ps.finalAmount), 0) FROM ParkingSession ps " +
-           "WHERE ps.sector = :sector " +
-           "AND CAST(ps.exitTime AS date) = :date " +
-           "AND ps.finalAmount IS NOT NULL")
-    BigDecimal sumRevenueByDateAndSector(@Param("date") LocalDate date, @Param("sector") Sector sector);
+    // Ids lidos das colunas, sem JOIN: sessões que apontam para setor ou vaga
+    // inexistente (sem FKs desde V13) aparecem e são acusadas na inicialização
+    @Query("SELECT ps.id AS id, ps.licensePlate AS licensePlate, ps.sector.id AS sectorId, ps.spot.id AS spotId " +
+           "FROM ParkingSession ps WHERE ps.exitTime IS NULL")
+    List<ActiveSessionView> findActiveSessions();
+    
+    // Intervalo semiaberto em exit_time: usa o índice (sector_id, exit_time, final_amount)
+    // e responde só com o índice. Coberto por ParkingSessionRepositoryExplainTest.
+    @Query(value = "SELECT COALESCE(SUM(final_amount), 0) FROM parking_sessions " +
+                   "WHERE sector_id = :sectorId " +
+                   "AND exit_time >= :start AND exit_time < :end " +
+                   "AND final_amount IS NOT NULL",
+           nativeQuery = true)
+    BigDecimal sumRevenueBetween(@Param("sectorId") Long sectorId,
+                                 @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+    
+    default BigDecimal sumRevenueByDateAndSector(LocalDate date, Sector sector) {
+        return sumRevenueBetween(sector.getId(), date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
 }
@@ -0,0 +1,11 @@
+package com.estapar.parking.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface RevenueReportRow {
+    LocalDate getDate();
+    String getSector();
+    BigDecimal getTotalAmount();
+    Long getSessionCount();
+}
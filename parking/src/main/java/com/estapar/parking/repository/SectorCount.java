@@ -0,0 +1,6 @@
+package com.estapar.parking.repository;
+
+public interface SectorCount {
+    Long getSectorId();
+    Long getTotal();
+}
@@ -1,8 +1,12 @@
 package com.estapar.parking.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.estapar.parking.model.Sector;
@@ -10,4 +14,21 @@ import com.estapar.parking.model.Sector;
 @Repository
 public interface SectorRepository extends JpaRepository<Sector, Long> {
     Optional<Sector> findBysectorCode(String sectorCode);
+
+    // Reserva condicional: bloqueia apenas a linha do setor e retorna 0 se estiver lotado
+    @Modifying
+    @Query(value = "UPDATE sectors SET active_sessions = active_sessions + 1 " +
+                   "WHERE id = :id AND active_sessions < max_capacity", nativeQuery = true)
+    int reserveCapacity(@Param("id") Long sectorId);
+
+    @Modifying
+    @Query(value = "UPDATE sectors SET active_sessions = active_sessions - 1 " +
+                   "WHERE id = :id AND active_sessions > 0", nativeQuery = true)
+    int releaseCapacity(@Param("id") Long sectorId);
+
+    @Query(value = "SELECT id AS sectorId, active_sessions AS total FROM sectors", nativeQuery = true)
+    List<SectorCount> findActiveSessionCounts();
+
+    @Query(value = "SELECT active_sessions FROM sectors WHERE id = :id", nativeQuery = true)
+    long findActiveSessions(@Param("id") Long sectorId);
 }
@@ -0,0 +1,8 @@
+package com.estapar.parking.repository;
+
+public interface SpotConfigView {
+    Long getId();
+    String getSector();
+    Double getLat();
+    Double getLng();
+}
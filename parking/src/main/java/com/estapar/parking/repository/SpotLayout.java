@@ -0,0 +1,9 @@
+package com.estapar.parking.repository;
+
+public interface SpotLayout {
+    Long getId();
+    String getSpotCode();
+    Long getSectorId();
+    Double getLatitude();
+    Double getLongitude();
+}
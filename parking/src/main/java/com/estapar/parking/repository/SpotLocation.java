@@ -0,0 +1,8 @@
+package com.estapar.parking.repository;
+
+public interface SpotLocation {
+    Long getId();
+    Long getSectorId();
+    Double getLatitude();
+    Double getLongitude();
+}
@@ -3,12 +3,42 @@ package com.estapar.parking.repository;
 import com.estapar.parking.model.Spot;
 import com.estapar.parking.model.Sector;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface SpotRepository extends JpaRepository<Spot, Long> {
+public interface SpotRepository extends JpaRepository<Spot, Long>, SpotRepositoryCustom {
     List<Spot> findBySectorAndOccupied(Sector sector, Boolean occupied);
     Long countBySectorAndOccupied(Sector sector, Boolean occupied);
+
+    @Query("SELECT s.id AS id, s.sector.id AS sectorId, s.latitude AS latitude, s.longitude AS longitude " +
+           "FROM Spot s WHERE s.occupied = false")
+    List<SpotLocation> findFreeSpotLocations();
+
+    @Query("SELECT s.id AS id, s.sector.id AS sectorId, s.latitude AS latitude, s.longitude AS longitude FROM Spot s")
+    List<SpotLocation> findSpotLocations();
+
+    @Query("SELECT s.id FROM Spot s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id AS id, s.spotCode AS spotCode, s.sector.id AS sectorId, " +
+           "s.latitude AS latitude, s.longitude AS longitude FROM Spot s")
+    List<SpotLayout> findSpotLayouts();
+
+    // Cursor somente-leitura: o código do setor vem do JOIN, sem carregar entidades
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT s.id AS id, sec.sectorCode AS sector, s.latitude AS lat, s.longitude AS lng " +
+           "FROM Spot s JOIN s.sector sec ORDER BY s.id")
+    Stream<SpotConfigView> streamSpotConfigs();
 }
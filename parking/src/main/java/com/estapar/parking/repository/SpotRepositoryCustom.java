@@ -0,0 +1,14 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.model.Spot;
+
+import java.time.LocalDateTime;
+
+public interface SpotRepositoryCustom {
+
+    /**
+     * Ocupa a vaga somente se ela continuar livre e na mesma versão lida.
+     * Retorna false quando outra transação a ocupou antes.
+     */
+    boolean claim(Spot spot, String licensePlate, LocalDateTime occupiedAt);
+}
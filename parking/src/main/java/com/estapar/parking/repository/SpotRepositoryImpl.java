@@ -0,0 +1,36 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.model.Spot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public class SpotRepositoryImpl implements SpotRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public boolean claim(Spot spot, String licensePlate, LocalDateTime occupiedAt) {
+        // UPDATE condicional em vez de save(): perder a disputa não lança
+        // OptimisticLockException nem marca a transação para rollback
+        int updated = entityManager.createQuery(
+                "UPDATE Spot s SET s.occupied = true, s.occupiedBy = :plate, s.occupiedAt = :occupiedAt, " +
+                "s.version = s.version + 1 " +
+                "WHERE s.id = :id AND s.version = :version AND s.occupied = false")
+            .setParameter("plate", licensePlate)
+            .setParameter("occupiedAt", occupiedAt)
+            .setParameter("id", spot.getId())
+            .setParameter("version", spot.getVersion())
+            .executeUpdate();
+
+        // Sincronizar a entidade gerenciada com a nova versão
+        if (entityManager.contains(spot)) {
+            entityManager.refresh(spot);
+        }
+        return updated == 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.estapar.parking.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessões ativas indexadas por placa, mantidas em memória.
+ * Carregadas a partir das sessões abertas na inicialização e atualizadas
+ * pelos eventos ENTRY/PARKED/EXIT, evitando a busca por placa + exit_time
+ * IS NULL no banco em PARKED/EXIT. Só um acerto é confiável: no ENTRY,
+ * uma placa ausente ainda é conferida no banco.
+ */
+@Component
+public class ActiveSessionCache {
+
+    private volatile Map<String, ActiveSession> sessionsByPlate = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public void load(Collection<ActiveSession> sessions) {
+        Map<String, ActiveSession> byPlate = new ConcurrentHashMap<>();
+        for (ActiveSession session : sessions) {
+            byPlate.put(session.licensePlate(), session);
+        }
+
+        this.sessionsByPlate = byPlate;
+        this.loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public boolean contains(String licensePlate) {
+        return sessionsByPlate.containsKey(licensePlate);
+    }
+
+    public Optional<ActiveSession> get(String licensePlate) {
+        return Optional.ofNullable(sessionsByPlate.get(licensePlate));
+    }
+
+    public int size() {
+        return sessionsByPlate.size();
+    }
+
+    public void put(ActiveSession session) {
+        Map<String, ActiveSession> sessions = sessionsByPlate;
+        ActiveSession previous = sessions.put(session.licensePlate(), session);
+
+        TransactionCallbacks.onRollback(() -> {
+            if (previous != null) {
+                sessions.replace(session.licensePlate(), session, previous);
+            } else {
+                sessions.remove(session.licensePlate(), session);
+            }
+        });
+    }
+
+    public void remove(String licensePlate) {
+        Map<String, ActiveSession> sessions = sessionsByPlate;
+        ActiveSession previous = sessions.remove(licensePlate);
+        if (previous != null) {
+            TransactionCallbacks.onRollback(() -> sessions.putIfAbsent(licensePlate, previous));
+        }
+    }
+
+    /**
+     * Remove uma entrada que não confere com o banco, sem compensação.
+     */
+    public void evict(String licensePlate) {
+        sessionsByPlate.remove(licensePlate);
+    }
+
+    public record ActiveSession(String licensePlate, Long sessionId, Long sectorId, Long spotId) {}
+}
@@ -0,0 +1,319 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Modo assíncrono de ingestão de webhooks. O evento é gravado numa fila
+ * durável local (uma por partição) e confirmado de imediato; uma thread
+ * por partição aplica os eventos no ParkingService. A partição é escolhida
+ * pela placa, mantendo a ordem dos eventos de um mesmo veículo.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.webhook.async.enabled", havingValue = "true")
+public class AsyncWebhookIngestor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncWebhookIngestor.class);
+
+    @Autowired
+    private WebhookBatchService webhookBatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+
+    @Value("${parking.webhook.async.queue-dir:./data/webhook-queue}")
+    private String queueDir;
+
+    @Value("${parking.webhook.async.partitions:4}")
+    private int partitionCount;
+
+    @Value("${parking.webhook.async.partition-size-mb:64}")
+    private int partitionSizeMb;
+
+    @Value("${parking.webhook.async.fsync:true}")
+    private boolean fsync;
+
+    @Value("${parking.webhook.async.max-attempts:10}")
+    private int maxAttempts;
+
+    private final List<MappedWebhookLog> partitions = new ArrayList<>();
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running;
+
+    private Path deadLetterFile;
+    private Timer applyLag;
+    private Counter rejected;
+    private Counter failedAttempts;
+    private Counter deadLettered;
+
+    public boolean enqueue(WebhookEventDTO event) {
+        if (!running) {
+            return false;
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        boolean accepted = partitionFor(event.getLicensePlate()).append(payload, System.currentTimeMillis());
+        if (!accepted) {
+            rejected.increment();
+        }
+        return accepted;
+    }
+
+    public long backlog() {
+        long total = 0;
+        for (MappedWebhookLog partition : partitions) {
+            total += partition.pending();
+        }
+        return total;
+    }
+
+    private MappedWebhookLog partitionFor(String licensePlate) {
+        int hash = licensePlate != null ? licensePlate.hashCode() : 0;
+        return partitions.get(Math.floorMod(hash, partitions.size()));
+    }
+
+    private void consume(MappedWebhookLog partition) {
+        while (running) {
+            try {
+                MappedWebhookLog.Record record = partition.peek(500);
+                if (record == null) {
+                    continue;
+                }
+
+                // Parado antes de aplicar: o registro fica na fila e é
+                // reprocessado na próxima inicialização
+                if (!apply(record)) {
+                    return;
+                }
+                applyLag.record(Duration.ofMillis(System.currentTimeMillis() - record.enqueuedAt()));
+                partition.advance();
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aplica o registro, repetindo falhas transitórias (banco fora, lock,
+     * deadlock, timeout) até conseguir: o evento já foi confirmado com 202 e
+     * a partição fica bloqueada para manter a ordem. Qualquer outra falha se
+     * repetiria sempre (ex.: evento incompleto), então o evento vai para o
+     * dead-letter.log e a partição segue. Devolve false se a aplicação for
+     * parada antes disso.
+     */
+    private boolean apply(MappedWebhookLog.Record record) throws InterruptedException {
+        WebhookEventDTO event;
+        try {
+            event = objectMapper.readValue(record.payload(), WebhookEventDTO.class);
+        } catch (IOException e) {
+            return deadLetter(record, "Unreadable", e);
+        }
+
+        ParkingMetrics.Sample sample = parkingMetrics.start();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                HttpStatus status = webhookBatchService.dispatch(event, "queue");
+                parkingMetrics.stop(sample, "queue", event.getEventType(), status, null);
+                if (status != HttpStatus.OK) {
+                    log.warn("Queued {} for {} finished with {}",
+                        event.getEventType(), event.getLicensePlate(), status.value());
+                }
+                return true;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    parkingMetrics.stop(sample, "queue", event.getEventType(), HttpStatus.INTERNAL_SERVER_ERROR, e);
+                    log.error("Queued {} for {} failed with a non-transient error",
+                        event.getEventType(), event.getLicensePlate(), e);
+                    return deadLetter(record, "Failed", e);
+                }
+                failedAttempts.increment();
+                if (attempt % maxAttempts == 0) {
+                    log.error("Queued {} for {} still failing after {} attempts, partition blocked",
+                        event.getEventType(), event.getLicensePlate(), attempt, e);
+                } else {
+                    log.warn("Queued {} for {} failed (attempt {}): {}",
+                        event.getEventType(), event.getLicensePlate(), attempt, e.getMessage());
+                }
+                if (!backOff(attempt)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Falhas que passam sozinhas: exceções transitórias do Spring (lock,
+     * deadlock, timeout), banco inacessível ou transação que não abriu, e
+     * SQLTransientException/SQLRecoverableException na cadeia de causas.
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                || cause instanceof RecoverableDataAccessException
+                || cause instanceof DataAccessResourceFailureException
+                || cause instanceof CannotCreateTransactionException
+                || cause instanceof SQLTransientException
+                || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registro que nunca vai ser aplicado (payload ilegível ou falha não
+     * transitória) é copiado para dead-letter.log (enfileiramento, payload em
+     * Base64 e erro, um por linha) antes de sair da partição.
+     */
+    private boolean deadLetter(MappedWebhookLog.Record record, String reason, Exception cause)
+            throws InterruptedException {
+        String line = record.enqueuedAt() + "\t" + Base64.getEncoder().encodeToString(record.payload()) +
+            "\t" + String.valueOf(cause).replaceAll("\\s+", " ") + "\n";
+        for (int attempt = 1; ; attempt++) {
+            try {
+                synchronized (this) {
+                    if (fsync) {
+                        Files.writeString(deadLetterFile, line, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+                    } else {
+                        Files.writeString(deadLetterFile, line, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+                    }
+                }
+                deadLettered.increment();
+                log.error("{} queued webhook moved to {}: {}", reason, deadLetterFile, cause.getMessage());
+                return true;
+            } catch (IOException e) {
+                log.error("Failed to write {} (attempt {}): {}", deadLetterFile, attempt, e.getMessage());
+                if (!backOff(attempt)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private boolean backOff(int attempt) throws InterruptedException {
+        if (!running) {
+            return false;
+        }
+        Thread.sleep(Math.min(100L << Math.min(attempt, 6), 5_000L));
+        return running;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Path dir = Path.of(queueDir);
+            Files.createDirectories(dir);
+            deadLetterFile = dir.resolve("dead-letter.log");
+            for (int i = 0; i < partitionCount; i++) {
+                partitions.add(new MappedWebhookLog(
+                    dir.resolve("partition-" + i + ".log"), partitionSizeMb * 1024 * 1024, fsync));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open webhook queue at " + queueDir, e);
+        }
+
+        Gauge.builder("parking.webhook.queue.backlog", this, AsyncWebhookIngestor::backlog)
+            .description("Eventos de webhook aguardando processamento")
+            .register(meterRegistry);
+        applyLag = Timer.builder("parking.webhook.queue.apply.lag")
+            .description("Tempo entre o enfileiramento e a aplicação do evento")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        rejected = Counter.builder("parking.webhook.queue.rejected")
+            .description("Eventos recusados por fila cheia")
+            .register(meterRegistry);
+        failedAttempts = Counter.builder("parking.webhook.queue.failed.attempts")
+            .description("Tentativas de aplicar um evento da fila que falharam por erro transitório e serão repetidas")
+            .register(meterRegistry);
+        deadLettered = Counter.builder("parking.webhook.queue.dead.lettered")
+            .description("Eventos ilegíveis ou com falha não transitória movidos para dead-letter.log")
+            .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < partitions.size(); i++) {
+            MappedWebhookLog partition = partitions.get(i);
+            Thread consumer = new Thread(() -> consume(partition), "webhook-consumer-" + i);
+            consumer.start();
+            consumers.add(consumer);
+        }
+
+        log.info("Async webhook queue started: {} partitions, {} pending events", partitions.size(), backlog());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        partitions.forEach(MappedWebhookLog::wakeUp);
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (MappedWebhookLog partition : partitions) {
+            try {
+                partition.close();
+            } catch (IOException e) {
+                log.error("Error closing webhook queue: {}", e.getMessage());
+            }
+        }
+        consumers.clear();
+        partitions.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Depois do ParkingStateInitializer e antes do servidor web
+        return DEFAULT_PHASE - 1536;
+    }
+}
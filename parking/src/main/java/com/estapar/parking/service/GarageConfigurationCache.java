@@ -0,0 +1,119 @@
+package com.estapar.parking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Configuração da garagem já serializada, com ETag forte (SHA-256 do corpo).
+ * Montada na primeira requisição e descartada apenas quando setores ou
+ * vagas mudam (ver {@link GarageLayoutListener}).
+ *
+ * Layouts maiores que parking.garage.cache.max-bytes guardam só o ETag; o
+ * corpo é então escrito em streaming a cada resposta.
+ */
+@Component
+public class GarageConfigurationCache {
+
+    @Autowired
+    private GarageConfigurationWriter garageConfigurationWriter;
+
+    @Value("${parking.garage.cache.max-bytes:4194304}")
+    private int maxCachedBytes = 4 * 1024 * 1024;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CachedGarage cached;
+
+    public CachedGarage get() {
+        CachedGarage current = cached;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (cached != null) {
+                return cached;
+            }
+
+            // Se o layout mudar durante a montagem, a versão montada não é guardada
+            long buildGeneration = generation.get();
+            CachedGarage built = build();
+            if (generation.get() == buildGeneration) {
+                cached = built;
+            }
+            return built;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        cached = null;
+    }
+
+    private CachedGarage build() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            CappedBuffer buffer = new CappedBuffer(maxCachedBytes);
+            try (OutputStream out = new DigestOutputStream(buffer, digest)) {
+                garageConfigurationWriter.write(out);
+            }
+
+            String etag = "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+            return new CachedGarage(buffer.overflowed ? null : buffer.toByteArray(), etag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Corpo nulo indica que a configuração deve ser escrita em streaming.
+     */
+    public record CachedGarage(byte[] body, String etag) {}
+
+    // Guarda os bytes até o limite; acima dele descarta e segue só calculando o hash
+    private static final class CappedBuffer extends OutputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private boolean overflowed;
+
+        CappedBuffer(int limit) {
+            this.limit = limit;
+            this.overflowed = limit <= 0;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (overflowed) {
+                return;
+            }
+            if (bytes.size() + len > limit) {
+                overflowed = true;
+                bytes = null;
+                return;
+            }
+            bytes.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
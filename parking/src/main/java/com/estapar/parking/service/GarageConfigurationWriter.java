@@ -0,0 +1,76 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SpotConfigView;
+import com.estapar.parking.repository.SpotRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Escreve a configuração da garagem no mesmo formato de GarageConfigDTO,
+ * vaga a vaga, direto no OutputStream. O uso de memória não depende da
+ * quantidade de vagas.
+ */
+@Component
+public class GarageConfigurationWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(GarageConfigurationWriter.class);
+
+    @Autowired
+    private SectorRepository sectorRepository;
+
+    @Autowired
+    private SpotRepository spotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void write(OutputStream out) throws IOException {
+        int spotCount = 0;
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+
+            json.writeArrayFieldStart("garage");
+            for (Sector sector : sectorRepository.findAll(Sort.by("id"))) {
+                json.writeStartObject();
+                json.writeStringField("sector", sector.getSectorCode());
+                json.writeNumberField("basePrice", sector.getBasePrice());
+                json.writeNumberField("max_capacity", sector.getMaxCapacity());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("spots");
+            try (Stream<SpotConfigView> spots = spotRepository.streamSpotConfigs()) {
+                for (SpotConfigView spot : (Iterable<SpotConfigView>) spots::iterator) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", spot.getId());
+                    json.writeStringField("sector", spot.getSector());
+                    json.writeNumberField("lat", spot.getLat());
+                    json.writeNumberField("lng", spot.getLng());
+                    json.writeEndObject();
+                    spotCount++;
+                }
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+
+        log.debug("Garage configuration written: {} spots", spotCount);
+    }
+}
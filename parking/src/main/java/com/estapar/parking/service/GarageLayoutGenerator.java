@@ -0,0 +1,137 @@
+package com.estapar.parking.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gera layouts sintéticos de garagem (perfil simulator) no formato de
+ * GarageConfigDTO, escritos vaga a vaga.
+ *
+ * Setores são quadras dispostas em grade a partir das coordenadas dos dados
+ * iniciais (V5); dentro de cada quadra as vagas ficam em fileiras de ~2,5 m
+ * por 5 m, então nenhuma coordenada se repete. O mesmo (setores, vagas,
+ * semente) gera sempre o mesmo corpo e, portanto, o mesmo ETag.
+ */
+@Component
+@Profile("simulator")
+public class GarageLayoutGenerator {
+
+    public static final int MIN_SECTORS = 3;
+    public static final int MAX_SECTORS = 1_000;
+    public static final int MIN_SPOTS = 30;
+    public static final int MAX_SPOTS = 500_000;
+
+    private static final double ORIGIN_LAT = -23.5506;
+    private static final double ORIGIN_LNG = -46.6334;
+    // ~5 m de comprimento e ~2,5 m de largura de vaga na latitude de São Paulo
+    private static final double LAT_STEP = 0.000045;
+    private static final double LNG_STEP = 0.0000245;
+    // Corredor entre quadras, em vagas
+    private static final int AISLE = 4;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+
+    public static boolean isValid(int sectors, int spots) {
+        return sectors >= MIN_SECTORS && sectors <= MAX_SECTORS
+            && spots >= MIN_SPOTS && spots <= MAX_SPOTS
+            && spots >= sectors;
+    }
+
+    public void write(int sectors, int spots, long seed, OutputStream out) throws IOException {
+        Random random = new Random(seed);
+        int rowLength = (int) Math.ceil(Math.sqrt(capacity(0, sectors, spots)));
+        int blockColumns = (int) Math.ceil(Math.sqrt(sectors));
+        int blockSpan = rowLength + AISLE;
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+
+            json.writeArrayFieldStart("garage");
+            for (int sector = 0; sector < sectors; sector++) {
+                json.writeStartObject();
+                json.writeStringField("sector", sectorCode(sector));
+                // R$ 5,00 a R$ 20,00 em passos de R$ 0,50
+                json.writeNumberField("basePrice", BigDecimal.valueOf(500 + 50L * random.nextInt(31), 2));
+                json.writeNumberField("max_capacity", capacity(sector, sectors, spots));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("spots");
+            for (int sector = 0; sector < sectors; sector++) {
+                String code = sectorCode(sector);
+                int blockRow = sector / blockColumns;
+                int blockColumn = sector % blockColumns;
+                int capacity = capacity(sector, sectors, spots);
+
+                for (int spot = 0; spot < capacity; spot++) {
+                    int row = blockRow * blockSpan + spot / rowLength;
+                    int column = blockColumn * blockSpan + spot % rowLength;
+                    json.writeStartObject();
+                    json.writeStringField("id", code + (spot + 1));
+                    json.writeStringField("sector", code);
+                    json.writeNumberField("lat", round(ORIGIN_LAT - row * LAT_STEP));
+                    json.writeNumberField("lng", round(ORIGIN_LNG - column * LNG_STEP));
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+    /** ETag forte (SHA-256 do corpo), calculado uma vez por combinação. */
+    public String etag(int sectors, int spots, long seed) {
+        return etags.computeIfAbsent(sectors + "|" + spots + "|" + seed, key -> {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                    write(sectors, spots, seed, out);
+                }
+                return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /** A, B, ..., Z, AA, AB, ... (como colunas de planilha). */
+    static String sectorCode(int index) {
+        StringBuilder code = new StringBuilder();
+        for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+            code.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return code.toString();
+    }
+
+    /** Vagas divididas por igual; o resto vai para os primeiros setores. */
+    static int capacity(int sector, int sectors, int spots) {
+        return spots / sectors + (sector < spots % sectors ? 1 : 0);
+    }
+
+    private static double round(double coordinate) {
+        return Math.round(coordinate * 1e7) / 1e7;
+    }
+}
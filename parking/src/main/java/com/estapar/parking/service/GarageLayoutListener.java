@@ -0,0 +1,42 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida o {@link GarageConfigurationCache} após o commit de mudanças no
+ * layout. Atualizações de Spot são ignoradas: no dia a dia elas só mudam a
+ * ocupação, que não faz parte da configuração.
+ */
+@Component
+public class GarageLayoutListener {
+
+    // ObjectProvider: o listener é criado junto com o EntityManagerFactory
+    @Autowired
+    private ObjectProvider<GarageConfigurationCache> garageConfigurationCache;
+
+    @PostPersist
+    @PostRemove
+    public void onLayoutChange(Object entity) {
+        invalidateAfterCommit();
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Sector) {
+            invalidateAfterCommit();
+        }
+    }
+
+    private void invalidateAfterCommit() {
+        GarageConfigurationCache cache = garageConfigurationCache.getIfAvailable();
+        if (cache != null) {
+            TransactionCallbacks.afterCommitOnce(cache, cache::invalidate);
+        }
+    }
+}
@@ -1,85 +1,385 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.dto.GarageConfigDTO;
 import com.estapar.parking.dto.SectorConfigDTO;
 import com.estapar.parking.dto.SpotConfigDTO;
 import com.estapar.parking.model.Sector;
 import com.estapar.parking.model.Spot;
 import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SpotLayout;
 import com.estapar.parking.repository.SpotRepository;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+/**
+ * Carga do layout da garagem (setores e vagas) a partir do simulador.
+ *
+ * O corpo (formato de GarageConfigDTO) é lido em streaming, um setor ou uma
+ * vaga por vez, e comparado com as linhas existentes: só setores e vagas
+ * novos ou alterados são gravados, em lotes JDBC, numa única transação. O
+ * SHA-256 do corpo fica em garage_layout (V16) e é enviado em If-None-Match;
+ * com o layout inalterado o simulador responde 304 (ou o mesmo ETag) e nada
+ * é lido. Vagas que sumiram do layout não são removidas, pois sessões antigas
+ * ainda as referenciam.
+ */
 @Service
 public class GarageService {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(GarageService.class);
+
+    private static final String UPDATE_SPOT =
+        "UPDATE spots SET sector_id = ?, latitude = ?, longitude = ?, version = version + 1 WHERE id = ?";
+
     @Autowired
     private SectorRepository sectorRepository;
-    
+
     @Autowired
     private SpotRepository spotRepository;
-    
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private GarageConfigurationCache garageConfigurationCache;
+
+    @Autowired
+    private ParkingStateInitializer parkingStateInitializer;
+
     private final RestTemplate restTemplate = new RestTemplate();
-    
-    private static final String SIMULATOR_URL = "http://localhost:3003/mock/garage";
-    
-//    @Transactional
-//    public void initializeGarage() {
-//        try {
-//            System.out.println("🚀 Fetching garage configuration from: " + SIMULATOR_URL);
-//            
-//            GarageConfigDTO config = restTemplate.getForObject(SIMULATOR_URL, GarageConfigDTO.class);
-//            
-//            if (config == null) {
-//                throw new RuntimeException("Failed to fetch garage configuration");
-//            }
-//            
-//            System.out.println("📦 Received configuration with " + 
-//                (config.getGarage() != null ? config.getGarage().size() : 0) + " sectors");
-//            
-//            // Criar mapa de setores para lookup rápido
-//            Map<String, Sector> sectorMap = new HashMap<>();
-//            
-//            // Salvar setores
-//            if (config.getGarage() != null) {
-//                for (SectorConfigDTO sectorConfig : config.getGarage()) {
-//                    Sector sector = new Sector(
-//                        sectorConfig.getSector(),
-//                        sectorConfig.getBasePrice(),
-//                        sectorConfig.getMaxCapacity()
-//                    );
-//                    Sector savedSector = sectorRepository.save(sector);
-//                    sectorMap.put(savedSector.getName(), savedSector);
-//                    System.out.println("✅ Created sector: " + savedSector.getName() + 
-//                        " (capacity: " + savedSector.getMaxCapacity() + ")");
-//                }
-//            }
-//            
-//            // Salvar vagas
-//            if (config.getSpots() != null) {
-//                int spotCount = 0;
-//                for (SpotConfigDTO spotConfig : config.getSpots()) {
-//                    Sector sector = sectorMap.get(spotConfig.getSector());
-//                    if (sector != null) {
-//						Spot spot = new Spot(spotConfig.getId(), spotConfig.getLng(), spotConfig.getLat(), sector);
-//                        spotRepository.save(spot);
-//                        spotCount++;
-//                    }
-//                }
-//                System.out.println("✅ Created " + spotCount + " spots");
-//            }
-//            
-//            System.out.println("🎉 Garage initialized successfully!");
-//            
-//        } catch (Exception e) {
-//            System.err.println("❌ Error initializing garage: " + e.getMessage());
-//            e.printStackTrace();
-//            throw new RuntimeException("Failed to initialize garage", e);
-//        }
-//    }
-}
\ No newline at end of file
+
+    @Value("${parking.garage.bootstrap.enabled:false}")
+    private boolean bootstrapEnabled;
+
+    @Value("${parking.garage.bootstrap.url:http://localhost:3003/mock/garage}")
+    private String simulatorUrl = "http://localhost:3003/mock/garage";
+
+    @Value("${parking.garage.bootstrap.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public record LayoutSummary(String checksum, int sectors, int spots,
+                                int sectorsWritten, int spotsInserted, int spotsUpdated, int spotsSkipped) {
+
+        public boolean changed() {
+            return sectorsWritten > 0 || spotsInserted > 0 || spotsUpdated > 0;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!bootstrapEnabled) {
+            return;
+        }
+        try {
+            initializeGarage();
+        } catch (RuntimeException e) {
+            // Segue com o layout já gravado no banco
+            log.error("Garage bootstrap from {} failed", simulatorUrl, e);
+        }
+    }
+
+    /** Busca o layout no simulador e aplica as diferenças; false se nada mudou. */
+    public boolean initializeGarage() {
+        String storedChecksum = storedChecksum();
+        log.info("Fetching garage configuration from {}", simulatorUrl);
+
+        LayoutSummary summary = restTemplate.execute(simulatorUrl, HttpMethod.GET,
+            request -> {
+                if (storedChecksum != null) {
+                    request.getHeaders().setIfNoneMatch("\"" + storedChecksum + "\"");
+                }
+            },
+            response -> {
+                if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)
+                        || isSameLayout(response.getHeaders().getETag(), storedChecksum)) {
+                    return null;
+                }
+                return applyLayout(response.getBody());
+            });
+
+        if (summary == null) {
+            log.info("Garage layout unchanged (checksum {})", storedChecksum);
+            return false;
+        }
+        log.info("Garage layout applied: sectors={} spots={} sectorsWritten={} spotsInserted={} spotsUpdated={} spotsSkipped={}",
+            summary.sectors(), summary.spots(), summary.sectorsWritten(),
+            summary.spotsInserted(), summary.spotsUpdated(), summary.spotsSkipped());
+        return summary.changed();
+    }
+
+    /**
+     * Lê o corpo e grava as diferenças e o novo checksum numa transação. Após
+     * o commit, o cache de GET /garage é invalidado e as mudanças são aplicadas
+     * ao estado em memória sem recarregá-lo (webhooks seguem em andamento).
+     */
+    LayoutSummary applyLayout(InputStream body) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            MessageDigest digest = sha256();
+            LayoutWriter writer = new LayoutWriter();
+            try (JsonParser parser = objectMapper.getFactory().createParser(new DigestInputStream(body, digest))) {
+                writer.read(parser);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read garage configuration", e);
+            }
+
+            LayoutSummary summary = writer.finish(HexFormat.of().formatHex(digest.digest()));
+            jdbcTemplate.update(
+                "INSERT INTO garage_layout (id, checksum, sector_count, spot_count) VALUES (1, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE checksum = VALUES(checksum), sector_count = VALUES(sector_count), " +
+                "spot_count = VALUES(spot_count)",
+                summary.checksum(), summary.sectors(), summary.spots());
+
+            if (summary.changed()) {
+                Map<Long, List<SpotPoint>> changedSpots = writer.changedSpots();
+                Set<Long> insertedSpotIds = writer.insertedSpotIds();
+                TransactionCallbacks.afterCommit(() -> {
+                    garageConfigurationCache.invalidate();
+                    parkingStateInitializer.refreshLayout(changedSpots, insertedSpotIds);
+                });
+            }
+            return summary;
+        });
+    }
+
+    static boolean isSameLayout(String etag, String storedChecksum) {
+        if (etag == null || storedChecksum == null) {
+            return false;
+        }
+        String value = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return value.replace("\"", "").equalsIgnoreCase(storedChecksum);
+    }
+
+    private String storedChecksum() {
+        List<String> checksums = jdbcTemplate.queryForList("SELECT checksum FROM garage_layout WHERE id = 1", String.class);
+        return checksums.isEmpty() ? null : checksums.get(0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record InsertedSpot(Long sectorId, Spot spot) {}
+
+    /**
+     * Estado de uma carga: setores e vagas existentes indexados pelo código,
+     * inserções pendentes no contexto de persistência e atualizações de vagas
+     * acumuladas para o próximo lote.
+     */
+    private final class LayoutWriter {
+
+        private final Map<String, Sector> sectorsByCode = new HashMap<>();
+        private final Map<String, SpotLayout> spotsByCode = new HashMap<>();
+        private final Set<String> seenSpots = new HashSet<>();
+        // Vagas lidas antes do setor (o JSON não garante a ordem dos campos)
+        private final List<SpotConfigDTO> waitingForSector = new ArrayList<>();
+        private List<Object[]> pendingUpdates = new ArrayList<>();
+        // Vagas inseridas (id atribuído no persist) e alteradas, para o estado em memória
+        private final List<InsertedSpot> insertedSpots = new ArrayList<>();
+        private final Map<Long, List<SpotPoint>> updatedSpots = new HashMap<>();
+
+        private int sectors;
+        private int sectorsWritten;
+        private int spotsInserted;
+        private int spotsUpdated;
+        private int spotsSkipped;
+        private int pendingInserts;
+
+        LayoutWriter() {
+            for (Sector sector : sectorRepository.findAll()) {
+                sectorsByCode.put(sector.getSectorCode(), sector);
+            }
+            for (SpotLayout spot : spotRepository.findSpotLayouts()) {
+                spotsByCode.put(spot.getSpotCode(), spot);
+            }
+        }
+
+        void read(JsonParser parser) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Garage configuration must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else if ("garage".equals(field)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        sector(objectMapper.readValue(parser, SectorConfigDTO.class));
+                    }
+                } else if ("spots".equals(field)) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        spot(objectMapper.readValue(parser, SpotConfigDTO.class), true);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        LayoutSummary finish(String checksum) {
+            for (SpotConfigDTO config : waitingForSector) {
+                spot(config, false);
+            }
+            flushInserts();
+            flushUpdates();
+
+            int missing = (int) spotsByCode.keySet().stream().filter(code -> !seenSpots.contains(code)).count();
+            if (missing > 0) {
+                log.warn("{} spots are no longer in the garage layout and were kept", missing);
+            }
+            return new LayoutSummary(checksum, sectors, seenSpots.size(),
+                sectorsWritten, spotsInserted, spotsUpdated, spotsSkipped);
+        }
+
+        Map<Long, List<SpotPoint>> changedSpots() {
+            Map<Long, List<SpotPoint>> changed = new HashMap<>();
+            updatedSpots.forEach((sectorId, spots) -> changed.computeIfAbsent(sectorId, id -> new ArrayList<>()).addAll(spots));
+            for (InsertedSpot inserted : insertedSpots) {
+                Spot spot = inserted.spot();
+                changed.computeIfAbsent(inserted.sectorId(), id -> new ArrayList<>())
+                    .add(new SpotPoint(spot.getId(), spot.getLatitude(), spot.getLongitude()));
+            }
+            return changed;
+        }
+
+        Set<Long> insertedSpotIds() {
+            Set<Long> ids = new HashSet<>();
+            for (InsertedSpot inserted : insertedSpots) {
+                ids.add(inserted.spot().getId());
+            }
+            return ids;
+        }
+
+        private void sector(SectorConfigDTO config) {
+            if (config.getSector() == null || config.getBasePrice() == null || config.getMaxCapacity() == null) {
+                log.warn("Ignoring incomplete sector in garage layout: {}", config.getSector());
+                return;
+            }
+            sectors++;
+
+            Sector existing = sectorsByCode.get(config.getSector());
+            if (existing == null) {
+                Sector saved = sectorRepository.save(
+                    new Sector(config.getSector(), config.getBasePrice(), config.getMaxCapacity()));
+                sectorsByCode.put(saved.getSectorCode(), saved);
+                sectorsWritten++;
+            } else if (existing.getBasePrice().compareTo(config.getBasePrice()) != 0
+                    || !existing.getMaxCapacity().equals(config.getMaxCapacity())) {
+                existing.setBasePrice(config.getBasePrice());
+                existing.setMaxCapacity(config.getMaxCapacity());
+                // save: o setor pode ter sido desanexado por um clear() de lote anterior
+                sectorsByCode.put(existing.getSectorCode(), sectorRepository.save(existing));
+                sectorsWritten++;
+            }
+        }
+
+        private void spot(SpotConfigDTO config, boolean canWait) {
+            String code = config.getId() != null ? config.getId() : config.getSpotCode();
+            if (code == null || config.getLat() == null || config.getLng() == null) {
+                log.warn("Ignoring incomplete spot in garage layout: {}", code);
+                spotsSkipped++;
+                return;
+            }
+
+            Sector sector = sectorsByCode.get(config.getSector());
+            if (sector == null) {
+                if (canWait) {
+                    waitingForSector.add(config);
+                } else {
+                    log.warn("Ignoring spot {} of unknown sector {}", code, config.getSector());
+                    spotsSkipped++;
+                }
+                return;
+            }
+            if (!seenSpots.add(code)) {
+                log.warn("Ignoring repeated spot {} in garage layout", code);
+                spotsSkipped++;
+                return;
+            }
+
+            SpotLayout existing = spotsByCode.get(code);
+            if (existing == null) {
+                Spot spot = new Spot(code, config.getLng(), config.getLat(),
+                    entityManager.getReference(Sector.class, sector.getId()));
+                entityManager.persist(spot);
+                insertedSpots.add(new InsertedSpot(sector.getId(), spot));
+                spotsInserted++;
+                if (++pendingInserts >= batchSize) {
+                    flushInserts();
+                }
+            } else if (!existing.getSectorId().equals(sector.getId())
+                    || !Objects.equals(existing.getLatitude(), config.getLat())
+                    || !Objects.equals(existing.getLongitude(), config.getLng())) {
+                pendingUpdates.add(new Object[] {sector.getId(), config.getLat(), config.getLng(), existing.getId()});
+                updatedSpots.computeIfAbsent(sector.getId(), id -> new ArrayList<>())
+                    .add(new SpotPoint(existing.getId(), config.getLat(), config.getLng()));
+                spotsUpdated++;
+                if (pendingUpdates.size() >= batchSize) {
+                    flushUpdates();
+                }
+            }
+        }
+
+        // Envia os INSERTs em lote (hibernate.jdbc.batch_size) e esvazia o contexto
+        private void flushInserts() {
+            if (pendingInserts == 0) {
+                return;
+            }
+            entityManager.flush();
+            entityManager.clear();
+            pendingInserts = 0;
+        }
+
+        private void flushUpdates() {
+            if (pendingUpdates.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_SPOT, pendingUpdates);
+            pendingUpdates = new ArrayList<>();
+        }
+    }
+}
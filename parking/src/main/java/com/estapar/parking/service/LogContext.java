@@ -0,0 +1,29 @@
+package com.estapar.parking.service;
+
+import org.slf4j.MDC;
+
+/**
+ * Chaves de MDC dos logs de processamento de eventos. A placa e o id da
+ * sessão aparecem em todas as linhas do evento (campos próprios no layout
+ * JSON). Quem recebe o evento limpa o contexto ao terminar.
+ */
+public final class LogContext {
+
+    public static final String PLATE = "plate";
+    public static final String SESSION_ID = "sessionId";
+
+    private LogContext() {}
+
+    public static void plate(String licensePlate) {
+        MDC.put(PLATE, licensePlate);
+    }
+
+    public static void session(Long sessionId) {
+        MDC.put(SESSION_ID, String.valueOf(sessionId));
+    }
+
+    public static void clear() {
+        MDC.remove(PLATE);
+        MDC.remove(SESSION_ID);
+    }
+}
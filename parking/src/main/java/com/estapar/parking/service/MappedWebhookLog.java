@@ -0,0 +1,179 @@
+package com.estapar.parking.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fila durável de uma partição: buffer circular num arquivo mapeado em memória.
+ *
+ * Layout: cabeçalho de 64 bytes (magic, offsets de leitura e de escrita)
+ * seguido de registros [tamanho][instante de enfileiramento][payload].
+ * Um registro que não cabe no fim do arquivo é gravado no início, deixando
+ * um marcador de volta (tamanho -1) no lugar; o espaço dos registros já
+ * consumidos é reaproveitado sem esperar a fila esvaziar. Os dois offsets
+ * ficam no mesmo setor e são gravados juntos, depois dos dados.
+ */
+class MappedWebhookLog implements Closeable {
+
+    private static final int MAGIC = 0x57484B32;
+    // Versão anterior, somente-anexação, sem offset de escrita no cabeçalho
+    private static final int LEGACY_MAGIC = 0x57484B31;
+    private static final int HEADER_SIZE = 64;
+    private static final int READ_OFFSET_POSITION = 8;
+    private static final int WRITE_OFFSET_POSITION = 16;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int WRAP = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean fsync;
+
+    private int readOffset;
+    private int writeOffset;
+    private long pending;
+
+    MappedWebhookLog(Path file, int capacity, boolean fsync) throws IOException {
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.capacity = capacity;
+        this.fsync = fsync;
+
+        int magic = buffer.getInt(0);
+        if (magic == MAGIC) {
+            this.readOffset = (int) buffer.getLong(READ_OFFSET_POSITION);
+            this.writeOffset = (int) buffer.getLong(WRITE_OFFSET_POSITION);
+        } else if (magic == LEGACY_MAGIC) {
+            // Recuperar a posição de escrita percorrendo os registros pendentes
+            this.readOffset = (int) buffer.getLong(READ_OFFSET_POSITION);
+            this.writeOffset = readOffset;
+            while (writeOffset + RECORD_HEADER_SIZE <= capacity) {
+                int length = buffer.getInt(writeOffset);
+                if (length <= 0 || writeOffset + RECORD_HEADER_SIZE + length > capacity) {
+                    break;
+                }
+                writeOffset += RECORD_HEADER_SIZE + length;
+            }
+        } else {
+            this.readOffset = HEADER_SIZE;
+            this.writeOffset = HEADER_SIZE;
+        }
+
+        if (readOffset == writeOffset) {
+            readOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+        }
+        for (int position = readOffset; position != writeOffset; position = next(position)) {
+            pending++;
+        }
+
+        buffer.putInt(0, MAGIC);
+        persistOffsets();
+    }
+
+    synchronized boolean append(byte[] payload, long enqueuedAt) {
+        int size = RECORD_HEADER_SIZE + payload.length;
+        // Não cabe no fim: volta ao início, sem alcançar o leitor
+        boolean wrap = writeOffset >= readOffset && writeOffset + size > capacity;
+        int position = wrap ? HEADER_SIZE : writeOffset;
+        int end = position + size;
+        boolean behindReader = wrap || writeOffset < readOffset;
+        if (end > capacity || (behindReader && end >= readOffset)) {
+            return false;
+        }
+
+        buffer.putLong(position + Integer.BYTES, enqueuedAt);
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position, payload.length);
+        boolean marker = wrap && writeOffset + Integer.BYTES <= capacity;
+        if (marker) {
+            buffer.putInt(writeOffset, WRAP);
+        }
+        if (fsync) {
+            buffer.force(position, size);
+            if (marker) {
+                buffer.force(writeOffset, Integer.BYTES);
+            }
+        }
+
+        writeOffset = end;
+        pending++;
+        persistOffsets();
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Devolve o próximo registro sem removê-lo, aguardando até o tempo
+     * informado. Retorna null se a fila continuar vazia.
+     */
+    synchronized Record peek(long timeoutMillis) throws InterruptedException {
+        if (readOffset == writeOffset) {
+            wait(timeoutMillis);
+        }
+        if (readOffset == writeOffset) {
+            return null;
+        }
+
+        int position = recordAt(readOffset);
+        int length = buffer.getInt(position);
+        long enqueuedAt = buffer.getLong(position + Integer.BYTES);
+        byte[] payload = new byte[length];
+        buffer.get(position + RECORD_HEADER_SIZE, payload);
+        return new Record(payload, enqueuedAt);
+    }
+
+    synchronized void advance() {
+        readOffset = next(readOffset);
+        pending--;
+
+        // Fila vazia: recomeça do início, deixando o maior espaço contíguo livre
+        if (readOffset == writeOffset) {
+            readOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+        }
+        persistOffsets();
+    }
+
+    synchronized long pending() {
+        return pending;
+    }
+
+    synchronized void wakeUp() {
+        notifyAll();
+    }
+
+    /** Posição do registro que começa em offset, seguindo o marcador de volta. */
+    private int recordAt(int offset) {
+        if (offset + RECORD_HEADER_SIZE > capacity || buffer.getInt(offset) == WRAP) {
+            return HEADER_SIZE;
+        }
+        return offset;
+    }
+
+    private int next(int offset) {
+        int position = recordAt(offset);
+        return position + RECORD_HEADER_SIZE + buffer.getInt(position);
+    }
+
+    private void persistOffsets() {
+        buffer.putLong(READ_OFFSET_POSITION, readOffset);
+        buffer.putLong(WRITE_OFFSET_POSITION, writeOffset);
+        if (fsync) {
+            buffer.force(0, HEADER_SIZE);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    record Record(byte[] payload, long enqueuedAt) {}
+}
@@ -0,0 +1,198 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.ParkingSessionRepository;
+import com.estapar.parking.service.ActiveSessionCache.ActiveSession;
+import com.estapar.parking.service.WebhookEventLog.LoggedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Fotografias periódicas das sessões abertas (occupancy_snapshots, V15) e
+ * recuperação a partir delas.
+ *
+ * A recuperação lê a última fotografia e aplica os eventos de webhook_events
+ * gravados a partir de taken_at - replay-margin-seconds. A margem cobre
+ * transações que gravaram o evento antes da fotografia mas só fizeram commit
+ * depois; como cada sessão tem no máximo um ENTRY, um PARKED e um EXIT, o
+ * resultado não depende da ordem e reaplicar um evento já refletido na
+ * fotografia não altera nada.
+ */
+@Service
+public class OccupancySnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancySnapshotService.class);
+
+    private static final TypeReference<List<ActiveSession>> SESSIONS = new TypeReference<>() {};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ParkingSessionRepository sessionRepository;
+
+    @Autowired
+    private WebhookEventLog webhookEventLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${parking.event-log.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${parking.event-log.recovery.enabled:false}")
+    private boolean recoveryEnabled;
+
+    @Value("${parking.event-log.replay-margin-seconds:60}")
+    private long replayMarginSeconds = 60;
+
+    @Value("${parking.event-log.snapshots-kept:3}")
+    private int snapshotsKept = 3;
+
+    @Value("${parking.event-log.retention-days:30}")
+    private int retentionDays = 30;
+
+    public record Recovery(List<ActiveSession> sessions, Instant snapshotTakenAt, int replayedEvents) {}
+
+    private record Snapshot(Timestamp takenAt, List<ActiveSession> sessions) {}
+
+    public boolean isRecoveryEnabled() {
+        return enabled && recoveryEnabled;
+    }
+
+    @Scheduled(fixedDelayString = "${parking.event-log.snapshot-interval-ms:300000}",
+               initialDelayString = "${parking.event-log.snapshot-interval-ms:300000}")
+    public void scheduledSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            takeSnapshot();
+        } catch (RuntimeException e) {
+            log.error("Occupancy snapshot failed", e);
+        }
+    }
+
+    public void takeSnapshot() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        Snapshot snapshot = transaction.execute(status -> new Snapshot(
+            jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP(3)", Timestamp.class),
+            sessionRepository.findActiveSessions().stream()
+                .map(s -> new ActiveSession(s.getLicensePlate(), s.getId(), s.getSectorId(), s.getSpotId()))
+                .toList()));
+
+        jdbcTemplate.update("INSERT INTO occupancy_snapshots (taken_at, session_count, payload) VALUES (?, ?, ?)",
+            snapshot.takenAt(), snapshot.sessions().size(), toJson(snapshot.sessions()));
+        log.info("SNAPSHOT sessions={} takenAt={}", snapshot.sessions().size(), snapshot.takenAt());
+
+        prune(snapshot.takenAt());
+    }
+
+    /**
+     * Sessões abertas a partir da última fotografia e dos eventos seguintes,
+     * ou vazio se ainda não houver fotografia.
+     */
+    public Optional<Recovery> recover() {
+        List<Snapshot> latest = jdbcTemplate.query(
+            "SELECT taken_at, payload FROM occupancy_snapshots ORDER BY id DESC LIMIT 1",
+            (rs, rowNum) -> new Snapshot(rs.getTimestamp("taken_at"), fromJson(rs.getString("payload"))));
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Snapshot snapshot = latest.get(0);
+        List<LoggedEvent> events = webhookEventLog.readSince(minusMargin(snapshot.takenAt()));
+
+        return Optional.of(new Recovery(
+            replay(snapshot.sessions(), events), snapshot.takenAt().toInstant(), events.size()));
+    }
+
+    /** Aplica os eventos sobre as sessões da fotografia. */
+    static List<ActiveSession> replay(List<ActiveSession> snapshot, List<LoggedEvent> events) {
+        Map<Long, ActiveSession> open = new LinkedHashMap<>();
+        for (ActiveSession session : snapshot) {
+            open.put(session.sessionId(), session);
+        }
+
+        Set<Long> closed = new HashSet<>();
+        Map<Long, Long> parkedSpots = new LinkedHashMap<>();
+        for (LoggedEvent event : events) {
+            switch (event.eventType()) {
+                case "ENTRY" -> open.putIfAbsent(event.sessionId(),
+                    new ActiveSession(event.licensePlate(), event.sessionId(), event.sectorId(), null));
+                case "PARKED" -> parkedSpots.put(event.sessionId(), event.spotId());
+                case "EXIT" -> closed.add(event.sessionId());
+                default -> log.warn("Unknown event type {} in event log (id={})", event.eventType(), event.id());
+            }
+        }
+
+        open.keySet().removeAll(closed);
+        parkedSpots.forEach((sessionId, spotId) -> open.computeIfPresent(sessionId,
+            (id, s) -> new ActiveSession(s.licensePlate(), s.sessionId(), s.sectorId(), spotId)));
+
+        return new ArrayList<>(open.values());
+    }
+
+    // Mantém as últimas snapshotsKept fotografias e os eventos ainda necessários à recuperação
+    private void prune(Timestamp takenAt) {
+        List<Long> oldestKept = jdbcTemplate.queryForList(
+            "SELECT id FROM occupancy_snapshots ORDER BY id DESC LIMIT 1 OFFSET ?", Long.class, snapshotsKept - 1);
+        if (!oldestKept.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM occupancy_snapshots WHERE id < ?", oldestKept.get(0));
+        }
+
+        Timestamp retention = Timestamp.from(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        Timestamp needed = minusMargin(takenAt);
+        int purged = webhookEventLog.purgeBefore(retention.before(needed) ? retention : needed);
+        if (purged > 0) {
+            log.info("Purged {} webhook events older than {} days", purged, retentionDays);
+        }
+    }
+
+    private Timestamp minusMargin(Timestamp takenAt) {
+        return Timestamp.from(takenAt.toInstant().minusSeconds(replayMarginSeconds));
+    }
+
+    private String toJson(List<ActiveSession> sessions) {
+        try {
+            return objectMapper.writeValueAsString(sessions);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize occupancy snapshot", e);
+        }
+    }
+
+    private List<ActiveSession> fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, SESSIONS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read occupancy snapshot", e);
+        }
+    }
+}
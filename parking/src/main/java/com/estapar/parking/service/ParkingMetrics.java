@@ -0,0 +1,169 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.JdbcTimingSessionListener;
+import com.estapar.parking.model.Sector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do processamento de webhooks, da alocação de vagas e da lotação
+ * dos setores.
+ *
+ * parking.webhook.events        latência por origem (http/batch/queue), tipo e status
+ * parking.webhook.errors        respostas 4xx/5xx por tipo, status e causa
+ * parking.webhook.duplicates    reenvios respondidos com o resultado original
+ * parking.handler.db.time       tempo de JDBC do Hibernate gasto em cada evento
+ *                               (comandos via JdbcTemplate ficam de fora)
+ * parking.allocation.candidates vagas livres consideradas no PARKED
+ * parking.sector.*              lotação, vagas livres e capacidade por setor
+ */
+@Component
+public class ParkingMetrics {
+
+    private static final Set<String> EVENT_TYPES = Set.of("ENTRY", "PARKED", "EXIT");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SectorOccupancyRegistry occupancyRegistry;
+
+    @Autowired
+    private SpotIndexRegistry spotIndexRegistry;
+
+    private final Map<String, Timer> eventTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> dbTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> duplicateCounters = new ConcurrentHashMap<>();
+    private volatile DistributionSummary spotCandidates;
+    // Setores atuais por id, trocado a cada bindSectors; lido pelos gauges
+    private volatile Map<Long, Sector> sectorsById = Map.of();
+
+    public Sample start() {
+        return new Sample(System.nanoTime(), JdbcTimingSessionListener.elapsedNanos());
+    }
+
+    /**
+     * Registra o resultado de um evento. error é a exceção que originou um
+     * status de erro, se houver.
+     */
+    public void stop(Sample sample, String source, String eventType, HttpStatus status, Throwable error) {
+        long elapsed = System.nanoTime() - sample.startNanos();
+        long dbElapsed = JdbcTimingSessionListener.elapsedNanos() - sample.dbNanos();
+
+        // Tipo vem do cliente: valores desconhecidos viram uma única série
+        String type = eventType != null && EVENT_TYPES.contains(eventType) ? eventType : "UNKNOWN";
+        String outcome = String.valueOf(status.value());
+
+        eventTimers.computeIfAbsent(source + '|' + type + '|' + outcome, key -> Timer.builder("parking.webhook.events")
+                .description("Latência de processamento de eventos de webhook")
+                .tag("source", source)
+                .tag("event_type", type)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+            .record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (status != HttpStatus.OK) {
+            String reason = error != null ? error.getClass().getSimpleName() : "none";
+            errorCounters.computeIfAbsent(type + '|' + outcome + '|' + reason, key -> Counter.builder("parking.webhook.errors")
+                    .description("Eventos de webhook que terminaram em erro")
+                    .tag("event_type", type)
+                    .tag("status", outcome)
+                    .tag("reason", reason)
+                    .register(meterRegistry))
+                .increment();
+        }
+
+        if (!type.equals("UNKNOWN")) {
+            dbTimers.computeIfAbsent(type, key -> Timer.builder("parking.handler.db.time")
+                    .description("Tempo de execução de comandos JDBC do Hibernate por evento; "
+                        + "não inclui os comandos via JdbcTemplate (deduplicação e log de eventos)")
+                    .tag("handler", type)
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry))
+                .record(dbElapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordDuplicate(String source, String eventType) {
+        String type = eventType != null && EVENT_TYPES.contains(eventType) ? eventType : "UNKNOWN";
+        duplicateCounters.computeIfAbsent(source + '|' + type, key -> Counter.builder("parking.webhook.duplicates")
+                .description("Eventos de webhook reenviados, respondidos sem reaplicar")
+                .tag("source", source)
+                .tag("event_type", type)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    public void recordSpotCandidates(int candidates) {
+        DistributionSummary summary = spotCandidates;
+        if (summary == null) {
+            summary = DistributionSummary.builder("parking.allocation.candidates")
+                .description("Vagas livres consideradas na escolha da vaga mais próxima")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+            spotCandidates = summary;
+        }
+        summary.record(candidates);
+    }
+
+    /**
+     * Registra os gauges de cada setor. Chamado a cada recarga do estado em
+     * memória; setores já registrados mantêm o gauge existente.
+     */
+    public void bindSectors(List<Sector> sectors) {
+        Map<Long, Sector> byId = new HashMap<>();
+        for (Sector sector : sectors) {
+            byId.put(sector.getId(), sector);
+        }
+        sectorsById = byId;
+
+        for (Sector sector : sectors) {
+            Long sectorId = sector.getId();
+            String code = sector.getSectorCode();
+
+            Gauge.builder("parking.sector.occupied", occupancyRegistry, r -> r.getAllocated(sectorRef(sectorId)))
+                .description("Sessões abertas no setor")
+                .tag("sector", code)
+                .register(meterRegistry);
+            Gauge.builder("parking.sector.free", spotIndexRegistry, r -> r.countFree(sectorRef(sectorId)))
+                .description("Vagas livres no setor")
+                .tag("sector", code)
+                .register(meterRegistry);
+            Gauge.builder("parking.sector.capacity", occupancyRegistry, r -> sectorRef(sectorId).getMaxCapacity())
+                .description("Capacidade máxima do setor")
+                .tag("sector", code)
+                .register(meterRegistry);
+        }
+    }
+
+    // Setor da última carga, para refletir recargas (ex.: nova capacidade)
+    private Sector sectorRef(Long sectorId) {
+        Sector sector = sectorsById.get(sectorId);
+        if (sector != null) {
+            return sector;
+        }
+        Sector removed = new Sector();
+        removed.setId(sectorId);
+        removed.setMaxCapacity(0);
+        return removed;
+    }
+
+    public record Sample(long startNanos, long dbNanos) {}
+}
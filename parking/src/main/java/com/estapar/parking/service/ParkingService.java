@@ -1,6 +1,5 @@
 package com.estapar.parking.service;
 
-import com.estapar.parking.dto.GarageConfigDTO;
 import com.estapar.parking.dto.WebhookEventDTO;
 import com.estapar.parking.exception.ParkingFullException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
@@ -11,12 +10,14 @@ import com.estapar.parking.model.Spot;
 import com.estapar.parking.repository.ParkingSessionRepository;
 import com.estapar.parking.repository.SectorRepository;
 import com.estapar.parking.repository.SpotRepository;
+import com.estapar.parking.service.ActiveSessionCache.ActiveSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -26,6 +27,8 @@ import java.util.Optional;
 @Service
 public class ParkingService {
     
+    private static final Logger log = LoggerFactory.getLogger(ParkingService.class);
+    
     @Autowired
     private ParkingSessionRepository sessionRepository;
     
@@ -35,30 +38,57 @@ public class ParkingService {
     @Autowired
     private SpotRepository spotRepository;
     
-    @Transactional
+    @Autowired
+    private SectorOccupancyRegistry occupancyRegistry;
+    
+    @Autowired
+    private SpotIndexRegistry spotIndexRegistry;
+    
+    @Autowired
+    private ActiveSessionCache activeSessionCache;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+    
+    @Autowired
+    private PricingEngine pricingEngine;
+    
+    @Autowired
+    private WebhookDeduplicator webhookDeduplicator;
+    
+    @Autowired
+    private WebhookEventLog webhookEventLog;
+    
+    // Erros de negócio ocorrem antes de qualquer escrita e não devem marcar
+    // para rollback a transação de um lote (ver WebhookBatchService)
+    @Transactional(noRollbackFor = {
+        ParkingFullException.class, VehicleAlreadyParkedException.class, VehicleNotFoundException.class
+    })
     public ParkingSession handleEntry(WebhookEventDTO event) {
-        System.out.println("🚗 Processing ENTRY for vehicle: " + event.getLicensePlate());
+        LogContext.plate(event.getLicensePlate());
+        log.debug("Processing ENTRY");
         
         // Verificar se veículo já está estacionado
-        Optional<ParkingSession> existingSession = sessionRepository
-            .findByLicensePlateAndExitTimeIsNull(event.getLicensePlate());
-        
-        if (existingSession.isPresent()) {
+        if (isAlreadyParked(event.getLicensePlate())) {
             throw new VehicleAlreadyParkedException(
                 "Vehicle " + event.getLicensePlate() + " is already parked"
             );
         }
         
         // Buscar primeiro setor disponível
-        List<Sector> sectors = sectorRepository.findAll();
+        List<Sector> sectors = findSectors();
         Sector selectedSector = null;
+        long occupiedCount = 0;
         
         for (Sector sector : sectors) {
-            Long occupiedCount = spotRepository.countBySectorAndOccupied(sector, true);
-            if (occupiedCount < sector.getMaxCapacity()) {
+            occupiedCount = reserveCapacity(sector);
+            if (occupiedCount >= 0) {
                 selectedSector = sector;
-                System.out.println("✅ Selected sector: " + sector.getSectorCode() + 
-                    " (" + occupiedCount + "/" + sector.getMaxCapacity() + " occupied)");
+                log.debug("Selected sector {} ({}/{} occupied)",
+                    sector.getSectorCode(), occupiedCount, sector.getMaxCapacity());
                 break;
             }
         }
@@ -67,17 +97,11 @@ public class ParkingService {
             throw new ParkingFullException("Parking is full");
         }
         
-        // Calcular preço dinâmico baseado na lotação
-        Long occupiedCount = spotRepository.countBySectorAndOccupied(selectedSector, true);
-        BigDecimal appliedPrice = calculateDynamicPrice(
-            selectedSector.getBasePrice(),
-            occupiedCount,
-            selectedSector.getMaxCapacity()
+        // Calcular preço dinâmico baseado na lotação (faixas pré-calculadas por setor)
+        BigDecimal appliedPrice = PricingEngine.toDecimal(
+            pricingEngine.priceCents(selectedSector, occupiedCount)
         );
         
-        System.out.println("💰 Applied price: R$ " + appliedPrice + 
-            " (base: R$ " + selectedSector.getBasePrice() + ")");
-        
         //  Criar sessão SEM spot (será atribuído no PARKED)
         ParkingSession session = new ParkingSession();
         session.setLicensePlate(event.getLicensePlate());
@@ -87,63 +111,84 @@ public class ParkingService {
         // ✅ NÃO defini spot aqui - será definido no handleParked
         
         ParkingSession savedSession = sessionRepository.save(session);
-        System.out.println("✅ Entry session created with ID: " + savedSession.getId());
+        if (activeSessionCache.isLoaded()) {
+            activeSessionCache.put(new ActiveSession(
+                savedSession.getLicensePlate(), savedSession.getId(), selectedSector.getId(), null));
+        }
+        LogContext.session(savedSession.getId());
+        webhookDeduplicator.record(event);
+        webhookEventLog.append(event, savedSession);
+        log.info("ENTRY sector={} price={} base={}",
+            selectedSector.getSectorCode(), appliedPrice, selectedSector.getBasePrice());
         
         return savedSession;
     }
     
-    @Transactional
+    @Transactional(noRollbackFor = {
+        ParkingFullException.class, VehicleAlreadyParkedException.class, VehicleNotFoundException.class
+    })
     public ParkingSession handleParked(WebhookEventDTO event) {
-        System.out.println("🅿️ Processing PARKED for vehicle: " + event.getLicensePlate());
-        
-        ParkingSession session = sessionRepository
-            .findByLicensePlateAndExitTimeIsNull(event.getLicensePlate())
-            .orElseThrow(() -> new VehicleNotFoundException(
-                "No active session found for vehicle " + event.getLicensePlate()
-            ));
+        LogContext.plate(event.getLicensePlate());
+        log.debug("Processing PARKED");
         
-        // Encontrar vaga mais próxima disponível
-        List<Spot> availableSpots = spotRepository
-            .findBySectorAndOccupied(session.getSector(), false);
+        ParkingSession session = findActiveSession(event.getLicensePlate());
+        LogContext.session(session.getId());
         
-        if (availableSpots.isEmpty()) {
-            throw new ParkingFullException("No available spots in sector " + session.getSector().getSectorCode());
+        // PARKED repetido (reenvio da cancela): mantém a vaga já atribuída
+        if (session.getSpot() != null) {
+            log.info("PARKED ignored, already at spot={}", session.getSpot().getId());
+            return session;
         }
         
         // Converter BigDecimal para Double
         Double targetLat = event.getLat() != null ? event.getLat().doubleValue() : null;
         Double targetLng = event.getLng() != null ? event.getLng().doubleValue() : null;
         
-        Spot closestSpot = findClosestSpot(availableSpots, targetLat, targetLng);
-        
-        System.out.println("🎯 Assigned spot: " + closestSpot.getId() + 
-            " at (" + closestSpot.getLatitude() + ", " + closestSpot.getLongitude() + ")");
-        
-        // Marcar vaga como ocupada
-        closestSpot.setOccupied(true);
-        closestSpot.setOccupiedAt(LocalDateTime.now());
-        closestSpot.setOccupiedBy(event.getLicensePlate());
-        spotRepository.save(closestSpot);
+        // Encontrar e ocupar a vaga livre mais próxima
+        LocalDateTime parkedAt = LocalDateTime.now();
+        Spot closestSpot;
+        if (spotIndexRegistry.isLoaded()) {
+            parkingMetrics.recordSpotCandidates(spotIndexRegistry.countFree(session.getSector()));
+            closestSpot = claimClosestSpot(session.getSector(), targetLat, targetLng, event.getLicensePlate(), parkedAt);
+        } else {
+            List<Spot> availableSpots = spotRepository
+                .findBySectorAndOccupied(session.getSector(), false);
+            
+            if (availableSpots.isEmpty()) {
+                throw new ParkingFullException("No available spots in sector " + session.getSector().getSectorCode());
+            }
+            
+            parkingMetrics.recordSpotCandidates(availableSpots.size());
+            closestSpot = claimClosestSpot(availableSpots, session.getSector(), targetLat, targetLng,
+                event.getLicensePlate(), parkedAt);
+        }
         
         //  Atualizar sessão com o spot
         session.setSpot(closestSpot);
         session.setParkedTime(LocalDateTime.now());
         ParkingSession updatedSession = sessionRepository.save(session);
+        if (activeSessionCache.isLoaded()) {
+            activeSessionCache.put(new ActiveSession(
+                session.getLicensePlate(), session.getId(), session.getSector().getId(), closestSpot.getId()));
+        }
         
-        System.out.println("✅ Vehicle parked successfully");
+        webhookDeduplicator.record(event);
+        webhookEventLog.append(event, updatedSession);
+        log.info("PARKED spot={} lat={} lng={}",
+            closestSpot.getId(), closestSpot.getLatitude(), closestSpot.getLongitude());
         
         return updatedSession;
     }
     
-    @Transactional
+    @Transactional(noRollbackFor = {
+        ParkingFullException.class, VehicleAlreadyParkedException.class, VehicleNotFoundException.class
+    })
     public ParkingSession handleExit(WebhookEventDTO event) {
-        System.out.println("🚪 Processing EXIT for vehicle: " + event.getLicensePlate());
+        LogContext.plate(event.getLicensePlate());
+        log.debug("Processing EXIT");
         
-        ParkingSession session = sessionRepository
-            .findByLicensePlateAndExitTimeIsNull(event.getLicensePlate())
-            .orElseThrow(() -> new VehicleNotFoundException(
-                "No active session found for vehicle " + event.getLicensePlate()
-            ));
+        ParkingSession session = findActiveSession(event.getLicensePlate());
+        LogContext.session(session.getId());
         
         // Calcular valor final
         BigDecimal finalAmount = calculateFinalAmount(
@@ -152,8 +197,6 @@ public class ParkingService {
             session.getAppliedPrice()
         );
         
-        System.out.println("💵 Final amount: R$ " + finalAmount);
-        
         // Liberar vaga
         if (session.getSpot() != null) {
             Spot spot = session.getSpot();
@@ -161,37 +204,128 @@ public class ParkingService {
             spot.setOccupiedAt(null);
             spot.setOccupiedBy(null);
             spotRepository.save(spot);
-            System.out.println("✅ Spot " + spot.getId() + " released");
+            // Setor atual da vaga: uma carga de layout pode tê-la movido
+            spotIndexRegistry.release(spot.getSector(), spot);
+            log.debug("Spot {} released", spot.getId());
+        }
+        
+        // Devolver a capacidade reservada no ENTRY. Sem linha afetada o contador
+        // do banco já estava zerado (divergência): o de memória não é tocado
+        if (sectorRepository.releaseCapacity(session.getSector().getId()) == 1) {
+            occupancyRegistry.release(session.getSector());
+        } else {
+            log.warn("EXIT found no reserved capacity to release in sector {}",
+                session.getSector().getSectorCode());
         }
         
         // Atualizar sessão
         session.setExitTime(event.getExitTime());
         session.setFinalAmount(finalAmount);
         ParkingSession completedSession = sessionRepository.save(session);
+        revenueRollupService.recordExit(session.getSector(), event.getExitTime().toLocalDate(), finalAmount);
+        if (activeSessionCache.isLoaded()) {
+            activeSessionCache.remove(session.getLicensePlate());
+        }
+        webhookDeduplicator.record(event);
+        webhookEventLog.append(event, completedSession);
         
-        System.out.println("✅ Exit processed successfully");
+        log.info("EXIT amount={} sector={}", finalAmount, session.getSector().getSectorCode());
         
         return completedSession;
     }
     
-    private BigDecimal calculateDynamicPrice(BigDecimal basePrice, Long occupiedCount, Integer maxCapacity) {
-        double occupancyRate = (double) occupiedCount / maxCapacity;
-        BigDecimal multiplier;
-        
-        if (occupancyRate < 0.25) {
-            multiplier = new BigDecimal("0.90"); // -10%
-        } else if (occupancyRate < 0.50) {
-            multiplier = BigDecimal.ONE; // 0%
-        } else if (occupancyRate < 0.75) {
-            multiplier = new BigDecimal("1.10"); // +10%
-        } else {
-            multiplier = new BigDecimal("1.25"); // +25%
+    private boolean isAlreadyParked(String licensePlate) {
+        if (activeSessionCache.isLoaded() && activeSessionCache.contains(licensePlate)) {
+            return true;
+        }
+        
+        // Ausência no cache não é prova: a sessão pode ter sido aberta por outra
+        // instância ou o cache pode ter divergido; o banco decide
+        Optional<ParkingSession> session = sessionRepository.findByLicensePlateAndExitTimeIsNull(licensePlate);
+        if (session.isPresent() && activeSessionCache.isLoaded()) {
+            ParkingSession active = session.get();
+            activeSessionCache.put(new ActiveSession(licensePlate, active.getId(), active.getSector().getId(),
+                active.getSpot() != null ? active.getSpot().getId() : null));
+        }
+        return session.isPresent();
+    }
+    
+    private ParkingSession findActiveSession(String licensePlate) {
+        if (activeSessionCache.isLoaded()) {
+            Optional<ActiveSession> cached = activeSessionCache.get(licensePlate);
+            if (cached.isPresent()) {
+                Optional<ParkingSession> session = sessionRepository.findById(cached.get().sessionId());
+                if (session.isPresent()
+                        && licensePlate.equals(session.get().getLicensePlate())
+                        && session.get().getExitTime() == null) {
+                    return session.get();
+                }
+                activeSessionCache.evict(licensePlate);
+            }
         }
         
-        return basePrice.multiply(multiplier).setScale(2, RoundingMode.HALF_UP);
+        // Cache frio ou divergente: consultar o banco
+        ParkingSession session = sessionRepository
+            .findByLicensePlateAndExitTimeIsNull(licensePlate)
+            .orElseThrow(() -> new VehicleNotFoundException(
+                "No active session found for vehicle " + licensePlate
+            ));
+        
+        if (activeSessionCache.isLoaded()) {
+            activeSessionCache.put(new ActiveSession(
+                licensePlate,
+                session.getId(),
+                session.getSector().getId(),
+                session.getSpot() != null ? session.getSpot().getId() : null));
+        }
+        return session;
     }
     
-    private BigDecimal calculateFinalAmount(
+    private List<Sector> findSectors() {
+        if (occupancyRegistry.isLoaded()) {
+            return occupancyRegistry.getSectors();
+        }
+        return sectorRepository.findAll();
+    }
+    
+    /**
+     * Reserva uma unidade da capacidade do setor e retorna a lotação anterior
+     * (sessões ativas no setor, base do preço do ENTRY), ou -1 se estiver
+     * cheio. O CAS em memória descarta setores cheios sem ir ao banco; o
+     * UPDATE condicional em sectors é a garantia final e disputa apenas a
+     * linha do setor.
+     */
+    private long reserveCapacity(Sector sector) {
+        if (occupancyRegistry.isLoaded()) {
+            long allocated = occupancyRegistry.tryReserve(sector);
+            if (allocated < 0) {
+                return -1;
+            }
+            if (sectorRepository.reserveCapacity(sector.getId()) == 0) {
+                occupancyRegistry.cancelReservation(sector);
+                return -1;
+            }
+            return allocated;
+        }
+        
+        // Mesma base do registro: sessões com capacidade reservada no setor
+        // (sectors.active_sessions), não vagas ocupadas. A linha fica travada
+        // pelo UPDATE, então a leitura já inclui esta reserva
+        if (sectorRepository.reserveCapacity(sector.getId()) == 0) {
+            return -1;
+        }
+        return sectorRepository.findActiveSessions(sector.getId()) - 1;
+    }
+    
+    // Faixas: lotação < 25% -10%, < 50% preço base, < 75% +10%, demais +25%
+    BigDecimal calculateDynamicPrice(BigDecimal basePrice, Long occupiedCount, Integer maxCapacity) {
+        return PricingEngine.toDecimal(PricingEngine.tierPrice(
+            PricingEngine.toCents(basePrice),
+            PricingEngine.tier(occupiedCount, maxCapacity)
+        ));
+    }
+    
+    BigDecimal calculateFinalAmount(
         LocalDateTime entryTime,
         LocalDateTime exitTime,
         BigDecimal appliedPrice
@@ -199,25 +333,69 @@ public class ParkingService {
         Duration duration = Duration.between(entryTime, exitTime);
         long minutes = duration.toMinutes();
         
-        System.out.println("⏱️ Parking duration: " + minutes + " minutes");
-        
         // Primeiros 30 minutos grátis
-        if (minutes <= 30) {
-            System.out.println("🎁 Free parking (under 30 minutes)");
+        if (PricingEngine.isFree(minutes)) {
+            log.debug("Free parking: {} minutes", minutes);
             return BigDecimal.ZERO;
         }
         
-        // Calcular horas (arredondar para cima)
-        double hours = minutes / 60.0;
-        long ceiledHours = (long) Math.ceil(hours);
+        log.debug("Parking duration: {} minutes, charged hours: {}", minutes, PricingEngine.chargedHours(minutes));
         
-        System.out.println("📊 Charged hours: " + ceiledHours + " (actual: " + hours + ")");
+        return PricingEngine.toDecimal(
+            PricingEngine.finalAmountCents(minutes, PricingEngine.toCents(appliedPrice))
+        );
+    }
+    
+    private Spot claimClosestSpot(
+        Sector sector,
+        Double targetLat,
+        Double targetLng,
+        String licensePlate,
+        LocalDateTime parkedAt
+    ) {
+        while (true) {
+            Long spotId = spotIndexRegistry.claimNearest(sector, targetLat, targetLng);
+            if (spotId == null) {
+                throw new ParkingFullException("No available spots in sector " + sector.getSectorCode());
+            }
+            
+            // O índice pode divergir do banco (ex.: vaga ocupada por outra instância)
+            Optional<Spot> spot = spotRepository.findById(spotId);
+            if (spot.isPresent()
+                    && !Boolean.TRUE.equals(spot.get().getOccupied())
+                    && spotRepository.claim(spot.get(), licensePlate, parkedAt)) {
+                return spot.get();
+            }
+        }
+    }
+    
+    /**
+     * Tenta ocupar a vaga mais próxima; se outra transação a ocupou antes
+     * (versão diferente), tenta a próxima mais próxima.
+     */
+    private Spot claimClosestSpot(
+        List<Spot> availableSpots,
+        Sector sector,
+        Double targetLat,
+        Double targetLng,
+        String licensePlate,
+        LocalDateTime parkedAt
+    ) {
+        List<Spot> candidates = new ArrayList<>(availableSpots);
+        while (!candidates.isEmpty()) {
+            Spot spot = findClosestSpot(candidates, targetLat, targetLng);
+            if (spotRepository.claim(spot, licensePlate, parkedAt)) {
+                return spot;
+            }
+            
+            log.debug("Spot {} was claimed concurrently, trying next nearest", spot.getId());
+            candidates.remove(spot);
+        }
         
-        return appliedPrice.multiply(BigDecimal.valueOf(ceiledHours))
-            .setScale(2, RoundingMode.HALF_UP);
+        throw new ParkingFullException("No available spots in sector " + sector.getSectorCode());
     }
     
-    private Spot findClosestSpot(List<Spot> spots, Double targetLat, Double targetLng) {
+    Spot findClosestSpot(List<Spot> spots, Double targetLat, Double targetLng) {
         if (targetLat == null || targetLng == null) {
             // Se não tiver coordenadas, retorna a primeira vaga disponível
             return spots.get(0);
@@ -243,7 +421,7 @@ public class ParkingService {
         return closestSpot;
     }
     
-    private double calculateDistance(
+    double calculateDistance(
         Double lat1, Double lng1,
         Double lat2, Double lng2
     ) {
@@ -276,40 +454,4 @@ public class ParkingService {
         
         return stats.toString();
     }
-    
-    public GarageConfigDTO getGarageConfiguration() {
-        System.out.println("📋 Fetching garage configuration...");
-        
-        // Buscar todos os setores
-        List<Sector> sectors = sectorRepository.findAll();
-        List<GarageConfigDTO.SectorConfigDTO> sectorConfigs = new ArrayList<>();
-        
-        for (Sector sector : sectors) {
-            GarageConfigDTO.SectorConfigDTO sectorConfig = new GarageConfigDTO.SectorConfigDTO(
-                sector.getSectorCode(),
-                sector.getBasePrice(),
-                sector.getMaxCapacity()
-            );
-            sectorConfigs.add(sectorConfig);
-        }
-        
-        // Buscar todas as vagas
-        List<Spot> spots = spotRepository.findAll();
-        List<GarageConfigDTO.SpotConfigDTO> spotConfigs = new ArrayList<>();
-        
-        for (Spot spot : spots) {
-            GarageConfigDTO.SpotConfigDTO spotConfig = new GarageConfigDTO.SpotConfigDTO(
-                spot.getId(),
-                spot.getSector().getSectorCode(),
-                spot.getLatitude(),
-                spot.getLongitude()
-            );
-            spotConfigs.add(spotConfig);
-        }
-        
-        System.out.println("✅ Configuration loaded: " + sectorConfigs.size() + 
-            " sectors, " + spotConfigs.size() + " spots");
-        
-        return new GarageConfigDTO(sectorConfigs, spotConfigs);
-    }
 }
@@ -0,0 +1,202 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.repository.ParkingSessionRepository;
+import com.estapar.parking.repository.SectorCount;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SpotLocation;
+import com.estapar.parking.repository.SpotRepository;
+import com.estapar.parking.service.ActiveSessionCache.ActiveSession;
+import com.estapar.parking.service.OccupancySnapshotService.Recovery;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Carrega o estado em memória do estacionamento antes do servidor web
+ * começar a aceitar requisições (fase anterior à do Tomcat).
+ */
+@Component
+public class ParkingStateInitializer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ParkingStateInitializer.class);
+
+    @Autowired
+    private SectorRepository sectorRepository;
+
+    @Autowired
+    private SpotRepository spotRepository;
+
+    @Autowired
+    private ParkingSessionRepository sessionRepository;
+
+    @Autowired
+    private SectorOccupancyRegistry occupancyRegistry;
+
+    @Autowired
+    private SpotIndexRegistry spotIndexRegistry;
+
+    @Autowired
+    private ActiveSessionCache activeSessionCache;
+
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private OccupancySnapshotService occupancySnapshotService;
+
+    private volatile boolean running;
+
+    public void reload() {
+        List<Sector> sectors = sectorRepository.findAll(Sort.by("id"));
+
+        Map<Long, Long> allocatedCounts = new HashMap<>();
+        for (SectorCount count : sectorRepository.findActiveSessionCounts()) {
+            allocatedCounts.put(count.getSectorId(), count.getTotal());
+        }
+
+        occupancyRegistry.load(sectors, allocatedCounts);
+        pricingEngine.load(sectors);
+
+        // Modo de recuperação: sessões abertas da última fotografia + eventos
+        // seguintes, sem varrer parking_sessions; vagas livres = todas menos as
+        // dessas sessões. Divergências com o banco são corrigidas pelo
+        // ParkingService (cache que não confere e vaga já ocupada no claim).
+        Optional<Recovery> recovery = occupancySnapshotService.isRecoveryEnabled()
+            ? occupancySnapshotService.recover()
+            : Optional.empty();
+
+        List<ActiveSession> activeSessions;
+        List<SpotLocation> freeSpotLocations;
+        if (recovery.isPresent()) {
+            activeSessions = recovery.get().sessions();
+            Set<Long> occupiedSpots = new HashSet<>();
+            for (ActiveSession session : activeSessions) {
+                if (session.spotId() != null) {
+                    occupiedSpots.add(session.spotId());
+                }
+            }
+            freeSpotLocations = spotRepository.findSpotLocations().stream()
+                .filter(spot -> !occupiedSpots.contains(spot.getId()))
+                .toList();
+            log.info("Recovered from snapshot taken at {} + {} events",
+                recovery.get().snapshotTakenAt(), recovery.get().replayedEvents());
+        } else {
+            activeSessions = sessionRepository.findActiveSessions().stream()
+                .map(s -> new ActiveSession(s.getLicensePlate(), s.getId(), s.getSectorId(), s.getSpotId()))
+                .toList();
+            freeSpotLocations = spotRepository.findFreeSpotLocations();
+        }
+
+        Map<Long, List<SpotPoint>> freeSpots = new HashMap<>();
+        for (Sector sector : sectors) {
+            freeSpots.put(sector.getId(), new ArrayList<>());
+        }
+        for (SpotLocation spot : freeSpotLocations) {
+            freeSpots.computeIfAbsent(spot.getSectorId(), id -> new ArrayList<>())
+                .add(new SpotPoint(spot.getId(), spot.getLatitude(), spot.getLongitude()));
+        }
+
+        spotIndexRegistry.load(freeSpots);
+
+        List<Long> orphaned = findOrphanedSessions(sectors, activeSessions);
+        if (!orphaned.isEmpty()) {
+            log.error("{} open sessions reference a missing sector or spot: {}",
+                orphaned.size(), orphaned.subList(0, Math.min(orphaned.size(), 20)));
+        }
+
+        activeSessionCache.load(activeSessions);
+
+        parkingMetrics.bindSectors(sectors);
+
+        log.info("Occupancy registry loaded: {} sectors, {} free spots indexed, {} active sessions",
+            sectors.size(), freeSpots.values().stream().mapToInt(List::size).sum(), activeSessionCache.size());
+    }
+
+    /**
+     * Aplica uma nova carga de layout ao estado em memória. Ao contrário de
+     * {@link #reload()}, não recria contadores, índices nem o cache de
+     * sessões, que webhooks em andamento continuam alterando (inclusive nos
+     * callbacks de commit/rollback): só capacidade, preços e as vagas
+     * inseridas ou alteradas são atualizados.
+     */
+    public void refreshLayout(Map<Long, List<SpotPoint>> changedSpotsBySector, Set<Long> insertedSpotIds) {
+        List<Sector> sectors = sectorRepository.findAll(Sort.by("id"));
+
+        occupancyRegistry.refresh(sectors);
+        pricingEngine.load(sectors);
+        spotIndexRegistry.refresh(sectors, changedSpotsBySector, insertedSpotIds);
+        parkingMetrics.bindSectors(sectors);
+
+        log.info("Garage layout refreshed in memory: {} sectors, {} spots changed",
+            sectors.size(), changedSpotsBySector.values().stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * parking_sessions não tem FKs desde V13 (tabela particionada). Setores e
+     * vagas nunca são removidos e cada sessão recebe setor e vaga de linhas
+     * existentes (registro/claim); aqui se confere que as sessões abertas
+     * ainda apontam para linhas existentes. Devolve os ids das que não apontam.
+     */
+    List<Long> findOrphanedSessions(List<Sector> sectors, List<ActiveSession> sessions) {
+        Set<Long> sectorIds = new HashSet<>();
+        for (Sector sector : sectors) {
+            sectorIds.add(sector.getId());
+        }
+        Set<Long> spotIds = new HashSet<>();
+        for (ActiveSession session : sessions) {
+            if (session.spotId() != null) {
+                spotIds.add(session.spotId());
+            }
+        }
+        Set<Long> existingSpots = spotIds.isEmpty()
+            ? Set.of()
+            : new HashSet<>(spotRepository.findExistingIds(spotIds));
+
+        List<Long> orphaned = new ArrayList<>();
+        for (ActiveSession session : sessions) {
+            if (!sectorIds.contains(session.sectorId())
+                    || (session.spotId() != null && !existingSpots.contains(session.spotId()))) {
+                orphaned.add(session.sessionId());
+            }
+        }
+        return orphaned;
+    }
+
+    @Override
+    public void start() {
+        reload();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Antes do WebServerStartStopLifecycle (DEFAULT_PHASE - 1024)
+        return DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,105 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preços em centavos (long) para o caminho de ENTRY/EXIT.
+ *
+ * Os preços das quatro faixas de lotação de cada setor são calculados uma vez
+ * em {@link #load(List)} (chamado por ParkingStateInitializer.reload e
+ * refreshLayout). O valor final é preço × horas, sem BigDecimal; a conversão
+ * acontece só ao gravar a sessão. Os resultados são idênticos ao cálculo com BigDecimal e HALF_UP,
+ * pois os preços no banco são DECIMAL(10,2).
+ */
+@Component
+public class PricingEngine {
+
+    /** Percentual sobre o preço base por faixa: <25%, <50%, <75% e demais. */
+    private static final int[] TIER_PERCENT = {90, 100, 110, 125};
+
+    private static final long FREE_MINUTES = 30;
+
+    private volatile Map<Long, long[]> tierPricesBySector = Map.of();
+
+    public void load(List<Sector> sectors) {
+        Map<Long, long[]> prices = new HashMap<>();
+        for (Sector sector : sectors) {
+            prices.put(sector.getId(), tierPrices(toCents(sector.getBasePrice())));
+        }
+        this.tierPricesBySector = prices;
+    }
+
+    /** Preço por hora, em centavos, para uma entrada com {@code occupied} vagas já reservadas. */
+    public long priceCents(Sector sector, long occupied) {
+        int tier = tier(occupied, sector.getMaxCapacity());
+        long[] prices = tierPricesBySector.get(sector.getId());
+        if (prices == null) {
+            // Setor ainda não carregado (ex.: antes do primeiro reload)
+            return tierPrice(toCents(sector.getBasePrice()), tier);
+        }
+        return prices[tier];
+    }
+
+    /**
+     * Faixa de lotação (0 a 3). Mesmos limites de ocupação/capacidade < 0,25,
+     * 0,50 e 0,75, comparados em inteiros.
+     */
+    static int tier(long occupied, int maxCapacity) {
+        if (occupied * 4 < maxCapacity) {
+            return 0;
+        } else if (occupied * 2 < maxCapacity) {
+            return 1;
+        } else if (occupied * 4 < 3L * maxCapacity) {
+            return 2;
+        }
+        return 3;
+    }
+
+    static long tierPrice(long baseCents, int tier) {
+        return divideHalfUp(baseCents * TIER_PERCENT[tier], 100);
+    }
+
+    static long[] tierPrices(long baseCents) {
+        long[] prices = new long[TIER_PERCENT.length];
+        for (int tier = 0; tier < prices.length; tier++) {
+            prices[tier] = tierPrice(baseCents, tier);
+        }
+        return prices;
+    }
+
+    /** Primeiros 30 minutos grátis; depois, cada hora iniciada é cobrada inteira. */
+    public static long finalAmountCents(long minutes, long priceCents) {
+        if (isFree(minutes)) {
+            return 0;
+        }
+        return Math.multiplyExact(priceCents, chargedHours(minutes));
+    }
+
+    public static boolean isFree(long minutes) {
+        return minutes <= FREE_MINUTES;
+    }
+
+    public static long chargedHours(long minutes) {
+        return (minutes + 59) / 60;
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long divideHalfUp(long value, long divisor) {
+        long half = divisor / 2;
+        return value >= 0 ? (value + half) / divisor : -((-value + half) / divisor);
+    }
+}
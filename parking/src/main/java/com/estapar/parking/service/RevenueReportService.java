@@ -0,0 +1,58 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.DailySectorRevenueRepository;
+import com.estapar.parking.repository.RevenueReportRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Relatório de faturamento por dia e setor lido de daily_sector_revenue.
+ * As linhas são escritas no JSON à medida que chegam do banco, sem montar
+ * a lista completa em memória.
+ */
+@Service
+public class RevenueReportService {
+
+    @Autowired
+    private DailySectorRevenueRepository dailyRevenueRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void writeReport(LocalDate from, LocalDate to, List<String> sectors, OutputStream out) throws IOException {
+        try (Stream<RevenueReportRow> rows = sectors == null || sectors.isEmpty()
+                ? dailyRevenueRepository.streamReport(from, to)
+                : dailyRevenueRepository.streamReport(from, to, sectors);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("from", from.toString());
+            json.writeStringField("to", to.toString());
+            json.writeStringField("currency", "BRL");
+            json.writeArrayFieldStart("rows");
+
+            for (RevenueReportRow row : (Iterable<RevenueReportRow>) rows::iterator) {
+                json.writeStartObject();
+                json.writeStringField("date", row.getDate().toString());
+                json.writeStringField("sector", row.getSector());
+                json.writeNumberField("amount", row.getTotalAmount());
+                json.writeNumberField("sessions", row.getSessionCount());
+                json.writeEndObject();
+            }
+
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.repository.DailySectorRevenueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Mantém a tabela daily_sector_revenue. Cada EXIT soma seu valor na linha
+ * (dia, setor) dentro da mesma transação que encerra a sessão; a
+ * reconstrução recalcula um intervalo de dias a partir de parking_sessions.
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    @Autowired
+    private DailySectorRevenueRepository dailyRevenueRepository;
+
+    @Transactional
+    public void recordExit(Sector sector, LocalDate exitDate, BigDecimal finalAmount) {
+        dailyRevenueRepository.addExit(exitDate, sector.getId(), finalAmount);
+    }
+
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid rebuild range: " + from + " to " + to);
+        }
+
+        int removed = dailyRevenueRepository.deleteByDateRange(from, to);
+        int inserted = dailyRevenueRepository.insertFromSessions(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+
+        log.info("Revenue rollup rebuilt from {} to {}: {} rows removed, {} rows inserted",
+            from, to, removed, inserted);
+        return inserted;
+    }
+}
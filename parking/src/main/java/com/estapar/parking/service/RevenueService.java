@@ -1,6 +1,9 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.model.DailySectorRevenue;
+import com.estapar.parking.model.DailySectorRevenueId;
 import com.estapar.parking.model.Sector;
+import com.estapar.parking.repository.DailySectorRevenueRepository;
 import com.estapar.parking.repository.ParkingSessionRepository;
 import com.estapar.parking.repository.SectorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Optional;
 
 @Service
 public class RevenueService {
@@ -18,10 +22,20 @@ public class RevenueService {
     @Autowired
     private SectorRepository sectorRepository;
     
+    @Autowired
+    private DailySectorRevenueRepository dailyRevenueRepository;
+    
     public BigDecimal calculateRevenue(LocalDate date, String sectorName) {
         Sector sector = sectorRepository.findBysectorCode(sectorName)
             .orElseThrow(() -> new RuntimeException("Sector not found: " + sectorName));
         
+        // Linha pré-agregada; sem ela (dia sem saídas ou ainda não reconstruído), somar as sessões
+        Optional<DailySectorRevenue> rollup = dailyRevenueRepository.findById(
+            new DailySectorRevenueId(date, sector.getId()));
+        if (rollup.isPresent()) {
+            return rollup.get().getTotalAmount();
+        }
+        
         BigDecimal revenue = sessionRepository.sumRevenueByDateAndSector(date, sector);
         
         return revenue != null ? revenue : BigDecimal.ZERO;
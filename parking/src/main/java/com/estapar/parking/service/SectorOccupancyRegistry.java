@@ -0,0 +1,112 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de lotação por setor mantidos em memória.
+ *
+ * Cada sessão aberta reserva uma unidade da capacidade do setor no ENTRY
+ * (CAS no contador do setor, sem lock global) e devolve no EXIT. Carregados
+ * a partir de sectors.active_sessions, que é a contrapartida no banco.
+ */
+@Component
+public class SectorOccupancyRegistry {
+
+    private volatile List<Sector> sectors = List.of();
+    private volatile Map<Long, AtomicLong> allocatedBySector = Map.of();
+    private volatile boolean loaded;
+
+    public void load(List<Sector> sectors, Map<Long, Long> allocatedCounts) {
+        Map<Long, AtomicLong> counters = new HashMap<>();
+        for (Sector sector : sectors) {
+            counters.put(sector.getId(), new AtomicLong(allocatedCounts.getOrDefault(sector.getId(), 0L)));
+        }
+
+        this.allocatedBySector = counters;
+        this.sectors = List.copyOf(sectors);
+        this.loaded = true;
+    }
+
+    /**
+     * Troca os dados dos setores (capacidade) após uma carga de layout sem
+     * recriar os contadores: transações em andamento ainda vão incrementá-los
+     * ou devolvê-los. Setores novos começam sem sessões.
+     */
+    public synchronized void refresh(List<Sector> sectors) {
+        Map<Long, AtomicLong> counters = new HashMap<>(allocatedBySector);
+        for (Sector sector : sectors) {
+            counters.computeIfAbsent(sector.getId(), id -> new AtomicLong());
+        }
+
+        this.allocatedBySector = counters;
+        this.sectors = List.copyOf(sectors);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public List<Sector> getSectors() {
+        return sectors;
+    }
+
+    public long getAllocated(Sector sector) {
+        AtomicLong counter = allocatedBySector.get(sector.getId());
+        return counter != null ? counter.get() : 0L;
+    }
+
+    /**
+     * Reserva uma unidade da capacidade do setor. Retorna a lotação anterior
+     * à reserva, ou -1 se o setor estiver cheio. Desfeita em caso de rollback.
+     */
+    public long tryReserve(Sector sector) {
+        AtomicLong counter = allocatedBySector.get(sector.getId());
+        if (counter == null) {
+            return -1;
+        }
+
+        long current;
+        do {
+            current = counter.get();
+            if (current >= sector.getMaxCapacity()) {
+                return -1;
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+
+        TransactionCallbacks.onRollback(counter::decrementAndGet);
+        return current;
+    }
+
+    /**
+     * Desfaz imediatamente uma reserva que não chegou a ser usada. Em caso de
+     * rollback o incremento compensa a compensação registrada em tryReserve.
+     */
+    public void cancelReservation(Sector sector) {
+        AtomicLong counter = allocatedBySector.get(sector.getId());
+        if (counter == null) {
+            return;
+        }
+
+        counter.decrementAndGet();
+        TransactionCallbacks.onRollback(counter::incrementAndGet);
+    }
+
+    /**
+     * Devolve a capacidade só depois do commit, para que outra entrada não
+     * a ocupe enquanto a saída ainda pode ser desfeita.
+     */
+    public void release(Sector sector) {
+        AtomicLong counter = allocatedBySector.get(sector.getId());
+        if (counter == null) {
+            return;
+        }
+
+        TransactionCallbacks.afterCommit(counter::decrementAndGet);
+    }
+}
@@ -0,0 +1,229 @@
+package com.estapar.parking.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índice espacial (grade uniforme) das vagas livres de um setor.
+ * Permite encontrar a vaga livre mais próxima sem varrer todas as vagas,
+ * com remoção e reinserção conforme as vagas são ocupadas e liberadas.
+ *
+ * O tamanho da célula vem das vagas livres na criação. Um setor quase
+ * lotado na carga (ou novo) começaria com poucas vagas e a célula padrão,
+ * então a grade é refeita sempre que o índice passa do dobro das vagas
+ * usadas no último cálculo.
+ */
+public class SectorSpotIndex {
+
+    private static final double DEFAULT_CELL_SIZE = 0.0001;
+    private static final int TARGET_SPOTS_PER_CELL = 4;
+
+    private double cellSize;
+    private int sizedFor;
+    private final Map<Long, List<SpotPoint>> cells = new HashMap<>();
+    private final TreeMap<Long, SpotPoint> freeSpots = new TreeMap<>();
+
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    public SectorSpotIndex(Collection<SpotPoint> spots) {
+        this.cellSize = computeCellSize(spots);
+        this.sizedFor = spots.size();
+        for (SpotPoint spot : spots) {
+            add(spot);
+        }
+    }
+
+    public synchronized void add(SpotPoint spot) {
+        if (freeSpots.putIfAbsent(spot.id(), spot) != null) {
+            return;
+        }
+
+        if (freeSpots.size() > 2 * sizedFor) {
+            regrid();
+        } else {
+            addToCell(spot);
+        }
+    }
+
+    private void regrid() {
+        cellSize = computeCellSize(freeSpots.values());
+        sizedFor = freeSpots.size();
+        cells.clear();
+        minCellX = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+        for (SpotPoint spot : freeSpots.values()) {
+            addToCell(spot);
+        }
+    }
+
+    private void addToCell(SpotPoint spot) {
+        int cellX = cellOf(spot.lat());
+        int cellY = cellOf(spot.lng());
+        cells.computeIfAbsent(cellKey(cellX, cellY), k -> new ArrayList<>(TARGET_SPOTS_PER_CELL)).add(spot);
+
+        minCellX = Math.min(minCellX, cellX);
+        maxCellX = Math.max(maxCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    public synchronized boolean remove(long spotId) {
+        SpotPoint spot = freeSpots.remove(spotId);
+        if (spot == null) {
+            return false;
+        }
+
+        long key = cellKey(cellOf(spot.lat()), cellOf(spot.lng()));
+        List<SpotPoint> cell = cells.get(key);
+        cell.remove(spot);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Retira do índice a vaga livre mais próxima das coordenadas informadas.
+     * Sem coordenadas, retira a vaga livre de menor id.
+     */
+    public synchronized SpotPoint pollNearest(Double lat, Double lng) {
+        SpotPoint spot = (lat == null || lng == null) ? first() : nearest(lat, lng);
+        if (spot != null) {
+            remove(spot.id());
+        }
+        return spot;
+    }
+
+    public synchronized SpotPoint first() {
+        return freeSpots.isEmpty() ? null : freeSpots.firstEntry().getValue();
+    }
+
+    public synchronized SpotPoint nearest(double lat, double lng) {
+        if (freeSpots.isEmpty()) {
+            return null;
+        }
+
+        int queryX = cellOf(lat);
+        int queryY = cellOf(lng);
+
+        // Anel inicial: o primeiro que alcança o retângulo ocupado pela grade
+        int startRing = Math.max(
+            Math.max(minCellX - queryX, queryX - maxCellX),
+            Math.max(minCellY - queryY, queryY - maxCellY));
+        startRing = Math.max(startRing, 0);
+        int lastRing = Math.max(
+            Math.max(queryX - minCellX, maxCellX - queryX),
+            Math.max(queryY - minCellY, maxCellY - queryY));
+
+        SpotPoint best = null;
+        double bestDistance = Double.MAX_VALUE;
+
+        for (int ring = startRing; ring <= lastRing; ring++) {
+            int fromX = Math.max(queryX - ring, minCellX);
+            int toX = Math.min(queryX + ring, maxCellX);
+            int fromY = Math.max(queryY - ring, minCellY);
+            int toY = Math.min(queryY + ring, maxCellY);
+
+            for (int x = fromX; x <= toX; x++) {
+                if (queryY - ring >= minCellY) {
+                    best = closest(cells.get(cellKey(x, queryY - ring)), lat, lng, best);
+                }
+                if (ring > 0 && queryY + ring <= maxCellY) {
+                    best = closest(cells.get(cellKey(x, queryY + ring)), lat, lng, best);
+                }
+            }
+            for (int y = Math.max(fromY, queryY - ring + 1); y <= Math.min(toY, queryY + ring - 1); y++) {
+                if (queryX - ring >= minCellX) {
+                    best = closest(cells.get(cellKey(queryX - ring, y)), lat, lng, best);
+                }
+                if (ring > 0 && queryX + ring <= maxCellX) {
+                    best = closest(cells.get(cellKey(queryX + ring, y)), lat, lng, best);
+                }
+            }
+
+            if (best != null) {
+                bestDistance = distance(best, lat, lng);
+                // Qualquer vaga fora dos anéis visitados está a mais de ring * cellSize
+                if (bestDistance <= ring * cellSize) {
+                    break;
+                }
+            }
+        }
+
+        return best;
+    }
+
+    public synchronized int size() {
+        return freeSpots.size();
+    }
+
+    synchronized double cellSize() {
+        return cellSize;
+    }
+
+    private SpotPoint closest(List<SpotPoint> cell, double lat, double lng, SpotPoint best) {
+        if (cell == null) {
+            return best;
+        }
+
+        double bestDistance = best != null ? distance(best, lat, lng) : Double.MAX_VALUE;
+        for (SpotPoint spot : cell) {
+            double distance = distance(spot, lat, lng);
+            if (distance < bestDistance || (distance == bestDistance && best != null && spot.id() < best.id())) {
+                best = spot;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static double distance(SpotPoint spot, double lat, double lng) {
+        double dLat = lat - spot.lat();
+        double dLng = lng - spot.lng();
+        return Math.sqrt(dLat * dLat + dLng * dLng);
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static double computeCellSize(Collection<SpotPoint> spots) {
+        if (spots.size() < 2) {
+            return DEFAULT_CELL_SIZE;
+        }
+
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+        for (SpotPoint spot : spots) {
+            minLat = Math.min(minLat, spot.lat());
+            maxLat = Math.max(maxLat, spot.lat());
+            minLng = Math.min(minLng, spot.lng());
+            maxLng = Math.max(maxLng, spot.lng());
+        }
+
+        double width = maxLat - minLat;
+        double height = maxLng - minLng;
+        double cellsNeeded = (double) spots.size() / TARGET_SPOTS_PER_CELL;
+
+        double size = (width > 0 && height > 0)
+            ? Math.sqrt(width * height / cellsNeeded)
+            : Math.max(width, height) / cellsNeeded;
+
+        return size > 0 ? size : DEFAULT_CELL_SIZE;
+    }
+
+    public record SpotPoint(long id, double lat, double lng) {}
+}
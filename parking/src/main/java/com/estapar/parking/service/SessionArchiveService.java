@@ -0,0 +1,238 @@
+package com.estapar.parking.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Manutenção das partições mensais de parking_sessions (ver V13): cria os meses
+ * seguintes a partir de p_future e move as sessões encerradas dos meses fora da
+ * retenção para parking_sessions_archive, removendo a partição quando esvazia.
+ * Sessões ainda abertas numa partição antiga ficam nela até saírem.
+ */
+@Service
+public class SessionArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionArchiveService.class);
+
+    static final String FUTURE_PARTITION = "p_future";
+
+    private static final String LOCK_NAME = "parking_sessions_archive";
+
+    private static final String COLUMNS = "id, license_plate, spot_id, sector_id, entry_time, exit_time, " +
+        "applied_price, total_price, final_amount, parked_time, status, created_at, updated_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${parking.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${parking.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${parking.archive.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${parking.archive.batch-size:5000}")
+    private int batchSize;
+
+    record Partition(String name, Long upperBound) {
+        boolean isFuture() {
+            return upperBound == null;
+        }
+    }
+
+    @Scheduled(cron = "${parking.archive.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        // Trava nomeada no MySQL: com várias instâncias, só uma faz a manutenção
+        try (Connection lock = dataSource.getConnection()) {
+            if (!acquire(lock)) {
+                log.info("Archive skipped: another instance holds the lock");
+                return;
+            }
+            try {
+                ensureFuturePartitions();
+                archive();
+            } finally {
+                release(lock);
+            }
+        } catch (SQLException e) {
+            log.error("Archive failed", e);
+        }
+    }
+
+    /** Garante partições mensais até parking.archive.months-ahead meses à frente. */
+    public void ensureFuturePartitions() {
+        List<Partition> partitions = listPartitions();
+        String statement = reorganizeStatement(partitions, YearMonth.now().plusMonths(monthsAhead));
+        if (statement != null) {
+            log.info("Adding partitions: {}", statement);
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    /** Arquiva as partições inteiramente anteriores ao corte e retorna o número de sessões movidas. */
+    public long archive() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        long cutoffBound = boundOf(cutoff.minusMonths(1));
+        long moved = 0;
+        for (Partition partition : expiredPartitions(listPartitions(), cutoffBound)) {
+            moved += archivePartition(partition.name());
+        }
+        return moved;
+    }
+
+    long archivePartition(String partition) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long moved = 0;
+        int chunk;
+        do {
+            chunk = transaction.execute(status -> moveChunk(partition));
+            moved += chunk;
+        } while (chunk == batchSize);
+
+        Boolean empty = jdbcTemplate.queryForObject(
+            "SELECT NOT EXISTS (SELECT 1 FROM parking_sessions PARTITION (" + partition + "))", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            jdbcTemplate.execute("ALTER TABLE parking_sessions DROP PARTITION " + partition);
+            log.info("ARCHIVED partition={} sessions={} dropped=true", partition, moved);
+        } else {
+            log.info("ARCHIVED partition={} sessions={} dropped=false (open sessions remain)", partition, moved);
+        }
+        return moved;
+    }
+
+    private int moveChunk(String partition) {
+        List<Long> ids = jdbcTemplate.queryForList(
+            "SELECT id FROM parking_sessions PARTITION (" + partition + ") " +
+            "WHERE exit_time IS NOT NULL ORDER BY id LIMIT ?", Long.class, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> parameters = Map.of("ids", ids);
+        namedParameterJdbcTemplate.update(
+            "INSERT INTO parking_sessions_archive (" + COLUMNS + ") " +
+            "SELECT " + COLUMNS + " FROM parking_sessions PARTITION (" + partition + ") WHERE id IN (:ids)",
+            parameters);
+        namedParameterJdbcTemplate.update(
+            "DELETE FROM parking_sessions PARTITION (" + partition + ") WHERE id IN (:ids)", parameters);
+        return ids.size();
+    }
+
+    private List<Partition> listPartitions() {
+        return jdbcTemplate.query(
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'parking_sessions' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION",
+            (rs, rowNum) -> {
+                String description = rs.getString(2);
+                return new Partition(rs.getString(1),
+                    "MAXVALUE".equals(description) ? null : Long.valueOf(description));
+            });
+    }
+
+    /** Limite superior (UNIX_TIMESTAMP no fuso da sessão do MySQL, como em V13) da partição do mês. */
+    private long boundOf(YearMonth month) {
+        return jdbcTemplate.queryForObject("SELECT UNIX_TIMESTAMP(?)", Long.class,
+            month.plusMonths(1).atDay(1) + " 00:00:00");
+    }
+
+    /** Partições mensais cujo limite superior não passa do corte; p_future nunca é arquivada. */
+    static List<Partition> expiredPartitions(List<Partition> partitions, long cutoffBound) {
+        List<Partition> expired = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (!partition.isFuture() && partition.upperBound() <= cutoffBound) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Divide p_future em meses até {@code until}, inclusive. Retorna null se a
+     * tabela não estiver particionada ou se os meses já existirem.
+     */
+    static String reorganizeStatement(List<Partition> partitions, YearMonth until) {
+        if (partitions.isEmpty() || !partitions.get(partitions.size() - 1).isFuture()) {
+            return null;
+        }
+        YearMonth last = null;
+        for (Partition partition : partitions) {
+            if (!partition.isFuture()) {
+                last = monthOf(partition.name());
+            }
+        }
+        YearMonth next = last == null ? YearMonth.now() : last.plusMonths(1);
+        if (next.isAfter(until)) {
+            return null;
+        }
+        StringJoiner months = new StringJoiner(", ");
+        for (YearMonth month = next; !month.isAfter(until); month = month.plusMonths(1)) {
+            months.add(partitionDefinition(month));
+        }
+        months.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return "ALTER TABLE parking_sessions REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" + months + ")";
+    }
+
+    static String partitionDefinition(YearMonth month) {
+        return String.format("PARTITION %s VALUES LESS THAN (UNIX_TIMESTAMP('%s 00:00:00'))",
+            partitionName(month), month.plusMonths(1).atDay(1));
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("p%d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)),
+            Integer.parseInt(partitionName.substring(5, 7)));
+    }
+
+    private static boolean acquire(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void release(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import com.estapar.parking.repository.SpotLocation;
+import com.estapar.parking.repository.SpotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tráfego sintético (perfil simulator): cada veículo envia ENTRY, PARKED e
+ * EXIT para POST /webhook, com as coordenadas de uma vaga real do banco e
+ * permanência de 5 a 240 minutos. As entradas são espaçadas de 1 s no tempo
+ * do evento a partir do início da execução; o envio é tão rápido quanto
+ * {@code concurrency} threads permitirem. Uma execução por vez.
+ */
+@Service
+@Profile("simulator")
+public class SimulatorTrafficService {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulatorTrafficService.class);
+
+    public static final int MAX_VEHICLES = 500_000;
+    public static final int MAX_CONCURRENCY = 256;
+
+    @Autowired
+    private SpotRepository spotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${parking.simulator.webhook-url:http://localhost:3003/webhook}")
+    private String webhookUrl = "http://localhost:3003/webhook";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    public record TrafficStatus(boolean running, int vehicles, int completed, long eventsSent, long eventsFailed,
+                                long elapsedMs) {}
+
+    private static final class Run {
+        final int vehicles;
+        final long startedAt = System.nanoTime();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile long finishedAt;
+
+        Run(int vehicles) {
+            this.vehicles = vehicles;
+        }
+
+        boolean running() {
+            return finishedAt == 0;
+        }
+
+        TrafficStatus status() {
+            long end = running() ? System.nanoTime() : finishedAt;
+            return new TrafficStatus(running(), vehicles, completed.get(), sent.get(), failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(end - startedAt));
+        }
+    }
+
+    public static boolean isValid(int vehicles, int concurrency) {
+        return vehicles >= 1 && vehicles <= MAX_VEHICLES && concurrency >= 1 && concurrency <= MAX_CONCURRENCY;
+    }
+
+    /** Inicia uma execução em segundo plano; vazio se já houver uma em andamento. */
+    public synchronized Optional<TrafficStatus> start(int vehicles, int concurrency, long seed) {
+        Run previous = current.get();
+        if (previous != null && previous.running()) {
+            return Optional.empty();
+        }
+
+        List<SpotLocation> spots = spotRepository.findSpotLocations();
+        if (spots.isEmpty()) {
+            throw new IllegalStateException("No spots loaded; bootstrap the garage layout first");
+        }
+
+        Run run = new Run(vehicles);
+        current.set(run);
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "simulator-traffic-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int vehicle = 0; vehicle < vehicles; vehicle++) {
+            int index = vehicle;
+            executor.execute(() -> vehicle(run, index, seed, start, spots));
+        }
+        executor.shutdown();
+
+        Thread.ofPlatform().daemon().name("simulator-traffic-monitor").start(() -> {
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            run.finishedAt = System.nanoTime();
+            TrafficStatus status = run.status();
+            log.info("Simulated traffic finished: vehicles={} eventsSent={} eventsFailed={} elapsedMs={}",
+                status.vehicles(), status.eventsSent(), status.eventsFailed(), status.elapsedMs());
+        });
+
+        log.info("Simulated traffic started: vehicles={} concurrency={} seed={} target={}",
+            vehicles, concurrency, seed, webhookUrl);
+        return Optional.of(run.status());
+    }
+
+    /** Situação da execução atual ou da última; vazio se nenhuma foi iniciada. */
+    public Optional<TrafficStatus> status() {
+        return Optional.ofNullable(current.get()).map(Run::status);
+    }
+
+    private void vehicle(Run run, int index, long seed, LocalDateTime start, List<SpotLocation> spots) {
+        Random random = new Random(seed * 31 + index);
+        String plate = String.format("SIM%06d", index);
+        SpotLocation spot = spots.get(random.nextInt(spots.size()));
+        LocalDateTime entryTime = start.plusSeconds(index);
+        LocalDateTime exitTime = entryTime.plusMinutes(5 + random.nextInt(236));
+
+        WebhookEventDTO entry = event("ENTRY", plate);
+        entry.setEntryTime(entryTime);
+
+        WebhookEventDTO parked = event("PARKED", plate);
+        parked.setLat(BigDecimal.valueOf(spot.getLatitude()));
+        parked.setLng(BigDecimal.valueOf(spot.getLongitude()));
+
+        WebhookEventDTO exit = event("EXIT", plate);
+        exit.setExitTime(exitTime);
+
+        // PARKED e EXIT sem ENTRY aceito só gerariam 404
+        if (send(run, entry)) {
+            send(run, parked);
+            send(run, exit);
+        }
+        run.completed.incrementAndGet();
+    }
+
+    private boolean send(Run run, WebhookEventDTO event) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            restTemplate.postForEntity(webhookUrl, new HttpEntity<>(objectMapper.writeValueAsString(event), headers),
+                Void.class);
+            run.sent.incrementAndGet();
+            return true;
+        } catch (RestClientException | JsonProcessingException e) {
+            run.failed.incrementAndGet();
+            log.debug("Simulated {} for {} failed: {}", event.getEventType(), event.getLicensePlate(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static WebhookEventDTO event(String type, String plate) {
+        WebhookEventDTO event = new WebhookEventDTO();
+        event.setEventType(type);
+        event.setLicensePlate(plate);
+        return event;
+    }
+}
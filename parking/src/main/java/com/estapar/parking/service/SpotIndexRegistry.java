@@ -0,0 +1,94 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.model.Spot;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mantém um {@link SectorSpotIndex} por setor com as vagas livres.
+ * A retirada de uma vaga vale imediatamente (desfeita em caso de rollback);
+ * a devolução só acontece após o commit da liberação.
+ */
+@Component
+public class SpotIndexRegistry {
+
+    private volatile Map<Long, SectorSpotIndex> indexBySector = Map.of();
+    private volatile boolean loaded;
+
+    public void load(Map<Long, List<SpotPoint>> freeSpotsBySector) {
+        Map<Long, SectorSpotIndex> indexes = new HashMap<>();
+        freeSpotsBySector.forEach((sectorId, spots) -> indexes.put(sectorId, new SectorSpotIndex(spots)));
+
+        this.indexBySector = indexes;
+        this.loaded = true;
+    }
+
+    /**
+     * Aplica as vagas inseridas ou alteradas por uma carga de layout nos
+     * índices em uso, sem recriá-los: retiradas e devoluções de transações em
+     * andamento continuam valendo. Uma vaga alterada só volta ao índice (no
+     * setor e posição novos) se estava livre; vagas inseridas entram livres.
+     */
+    public synchronized void refresh(List<Sector> sectors, Map<Long, List<SpotPoint>> changedSpotsBySector,
+                                     Set<Long> insertedSpotIds) {
+        Map<Long, SectorSpotIndex> indexes = new HashMap<>(indexBySector);
+        for (Sector sector : sectors) {
+            indexes.computeIfAbsent(sector.getId(), id -> new SectorSpotIndex(List.of()));
+        }
+
+        changedSpotsBySector.forEach((sectorId, spots) -> {
+            SectorSpotIndex target = indexes.computeIfAbsent(sectorId, id -> new SectorSpotIndex(List.of()));
+            for (SpotPoint spot : spots) {
+                boolean free = insertedSpotIds.contains(spot.id());
+                for (SectorSpotIndex index : indexes.values()) {
+                    free |= index.remove(spot.id());
+                }
+                if (free) {
+                    target.add(spot);
+                }
+            }
+        });
+
+        this.indexBySector = indexes;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Long claimNearest(Sector sector, Double lat, Double lng) {
+        SectorSpotIndex index = indexBySector.get(sector.getId());
+        if (index == null) {
+            return null;
+        }
+
+        SpotPoint spot = index.pollNearest(lat, lng);
+        if (spot == null) {
+            return null;
+        }
+
+        TransactionCallbacks.onRollback(() -> index.add(spot));
+        return spot.id();
+    }
+
+    public void release(Sector sector, Spot spot) {
+        SectorSpotIndex index = indexBySector.get(sector.getId());
+        if (index == null) {
+            return;
+        }
+
+        SpotPoint point = new SpotPoint(spot.getId(), spot.getLatitude(), spot.getLongitude());
+        TransactionCallbacks.afterCommit(() -> index.add(point));
+    }
+
+    public int countFree(Sector sector) {
+        SectorSpotIndex index = indexBySector.get(sector.getId());
+        return index != null ? index.size() : 0;
+    }
+}
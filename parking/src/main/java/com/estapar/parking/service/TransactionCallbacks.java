@@ -0,0 +1,71 @@
+package com.estapar.parking.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilitário para manter estruturas em memória coerentes com o banco.
+ * Reservas são aplicadas imediatamente e desfeitas se a transação sofrer
+ * rollback; liberações só são aplicadas após o commit. Fora de transação,
+ * a ação é aplicada na hora.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Como {@link #afterCommit}, mas registra a ação uma única vez por
+     * transação para a mesma chave (ex.: milhares de vagas gravadas em lote).
+     */
+    static void afterCommitOnce(Object key, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(key)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(key, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            }
+        });
+    }
+}
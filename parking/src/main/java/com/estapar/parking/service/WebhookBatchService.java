@@ -0,0 +1,146 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import com.estapar.parking.dto.WebhookEventResultDTO;
+import com.estapar.parking.exception.ParkingFullException;
+import com.estapar.parking.exception.VehicleAlreadyParkedException;
+import com.estapar.parking.exception.VehicleNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Processa lotes de eventos de webhook na ordem recebida, agrupando-os em
+ * poucas transações. Erros de negócio (409/404) não desfazem o grupo; um
+ * erro inesperado desfaz o grupo, que é então reprocessado evento a evento.
+ */
+@Service
+public class WebhookBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookBatchService.class);
+    
+    @Autowired
+    private ParkingService parkingService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ParkingMetrics parkingMetrics;
+    
+    @Autowired
+    private WebhookDeduplicator webhookDeduplicator;
+    
+    @Value("${parking.webhook.batch.chunk-size:100}")
+    private int chunkSize = 100;
+    
+    public List<WebhookEventResultDTO> processBatch(List<WebhookEventDTO> events) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<WebhookEventResultDTO> results = new ArrayList<>(events.size());
+        
+        for (int start = 0; start < events.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, events.size());
+            int offset = start;
+            
+            try {
+                results.addAll(transaction.execute(status -> processChunk(events.subList(offset, end), offset)));
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk [{}, {}) rolled back, retrying one by one: {}", start, end, e.getMessage());
+                for (int i = start; i < end; i++) {
+                    results.add(processSingle(events.get(i), i));
+                }
+            }
+        }
+        
+        return results;
+    }
+    
+    private List<WebhookEventResultDTO> processChunk(List<WebhookEventDTO> chunk, int offset) {
+        List<WebhookEventResultDTO> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            WebhookEventDTO event = chunk.get(i);
+            results.add(result(event, offset + i, timedDispatch(event)));
+        }
+        return results;
+    }
+    
+    private WebhookEventResultDTO processSingle(WebhookEventDTO event, int index) {
+        try {
+            return result(event, index, timedDispatch(event));
+        } catch (Exception e) {
+            return result(event, index, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    private HttpStatus timedDispatch(WebhookEventDTO event) {
+        ParkingMetrics.Sample sample = parkingMetrics.start();
+        try {
+            HttpStatus status = dispatch(event, "batch");
+            parkingMetrics.stop(sample, "batch", event.getEventType(), status, null);
+            return status;
+        } catch (RuntimeException e) {
+            parkingMetrics.stop(sample, "batch", event.getEventType(), HttpStatus.INTERNAL_SERVER_ERROR, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Aplica um evento e devolve o status HTTP equivalente ao do endpoint
+     * individual, inclusive para reenvios (ver WebhookDeduplicator). source
+     * identifica a origem nas métricas (batch/queue).
+     * Exceções inesperadas são propagadas.
+     */
+    HttpStatus dispatch(WebhookEventDTO event, String source) {
+        String eventType = event.getEventType();
+        if (webhookDeduplicator.isDuplicate(event)) {
+            parkingMetrics.recordDuplicate(source, eventType);
+            return HttpStatus.OK;
+        }
+        
+        try {
+            if ("ENTRY".equals(eventType)) {
+                parkingService.handleEntry(event);
+            } else if ("PARKED".equals(eventType)) {
+                parkingService.handleParked(event);
+            } else if ("EXIT".equals(eventType)) {
+                parkingService.handleExit(event);
+            } else {
+                return HttpStatus.BAD_REQUEST;
+            }
+            
+            return HttpStatus.OK;
+            
+        } catch (DuplicateKeyException e) {
+            webhookDeduplicator.remember(event);
+            parkingMetrics.recordDuplicate(source, eventType);
+            return HttpStatus.OK;
+        } catch (ParkingFullException | VehicleAlreadyParkedException e) {
+            return rejected(event, HttpStatus.CONFLICT, source);
+        } catch (VehicleNotFoundException e) {
+            return rejected(event, HttpStatus.NOT_FOUND, source);
+        } finally {
+            LogContext.clear();
+        }
+    }
+    
+    private HttpStatus rejected(WebhookEventDTO event, HttpStatus status, String source) {
+        if (webhookDeduplicator.wasProcessed(event)) {
+            parkingMetrics.recordDuplicate(source, event.getEventType());
+            return HttpStatus.OK;
+        }
+        return status;
+    }
+    
+    private WebhookEventResultDTO result(WebhookEventDTO event, int index, HttpStatus status) {
+        return new WebhookEventResultDTO(index, event.getLicensePlate(), event.getEventType(), status.value());
+    }
+}
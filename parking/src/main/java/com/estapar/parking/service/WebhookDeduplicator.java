@@ -0,0 +1,181 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconhece webhooks reenviados pelas cancelas após timeout.
+ *
+ * A chave é o event_id do cliente ou, sem ele, um hash de placa, tipo e
+ * horário do evento; PARKED não traz horário e só é deduplicado com event_id.
+ * Eventos aplicados com sucesso ficam numa janela em memória, limitada em
+ * tamanho e tempo, consultada antes do ParkingService. A chave também é
+ * gravada em processed_webhook_events na transação do evento: após um restart,
+ * ou vindo de outra instância, o reenvio que esbarra em 409/404 (ou na PK) é
+ * reconhecido pela tabela e responde com o resultado original.
+ */
+@Component
+public class WebhookDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDeduplicator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${parking.webhook.dedup.window-seconds:600}")
+    private long windowSeconds = 600;
+
+    @Value("${parking.webhook.dedup.max-entries:100000}")
+    private int maxEntries = 100_000;
+
+    @Value("${parking.webhook.dedup.retention-hours:48}")
+    private int retentionHours = 48;
+
+    // Chave -> instante (nanoTime) em que deixa de valer; a fila guarda a ordem de inserção
+    private final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /** Chave de idempotência do evento, ou null se ele não tiver uma. */
+    public String keyOf(WebhookEventDTO event) {
+        if (event.getEventId() != null && !event.getEventId().isBlank()) {
+            return sha256("id|" + event.getEventId());
+        }
+
+        LocalDateTime timestamp;
+        if ("ENTRY".equals(event.getEventType())) {
+            timestamp = event.getEntryTime();
+        } else if ("EXIT".equals(event.getEventType())) {
+            timestamp = event.getExitTime();
+        } else {
+            return null;
+        }
+        if (timestamp == null || event.getLicensePlate() == null) {
+            return null;
+        }
+        return sha256(event.getEventType() + '|' + event.getLicensePlate() + '|' + timestamp);
+    }
+
+    /** O evento foi aplicado dentro da janela em memória? Não consulta o banco. */
+    public boolean isDuplicate(WebhookEventDTO event) {
+        String key = keyOf(event);
+        if (key == null) {
+            return false;
+        }
+        Long expiry = expiresAt.get(key);
+        return expiry != null && expiry - System.nanoTime() > 0;
+    }
+
+    /**
+     * Consulta a janela em memória e, na falta, processed_webhook_events.
+     * Usado quando o evento foi rejeitado com 409/404, para distinguir um
+     * reenvio de um evento realmente inválido.
+     */
+    public boolean wasProcessed(WebhookEventDTO event) {
+        String key = keyOf(event);
+        if (key == null) {
+            return false;
+        }
+        if (isDuplicate(event)) {
+            return true;
+        }
+        Boolean stored = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM processed_webhook_events WHERE idempotency_key = ?)", Boolean.class, key);
+        if (Boolean.TRUE.equals(stored)) {
+            remember(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Grava a chave na transação corrente; entra na janela em memória após o
+     * commit. Se o mesmo evento já foi gravado, a PK lança DuplicateKeyException
+     * e a transação do reenvio é desfeita.
+     */
+    public void record(WebhookEventDTO event) {
+        String key = keyOf(event);
+        if (key == null) {
+            return;
+        }
+        jdbcTemplate.update(
+            "INSERT INTO processed_webhook_events (idempotency_key, event_type, license_plate) VALUES (?, ?, ?)",
+            key, event.getEventType(), event.getLicensePlate());
+        TransactionCallbacks.afterCommit(() -> remember(key));
+    }
+
+    /** Registra na janela em memória um evento que outra transação gravou. */
+    public void remember(WebhookEventDTO event) {
+        String key = keyOf(event);
+        if (key != null) {
+            remember(key);
+        }
+    }
+
+    public int size() {
+        return expiresAt.size();
+    }
+
+    private void remember(String key) {
+        long now = System.nanoTime();
+        if (expiresAt.put(key, now + TimeUnit.SECONDS.toNanos(windowSeconds)) == null) {
+            insertionOrder.add(key);
+        }
+        evict(now);
+    }
+
+    // A fila está em ordem de expiração: remove da cabeça os vencidos e o excesso
+    private void evict(long now) {
+        String head;
+        while ((head = insertionOrder.peek()) != null) {
+            Long expiry = expiresAt.get(head);
+            if (expiry != null && expiry - now > 0 && expiresAt.size() <= maxEntries) {
+                return;
+            }
+            if (insertionOrder.remove(head)) {
+                expiresAt.remove(head);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${parking.webhook.dedup.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        int deleted;
+        int total = 0;
+        do {
+            deleted = jdbcTemplate.update(
+                "DELETE FROM processed_webhook_events WHERE processed_at < ? LIMIT 10000", before);
+            total += deleted;
+        } while (deleted == 10_000);
+        if (total > 0) {
+            log.info("Purged {} processed webhook keys older than {}h", total, retentionHours);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
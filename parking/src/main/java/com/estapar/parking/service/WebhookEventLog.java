@@ -0,0 +1,89 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import com.estapar.parking.model.ParkingSession;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Registro append-only dos eventos de webhook aplicados (webhook_events, V15).
+ *
+ * Cada linha guarda o evento recebido e o efeito dele (sessão, setor e vaga),
+ * para que a recuperação não precise refazer preço nem escolha de vaga.
+ * Gravado pelo ParkingService na transação do evento: só entra no registro o
+ * que foi de fato aplicado.
+ */
+@Component
+public class WebhookEventLog {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${parking.event-log.enabled:true}")
+    private boolean enabled = true;
+
+    public record LoggedEvent(long id, String eventType, String licensePlate, long sessionId, long sectorId, Long spotId) {}
+
+    public void append(WebhookEventDTO event, ParkingSession session) {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime eventTime = "EXIT".equals(event.getEventType()) ? event.getExitTime() : event.getEntryTime();
+        jdbcTemplate.update(
+            "INSERT INTO webhook_events (event_type, license_plate, session_id, sector_id, spot_id, event_time, payload) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            event.getEventType(),
+            session.getLicensePlate(),
+            session.getId(),
+            session.getSector().getId(),
+            session.getSpot() != null ? session.getSpot().getId() : null,
+            eventTime != null ? Timestamp.valueOf(eventTime) : null,
+            toJson(event));
+    }
+
+    /** Eventos registrados a partir de {@code since}, na ordem de gravação. */
+    public List<LoggedEvent> readSince(Timestamp since) {
+        return jdbcTemplate.query(
+            "SELECT id, event_type, license_plate, session_id, sector_id, spot_id FROM webhook_events " +
+            "WHERE recorded_at >= ? ORDER BY id",
+            (rs, rowNum) -> new LoggedEvent(
+                rs.getLong("id"),
+                rs.getString("event_type"),
+                rs.getString("license_plate"),
+                rs.getLong("session_id"),
+                rs.getLong("sector_id"),
+                rs.getObject("spot_id", Long.class)),
+            since);
+    }
+
+    /** Remove eventos gravados antes de {@code before}, em lotes. */
+    public int purgeBefore(Timestamp before) {
+        int deleted;
+        int total = 0;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM webhook_events WHERE recorded_at < ? LIMIT 10000", before);
+            total += deleted;
+        } while (deleted == 10_000);
+        return total;
+    }
+
+    private String toJson(WebhookEventDTO event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize webhook event", e);
+        }
+    }
+}
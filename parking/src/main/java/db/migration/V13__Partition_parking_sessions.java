@@ -0,0 +1,78 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.StringJoiner;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * V13: Particiona parking_sessions por mês de entrada.
+ *
+ * exit_time é nulo enquanto a sessão está aberta e por isso não pode fazer parte
+ * da chave primária; a partição usa entry_time, e a chave passa a ser
+ * (id, entry_time). O MySQL não aceita FKs em tabelas particionadas, então as
+ * duas FKs de V3 são removidas (os índices de spot_id e sector_id continuam).
+ *
+ * Custo aceito: busca e UPDATE só por id (findById/save do JPA em PARKED e EXIT)
+ * não têm poda de partição e fazem uma busca na chave primária de cada
+ * partição. Não é varredura de linhas, e o número de partições fica limitado
+ * (parking.archive.retention-months + 3 meses à frente + p_future, cerca de 11
+ * no padrão), porque o SessionArchiveService remove as partições antigas.
+ * Carregar entry_time em cada busca e UPDATE exigiria uma chave composta
+ * na entidade e no cache de sessões ativas. O DELETE do arquivamento
+ * já indica a partição explicitamente.
+ *
+ * Integridade no lugar das FKs: setores e vagas nunca são removidos (a carga
+ * do layout só insere e atualiza). O ENTRY usa um setor carregado do banco,
+ * e o PARKED só atribui uma vaga cujo claim (UPDATE condicional) afetou a
+ * linha. O ParkingStateInitializer confere na inicialização se as sessões
+ * abertas apontam para setores e vagas existentes e registra as que não apontam.
+ *
+ * As partições vão do mês da sessão mais antiga até três meses à frente, mais
+ * p_future; o SessionArchiveService cria os meses seguintes e remove os antigos.
+ * Migração em Java porque os nomes das partições dependem dos dados existentes.
+ */
+public class V13__Partition_parking_sessions extends BaseJavaMigration {
+
+    private static final int MONTHS_AHEAD = 3;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        YearMonth first = YearMonth.now();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(entry_time) FROM parking_sessions")) {
+            Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+            if (oldest != null) {
+                first = YearMonth.from(oldest.toLocalDateTime());
+            }
+        }
+
+        StringJoiner partitions = new StringJoiner(",\n    ", "(\n    ", "\n)");
+        for (YearMonth month = first; !month.isAfter(YearMonth.now().plusMonths(MONTHS_AHEAD)); month = month.plusMonths(1)) {
+            partitions.add(partition(month));
+        }
+        partitions.add("PARTITION p_future VALUES LESS THAN (MAXVALUE)");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE parking_sessions " +
+                              "DROP FOREIGN KEY fk_parking_session_spot, " +
+                              "DROP FOREIGN KEY fk_parking_session_sector");
+            statement.execute("ALTER TABLE parking_sessions " +
+                              "DROP PRIMARY KEY, ADD PRIMARY KEY (id, entry_time)");
+            statement.execute("ALTER TABLE parking_sessions " +
+                              "PARTITION BY RANGE (UNIX_TIMESTAMP(entry_time)) " + partitions);
+        }
+    }
+
+    /** Mesmo formato usado pelo SessionArchiveService: pAAAAMM, limite no 1º dia do mês seguinte. */
+    static String partition(YearMonth month) {
+        return String.format("PARTITION p%d%02d VALUES LESS THAN (UNIX_TIMESTAMP('%s 00:00:00'))",
+            month.getYear(), month.getMonthValue(), month.plusMonths(1).atDay(1));
+    }
+}
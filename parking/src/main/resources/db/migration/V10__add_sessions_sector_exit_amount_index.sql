@@ -0,0 +1,5 @@
+-- V10: Índice de cobertura para o faturamento por setor e intervalo de saída
+CREATE INDEX idx_sessions_sector_exit_amount ON parking_sessions (sector_id, exit_time, final_amount);
+
+-- Redundante: o novo índice começa por sector_id e atende a FK
+DROP INDEX idx_sector_id ON parking_sessions;
@@ -0,0 +1,15 @@
+-- V11: Ids gerados em blocos (pooled) por uma tabela, no lugar de AUTO_INCREMENT,
+-- para que o Hibernate consiga agrupar INSERTs em lotes JDBC.
+-- gen_value é o limite superior do próximo bloco; a carga inicial começa acima
+-- do maior id existente (bloco de 10 para setores, 50 para vagas e sessões).
+CREATE TABLE id_generators (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    gen_value BIGINT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO id_generators (gen_name, gen_value)
+SELECT 'sectors', COALESCE(MAX(id), 0) + 11 FROM sectors
+UNION ALL
+SELECT 'spots', COALESCE(MAX(id), 0) + 51 FROM spots
+UNION ALL
+SELECT 'parking_sessions', COALESCE(MAX(id), 0) + 51 FROM parking_sessions;
@@ -0,0 +1,22 @@
+-- V12: Sessões encerradas há mais de parking.archive.retention-months meses,
+-- movidas de parking_sessions pelo SessionArchiveService. Tabela só de
+-- leitura (relatórios e recálculo do faturamento), compactada pelo InnoDB.
+CREATE TABLE parking_sessions_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    license_plate VARCHAR(20) NOT NULL,
+    spot_id BIGINT,
+    sector_id BIGINT NOT NULL,
+    entry_time TIMESTAMP NOT NULL,
+    exit_time TIMESTAMP NOT NULL,
+    applied_price DECIMAL(10,2) NULL,
+    total_price DECIMAL(10,2) NULL,
+    final_amount DECIMAL(10,2) NULL,
+    parked_time TIMESTAMP NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_archive_license_plate (license_plate),
+    INDEX idx_archive_sector_exit_amount (sector_id, exit_time, final_amount)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
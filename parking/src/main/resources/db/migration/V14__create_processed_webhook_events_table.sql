@@ -0,0 +1,12 @@
+-- V14: Eventos de webhook já aplicados, por chave de idempotência (event_id
+-- do cliente ou hash de placa + tipo + horário). Gravada na mesma transação do
+-- evento; a PK impede que um reenvio seja aplicado duas vezes. Linhas mais
+-- antigas que parking.webhook.dedup.retention-hours são removidas.
+CREATE TABLE processed_webhook_events (
+    idempotency_key CHAR(64) NOT NULL PRIMARY KEY,
+    event_type VARCHAR(10) NOT NULL,
+    license_plate VARCHAR(20) NOT NULL,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_processed_webhook_events_processed_at (processed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,27 @@
+-- V15: Registro dos eventos de webhook aplicados (um por ENTRY/PARKED/EXIT
+-- aceito, gravado na transação do evento) e fotografias periódicas das
+-- sessões abertas. Na recuperação, a última fotografia mais os eventos
+-- registrados depois dela reconstroem os índices em memória sem varrer
+-- parking_sessions.
+CREATE TABLE webhook_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(10) NOT NULL,
+    license_plate VARCHAR(20) NOT NULL,
+    session_id BIGINT NOT NULL,
+    sector_id BIGINT NOT NULL,
+    spot_id BIGINT NULL,
+    event_time TIMESTAMP NULL,
+    payload JSON NOT NULL,
+    recorded_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    INDEX idx_webhook_events_recorded_at (recorded_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE occupancy_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    taken_at TIMESTAMP(3) NOT NULL,
+    session_count INT NOT NULL,
+    payload LONGTEXT NOT NULL,
+
+    INDEX idx_occupancy_snapshots_taken_at (taken_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,10 @@
+-- V16: Checksum (SHA-256 do corpo) do último layout aplicado pelo
+-- GarageService a partir do simulador. Uma única linha (id = 1); na
+-- inicialização o valor vai em If-None-Match e um layout igual não é relido.
+CREATE TABLE garage_layout (
+    id TINYINT NOT NULL PRIMARY KEY,
+    checksum CHAR(64) NOT NULL,
+    sector_count INT NOT NULL,
+    spot_count INT NOT NULL,
+    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,13 @@
+-- V7: Contador de sessões abertas por setor (guarda de capacidade no banco)
+ALTER TABLE sectors ADD COLUMN active_sessions INT NOT NULL DEFAULT 0;
+
+-- Sessões abertas + vagas ocupadas sem sessão aberta (dados legados)
+UPDATE sectors s SET active_sessions =
+    (SELECT COUNT(*) FROM parking_sessions ps
+      WHERE ps.sector_id = s.id AND ps.exit_time IS NULL)
+  + (SELECT COUNT(*) FROM spots sp
+      WHERE sp.sector_id = s.id AND sp.occupied = TRUE
+        AND NOT EXISTS (SELECT 1 FROM parking_sessions ps
+                         WHERE ps.spot_id = sp.id AND ps.exit_time IS NULL));
+
+ALTER TABLE sectors ADD CONSTRAINT chk_sector_active_sessions CHECK (active_sessions >= 0);
@@ -0,0 +1,2 @@
+-- V8: Versão para controle otimista de concorrência na atribuição de vagas
+ALTER TABLE spots ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
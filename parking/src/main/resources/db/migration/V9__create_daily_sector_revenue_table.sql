@@ -0,0 +1,20 @@
+-- V9: Faturamento diário por setor, mantido a cada EXIT
+CREATE TABLE daily_sector_revenue (
+    revenue_date DATE NOT NULL,
+    sector_id BIGINT NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    session_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (revenue_date, sector_id),
+
+    CONSTRAINT fk_daily_revenue_sector FOREIGN KEY (sector_id)
+        REFERENCES sectors(id) ON DELETE RESTRICT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Carga inicial a partir das sessões já encerradas
+INSERT INTO daily_sector_revenue (revenue_date, sector_id, total_amount, session_count)
+SELECT DATE(exit_time), sector_id, SUM(final_amount), COUNT(*)
+  FROM parking_sessions
+ WHERE exit_time IS NOT NULL AND final_amount IS NOT NULL
+ GROUP BY DATE(exit_time), sector_id;
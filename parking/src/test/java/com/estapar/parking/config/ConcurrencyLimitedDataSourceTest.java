@@ -0,0 +1,172 @@
+package com.estapar.parking.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+@DisplayName("ConcurrencyLimitedDataSource Tests")
+class ConcurrencyLimitedDataSourceTest {
+
+    private DataSource target;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    @DisplayName("Deve recusar conexão quando o limite estiver esgotado")
+    void testGetConnection_LimitReached() throws Exception {
+        // Arrange
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, 50);
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (Connection ignored = dataSource.getConnection()) {
+                acquired.countDown();
+                done.await();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        acquired.await();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        done.countDown();
+        holder.join();
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Deve liberar a permissão ao fechar a conexão")
+    void testClose_ReleasesPermit() throws Exception {
+        // Arrange
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 2, 50);
+
+        // Act
+        Connection first = dataSource.getConnection();
+        int whileOpen = dataSource.availablePermits();
+        first.close();
+        first.close();
+
+        // Assert
+        assertEquals(1, whileOpen);
+        assertEquals(2, dataSource.availablePermits());
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    @DisplayName("Não deve consumir nova permissão para conexão aninhada na mesma thread")
+    void testGetConnection_NestedOnSameThread() throws Exception {
+        // Arrange
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, 50);
+
+        // Act
+        try (Connection outer = dataSource.getConnection();
+             Connection inner = dataSource.getConnection()) {
+            // Assert
+            assertEquals(0, dataSource.availablePermits());
+        }
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a permissão quando o pool falhar")
+    void testGetConnection_TargetFailure() throws Exception {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("pool down"));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, 50);
+
+        // Act & Assert
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.availablePermits());
+    }
+
+    /**
+     * Teste unitário do semáforo, não de carga: sem banco, sem HTTP e com
+     * latências simuladas, só mostra o comportamento do limite de conexões
+     * com cada tipo de thread. Números do serviço vêm do loadgen (readme).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "semaphoretest", matches = "true")
+    @DisplayName("Semáforo com latência simulada: pool de threads da plataforma x threads virtuais")
+    void semaphoreTest_PlatformVersusVirtualThreads() throws Exception {
+        // Requisição simulada: 50ms de I/O fora do banco + 1ms segurando a conexão
+        int requests = 40_000;
+        int maxConcurrent = 8;
+
+        run("platform(200)", () -> Executors.newFixedThreadPool(200), requests, maxConcurrent);
+        run("virtual", Executors::newVirtualThreadPerTaskExecutor, requests, maxConcurrent);
+    }
+
+    private void run(String mode, Supplier<ExecutorService> executorFactory, int requests, int maxConcurrent)
+            throws Exception {
+        // Sem mocks: a gravação de invocações do Mockito distorceria a medição
+        Connection plain = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> null);
+        DataSource pool = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {DataSource.class}, (proxy, method, args) -> plain);
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(pool, maxConcurrent, 60_000);
+        long[] latencies = new long[requests];
+        Future<?>[] futures = new Future<?>[requests];
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = executorFactory.get()) {
+            for (int i = 0; i < requests; i++) {
+                int request = i;
+                long submittedAt = System.nanoTime();
+                futures[i] = executor.submit(() -> {
+                    simulateRequest(dataSource);
+                    latencies[request] = System.nanoTime() - submittedAt;
+                    return null;
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-14s throughput=%.0f req/s p50=%.1f ms p99=%.1f ms%n",
+            mode,
+            requests / (elapsed / 1_000_000_000.0),
+            latencies[requests / 2] / 1_000_000.0,
+            latencies[(int) (requests * 0.99)] / 1_000_000.0);
+    }
+
+    private void simulateRequest(DataSource dataSource) throws Exception {
+        Thread.sleep(50);
+        try (Connection ignored = dataSource.getConnection()) {
+            Thread.sleep(1);
+        }
+    }
+}
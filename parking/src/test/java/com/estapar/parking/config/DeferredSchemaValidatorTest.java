@@ -0,0 +1,104 @@
+package com.estapar.parking.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeferredSchemaValidator Tests")
+class DeferredSchemaValidatorTest {
+
+    @Mock
+    private Flyway flyway;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private SchemaManager schemaManager;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    private DeferredSchemaValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new DeferredSchemaValidator(flyway, entityManagerFactory);
+    }
+
+    @Test
+    @DisplayName("Deve validar Flyway e Hibernate sem alterar a readiness")
+    void testValidate_Success() {
+        // Arrange
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getSchemaManager()).thenReturn(schemaManager);
+
+        // Act
+        boolean valid = validator.validate(publisher);
+
+        // Assert
+        assertTrue(valid);
+        verify(flyway).validate();
+        verify(schemaManager).validateMappedObjects();
+        verify(publisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Histórico do Flyway divergente deve recusar tráfego")
+    void testValidate_FlywayFailureRefusesTraffic() {
+        // Arrange
+        doThrow(new FlywayException("Migration checksum mismatch for migration version 3")).when(flyway).validate();
+
+        // Act
+        boolean valid = validator.validate(publisher);
+
+        // Assert
+        assertFalse(valid);
+        ArgumentCaptor<AvailabilityChangeEvent<?>> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertTrue(event.getValue().getState() == ReadinessState.REFUSING_TRAFFIC);
+        verify(entityManagerFactory, never()).unwrap(SessionFactory.class);
+    }
+
+    @Test
+    @DisplayName("Esquema divergente do mapeamento deve recusar tráfego")
+    void testValidate_HibernateFailureRefusesTraffic() {
+        // Arrange
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getSchemaManager()).thenReturn(schemaManager);
+        doThrow(new IllegalStateException("Schema-validation: missing column [version] in table [spots]"))
+            .when(schemaManager).validateMappedObjects();
+
+        // Act
+        boolean valid = validator.validate(publisher);
+
+        // Assert
+        assertFalse(valid);
+        verify(publisher).publishEvent(any(AvailabilityChangeEvent.class));
+    }
+}
@@ -1,16 +1,27 @@
 package com.estapar.parking.controller;
 
 import com.estapar.parking.dto.GarageConfigDTO;
-import com.estapar.parking.service.ParkingService;
+import com.estapar.parking.service.GarageConfigurationCache;
+import com.estapar.parking.service.GarageConfigurationWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -18,6 +29,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,7 +37,12 @@ import static org.mockito.Mockito.*;
 class GarageControllerTest {
 
     @Mock
-    private ParkingService parkingService;
+    private GarageConfigurationWriter garageConfigurationWriter;
+
+    @Spy
+    private GarageConfigurationCache garageConfigurationCache = new GarageConfigurationCache();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     @InjectMocks
     private GarageController garageController;
@@ -34,6 +51,9 @@ class GarageControllerTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(garageConfigurationCache, "garageConfigurationWriter", garageConfigurationWriter);
+        ReflectionTestUtils.setField(garageController, "garageConfigurationWriter", garageConfigurationWriter);
+
         // Configurar dados mock usando as classes internas estáticas
         List<GarageConfigDTO.SectorConfigDTO> mockSectors = Arrays.asList(
             createSectorConfigDTO("A", new BigDecimal("10.00"), 100),
@@ -56,65 +76,65 @@ class GarageControllerTest {
     @DisplayName("Deve retornar configuração da garagem com sucesso")
     void testGetGarageConfiguration_Success() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response, "Response não deve ser null");
         assertEquals(HttpStatus.OK, response.getStatusCode(), "Status deve ser 200 OK");
         assertNotNull(response.getBody(), "Body não deve ser null");
-        assertEquals(mockGarageConfig, response.getBody(), "Deve retornar a configuração mockada");
+        assertArrayEquals(json(mockGarageConfig), bytes(response), "Deve retornar a configuração mockada");
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar configuração com setores corretos")
     void testGetGarageConfiguration_WithCorrectSectors() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
-        assertNotNull(response.getBody().getGarage(), "Lista de setores não deve ser null");
-        assertEquals(3, response.getBody().getGarage().size(), "Deve ter 3 setores");
+        assertNotNull(body(response).getGarage(), "Lista de setores não deve ser null");
+        assertEquals(3, body(response).getGarage().size(), "Deve ter 3 setores");
         
         // Verificar primeiro setor
-        GarageConfigDTO.SectorConfigDTO sectorA = response.getBody().getGarage().get(0);
+        GarageConfigDTO.SectorConfigDTO sectorA = body(response).getGarage().get(0);
         assertEquals("A", sectorA.getSector());
         assertEquals(new BigDecimal("10.00"), sectorA.getBasePrice());
         assertEquals(100, sectorA.getMax_capacity());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar configuração com vagas corretas")
     void testGetGarageConfiguration_WithCorrectSpots() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
-        assertNotNull(response.getBody().getSpots(), "Lista de vagas não deve ser null");
-        assertEquals(3, response.getBody().getSpots().size(), "Deve ter 3 vagas");
+        assertNotNull(body(response).getSpots(), "Lista de vagas não deve ser null");
+        assertEquals(3, body(response).getSpots().size(), "Deve ter 3 vagas");
         
         // Verificar primeira vaga
-        GarageConfigDTO.SpotConfigDTO spot1 = response.getBody().getSpots().get(0);
+        GarageConfigDTO.SpotConfigDTO spot1 = body(response).getSpots().get(0);
         assertEquals(1L, spot1.getId());
         assertEquals("A", spot1.getSector());
         assertEquals(-23.561684, spot1.getLat());
         assertEquals(-46.655981, spot1.getLng());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
@@ -125,60 +145,60 @@ class GarageControllerTest {
         emptyConfig.setGarage(Collections.emptyList());
         emptyConfig.setSpots(Collections.emptyList());
         
-        when(parkingService.getGarageConfiguration()).thenReturn(emptyConfig);
+        stubLayout(emptyConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertTrue(response.getBody().getGarage().isEmpty(), "Lista de setores deve estar vazia");
-        assertTrue(response.getBody().getSpots().isEmpty(), "Lista de vagas deve estar vazia");
+        assertTrue(body(response).getGarage().isEmpty(), "Lista de setores deve estar vazia");
+        assertTrue(body(response).getSpots().isEmpty(), "Lista de vagas deve estar vazia");
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar status 200 mesmo com configuração nula")
     void testGetGarageConfiguration_NullConfiguration() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(null);
+        stubLayout((GarageConfigDTO) null);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response, "Response não deve ser null");
         assertEquals(HttpStatus.OK, response.getStatusCode(), "Status deve ser 200 OK");
-        assertNull(response.getBody(), "Body deve ser null quando service retorna null");
+        assertNull(body(response), "Body deve ser null quando service retorna null");
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve chamar o service apenas uma vez")
     void testGetGarageConfiguration_ServiceCalledOnce() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        garageController.getGarageConfiguration();
+        garageController.getGarageConfiguration(null);
 
         // Assert
-        verify(parkingService, times(1)).getGarageConfiguration();
-        verifyNoMoreInteractions(parkingService);
+        verifyLayoutWritten(1);
+        verifyNoMoreInteractions(garageConfigurationWriter);
     }
 
     @Test
     @DisplayName("Deve retornar ResponseEntity não nulo")
     void testGetGarageConfiguration_ResponseEntityNotNull() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response, "ResponseEntity não deve ser null");
@@ -187,19 +207,19 @@ class GarageControllerTest {
     }
 
     @Test
-    @DisplayName("Deve retornar o mesmo objeto retornado pelo service")
+    @DisplayName("Deve retornar o objeto retornado pelo service serializado")
     void testGetGarageConfiguration_ReturnsSameObjectFromService() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
-        assertSame(mockGarageConfig, response.getBody(), 
-            "Deve retornar exatamente o mesmo objeto retornado pelo service");
+        assertArrayEquals(json(mockGarageConfig), bytes(response),
+            "Deve retornar exatamente o objeto retornado pelo service");
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
@@ -214,17 +234,17 @@ class GarageControllerTest {
         configWithOneSector.setGarage(singleSector);
         configWithOneSector.setSpots(Collections.emptyList());
         
-        when(parkingService.getGarageConfiguration()).thenReturn(configWithOneSector);
+        stubLayout(configWithOneSector);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().getGarage().size(), "Deve ter apenas 1 setor");
-        assertEquals("A", response.getBody().getGarage().get(0).getSector());
+        assertEquals(1, body(response).getGarage().size(), "Deve ter apenas 1 setor");
+        assertEquals("A", body(response).getGarage().get(0).getSector());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
@@ -239,101 +259,254 @@ class GarageControllerTest {
         configWithOneSpot.setGarage(Collections.emptyList());
         configWithOneSpot.setSpots(singleSpot);
         
-        when(parkingService.getGarageConfiguration()).thenReturn(configWithOneSpot);
+        stubLayout(configWithOneSpot);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().getSpots().size(), "Deve ter apenas 1 vaga");
-        assertEquals(1L, response.getBody().getSpots().get(0).getId());
+        assertEquals(1, body(response).getSpots().size(), "Deve ter apenas 1 vaga");
+        assertEquals(1L, body(response).getSpots().get(0).getId());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar todos os setores com preços diferentes")
     void testGetGarageConfiguration_WithDifferentPrices() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
         
-        assertEquals(new BigDecimal("10.00"), response.getBody().getGarage().get(0).getBasePrice());
-        assertEquals(new BigDecimal("12.00"), response.getBody().getGarage().get(1).getBasePrice());
-        assertEquals(new BigDecimal("15.00"), response.getBody().getGarage().get(2).getBasePrice());
+        assertEquals(new BigDecimal("10.00"), body(response).getGarage().get(0).getBasePrice());
+        assertEquals(new BigDecimal("12.00"), body(response).getGarage().get(1).getBasePrice());
+        assertEquals(new BigDecimal("15.00"), body(response).getGarage().get(2).getBasePrice());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar todas as vagas com coordenadas corretas")
     void testGetGarageConfiguration_WithCorrectCoordinates() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
         
         // Verificar coordenadas da primeira vaga
-        assertEquals(-23.561684, response.getBody().getSpots().get(0).getLat());
-        assertEquals(-46.655981, response.getBody().getSpots().get(0).getLng());
+        assertEquals(-23.561684, body(response).getSpots().get(0).getLat());
+        assertEquals(-46.655981, body(response).getSpots().get(0).getLng());
         
         // Verificar coordenadas da segunda vaga
-        assertEquals(-23.561690, response.getBody().getSpots().get(1).getLat());
-        assertEquals(-46.655990, response.getBody().getSpots().get(1).getLng());
+        assertEquals(-23.561690, body(response).getSpots().get(1).getLat());
+        assertEquals(-46.655990, body(response).getSpots().get(1).getLng());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar setores com capacidades diferentes")
     void testGetGarageConfiguration_WithDifferentCapacities() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
         
-        assertEquals(100, response.getBody().getGarage().get(0).getMax_capacity());
-        assertEquals(80, response.getBody().getGarage().get(1).getMax_capacity());
-        assertEquals(50, response.getBody().getGarage().get(2).getMax_capacity());
+        assertEquals(100, body(response).getGarage().get(0).getMax_capacity());
+        assertEquals(80, body(response).getGarage().get(1).getMax_capacity());
+        assertEquals(50, body(response).getGarage().get(2).getMax_capacity());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
     }
 
     @Test
     @DisplayName("Deve retornar vagas com IDs sequenciais")
     void testGetGarageConfiguration_WithSequentialIds() {
         // Arrange
-        when(parkingService.getGarageConfiguration()).thenReturn(mockGarageConfig);
+        stubLayout(mockGarageConfig);
 
         // Act
-        ResponseEntity<GarageConfigDTO> response = garageController.getGarageConfiguration();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
 
         // Assert
         assertNotNull(response.getBody());
         
-        assertEquals(1L, response.getBody().getSpots().get(0).getId());
-        assertEquals(2L, response.getBody().getSpots().get(1).getId());
-        assertEquals(3L, response.getBody().getSpots().get(2).getId());
+        assertEquals(1L, body(response).getSpots().get(0).getId());
+        assertEquals(2L, body(response).getSpots().get(1).getId());
+        assertEquals(3L, body(response).getSpots().get(2).getId());
         
-        verify(parkingService, times(1)).getGarageConfiguration();
+        verifyLayoutWritten(1);
+    }
+
+    // ==================== Cache e ETag ====================
+
+    @Test
+    @DisplayName("Deve retornar ETag forte e exigir revalidação")
+    void testGetGarageConfiguration_ReturnsStrongEtag() {
+        // Arrange
+        stubLayout(mockGarageConfig);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(null);
+
+        // Assert
+        String etag = response.getHeaders().getETag();
+        assertNotNull(etag, "ETag deve estar presente");
+        assertTrue(etag.startsWith("\"") && !etag.startsWith("W/"), "ETag deve ser forte");
+        assertEquals("no-cache", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 quando If-None-Match corresponder ao ETag atual")
+    void testGetGarageConfiguration_NotModified() {
+        // Arrange
+        stubLayout(mockGarageConfig);
+        String etag = garageController.getGarageConfiguration(null).getHeaders().getETag();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration("\"outro\", W/" + etag);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody(), "304 não deve ter corpo");
+        assertEquals(etag, response.getHeaders().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("Deve responder 200 quando If-None-Match for de outra versão")
+    void testGetGarageConfiguration_EtagMismatch() {
+        // Arrange
+        stubLayout(mockGarageConfig);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration("\"versao-antiga\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Deve montar a configuração uma única vez entre requisições")
+    void testGetGarageConfiguration_ServedFromCache() {
+        // Arrange
+        stubLayout(mockGarageConfig);
+
+        // Act
+        garageController.getGarageConfiguration(null);
+        garageController.getGarageConfiguration(null);
+        garageController.getGarageConfiguration(null);
+
+        // Assert
+        verifyLayoutWritten(1);
+    }
+
+    @Test
+    @DisplayName("Deve remontar e trocar o ETag após invalidação do layout")
+    void testGetGarageConfiguration_InvalidatedLayout() {
+        // Arrange
+        GarageConfigDTO changed = new GarageConfigDTO();
+        changed.setGarage(Collections.singletonList(createSectorConfigDTO("Z", new BigDecimal("9.00"), 1)));
+        changed.setSpots(Collections.emptyList());
+        stubLayout(mockGarageConfig, changed);
+        String before = garageController.getGarageConfiguration(null).getHeaders().getETag();
+
+        // Act
+        garageConfigurationCache.invalidate();
+        ResponseEntity<StreamingResponseBody> response = garageController.getGarageConfiguration(before);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(before, response.getHeaders().getETag());
+        assertEquals("Z", body(response).getGarage().get(0).getSector());
+        verifyLayoutWritten(2);
+    }
+
+    @Test
+    @DisplayName("Deve escrever em streaming a cada requisição quando o layout excede o limite do cache")
+    void testGetGarageConfiguration_StreamsLargeLayout() {
+        // Arrange
+        ReflectionTestUtils.setField(garageConfigurationCache, "maxCachedBytes", 16);
+        stubLayout(mockGarageConfig);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> first = garageController.getGarageConfiguration(null);
+        ResponseEntity<StreamingResponseBody> second = garageController.getGarageConfiguration(null);
+        ResponseEntity<StreamingResponseBody> notModified =
+            garageController.getGarageConfiguration(first.getHeaders().getETag());
+
+        // Assert
+        assertArrayEquals(json(mockGarageConfig), bytes(first));
+        assertArrayEquals(json(mockGarageConfig), bytes(second));
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag(), "ETag deve ser estável");
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        // Uma escrita para calcular o ETag e uma por resposta com corpo
+        verifyLayoutWritten(3);
     }
 
     // ==================== Métodos Auxiliares ====================
 
+    private void stubLayout(GarageConfigDTO... configs) {
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            doAnswer(invocation -> {
+                GarageConfigDTO config = configs[Math.min(calls.getAndIncrement(), configs.length - 1)];
+                invocation.getArgument(0, OutputStream.class).write(json(config));
+                return null;
+            }).when(garageConfigurationWriter).write(any());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void verifyLayoutWritten(int times) {
+        try {
+            verify(garageConfigurationWriter, times(times)).write(any());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] bytes(ResponseEntity<StreamingResponseBody> response) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            response.getBody().writeTo(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private GarageConfigDTO body(ResponseEntity<StreamingResponseBody> response) {
+        try {
+            return objectMapper.readValue(bytes(response), GarageConfigDTO.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] json(GarageConfigDTO config) {
+        try {
+            return objectMapper.writeValueAsBytes(config);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private GarageConfigDTO.SectorConfigDTO createSectorConfigDTO(String sectorCode, BigDecimal basePrice, int maxCapacity) {
         GarageConfigDTO.SectorConfigDTO sector = new GarageConfigDTO.SectorConfigDTO();
         sector.setSector(sectorCode);
@@ -2,6 +2,9 @@ package com.estapar.parking.controller;
 
 import com.estapar.parking.dto.RevenueRequestDTO;
 import com.estapar.parking.dto.RevenueResponseDTO;
+import com.estapar.parking.dto.RevenueRollupRebuildDTO;
+import com.estapar.parking.service.RevenueReportService;
+import com.estapar.parking.service.RevenueRollupService;
 import com.estapar.parking.service.RevenueService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,10 +14,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +35,12 @@ class RevenueControllerTest {
     @Mock
     private RevenueService revenueService;
 
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private RevenueReportService revenueReportService;
+
     @InjectMocks
     private RevenueController revenueController;
 
@@ -434,4 +447,73 @@ class RevenueControllerTest {
         assertNotNull(response, "Response nunca deve ser null");
         assertNotNull(response.getStatusCode(), "Status code nunca deve ser null");
     }
+
+    // ==================== Reconstrução do faturamento diário ====================
+
+    @Test
+    @DisplayName("Deve reconstruir o faturamento diário do intervalo informado")
+    void testRebuildRollup_Success() {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        when(revenueRollupService.rebuild(from, to)).thenReturn(93);
+
+        // Act
+        ResponseEntity<RevenueRollupRebuildDTO> response = revenueController.rebuildRollup(from, to);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(93, response.getBody().getRows());
+        assertEquals(from, response.getBody().getFrom());
+        assertEquals(to, response.getBody().getTo());
+    }
+
+    @Test
+    @DisplayName("Deve retornar BAD_REQUEST para intervalo inválido na reconstrução")
+    void testRebuildRollup_InvalidRange() {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 2, 1);
+        LocalDate to = LocalDate.of(2024, 1, 1);
+        when(revenueRollupService.rebuild(from, to)).thenThrow(new IllegalArgumentException("Invalid rebuild range"));
+
+        // Act
+        ResponseEntity<RevenueRollupRebuildDTO> response = revenueController.rebuildRollup(from, to);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    // ==================== Relatório por intervalo ====================
+
+    @Test
+    @DisplayName("Deve devolver relatório em streaming para o intervalo e setores")
+    void testGetRevenueReport_Streams() throws Exception {
+        // Arrange
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        List<String> sectors = List.of("A", "B");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = revenueController.getRevenueReport(from, to, sectors);
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        verify(revenueReportService, times(1)).writeReport(from, to, sectors, out);
+    }
+
+    @Test
+    @DisplayName("Deve retornar BAD_REQUEST quando o fim for anterior ao início")
+    void testGetRevenueReport_InvalidRange() {
+        // Act
+        ResponseEntity<StreamingResponseBody> response = revenueController.getRevenueReport(
+            LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(revenueReportService);
+    }
 }
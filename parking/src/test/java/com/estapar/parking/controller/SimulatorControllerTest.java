@@ -0,0 +1,103 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.service.GarageLayoutGenerator;
+import com.estapar.parking.service.SimulatorTrafficService;
+import com.estapar.parking.service.SimulatorTrafficService.TrafficStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SimulatorController Tests")
+class SimulatorControllerTest {
+
+    @Mock
+    private GarageLayoutGenerator garageLayoutGenerator;
+
+    @Mock
+    private SimulatorTrafficService simulatorTrafficService;
+
+    @InjectMocks
+    private SimulatorController simulatorController;
+
+    @Test
+    @DisplayName("Deve responder o layout com ETag")
+    void testGetGarage_Ok() {
+        // Arrange
+        when(garageLayoutGenerator.etag(10, 1_000, 42L)).thenReturn("\"abc\"");
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = simulatorController.getGarage(10, 1_000, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 quando o cliente já tem o layout")
+    void testGetGarage_NotModified() {
+        // Arrange
+        when(garageLayoutGenerator.etag(3, 30, 42L)).thenReturn("\"abc\"");
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = simulatorController.getGarage(null, null, null, "\"abc\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Deve responder 400 para tamanhos fora dos limites")
+    void testGetGarage_InvalidSize() {
+        // Act
+        ResponseEntity<StreamingResponseBody> response = simulatorController.getGarage(2_000, 30, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(garageLayoutGenerator);
+    }
+
+    @Test
+    @DisplayName("Deve responder 409 se já houver tráfego em andamento")
+    void testStartTraffic_AlreadyRunning() {
+        // Arrange
+        when(simulatorTrafficService.start(anyInt(), anyInt(), anyLong())).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<TrafficStatus> response = simulatorController.startTraffic(100, 4, 1L);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Deve iniciar o tráfego e responder 202")
+    void testStartTraffic_Accepted() {
+        // Arrange
+        TrafficStatus status = new TrafficStatus(true, 100, 0, 0, 0, 0);
+        when(simulatorTrafficService.start(100, 4, 1L)).thenReturn(Optional.of(status));
+
+        // Act
+        ResponseEntity<TrafficStatus> response = simulatorController.startTraffic(100, 4, 1L);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+}
@@ -1,10 +1,16 @@
 package com.estapar.parking.controller;
 
 import com.estapar.parking.dto.WebhookEventDTO;
+import com.estapar.parking.dto.WebhookEventResultDTO;
 import com.estapar.parking.exception.ParkingFullException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
 import com.estapar.parking.exception.VehicleNotFoundException;
+import com.estapar.parking.service.AsyncWebhookIngestor;
+import com.estapar.parking.service.LogContext;
+import com.estapar.parking.service.ParkingMetrics;
 import com.estapar.parking.service.ParkingService;
+import com.estapar.parking.service.WebhookBatchService;
+import com.estapar.parking.service.WebhookDeduplicator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,11 +18,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +41,15 @@ class WebhookControllerTest {
     @Mock
     private ParkingService parkingService;
 
+    @Mock
+    private WebhookBatchService webhookBatchService;
+
+    @Mock
+    private ParkingMetrics parkingMetrics;
+
+    @Mock
+    private WebhookDeduplicator webhookDeduplicator;
+
     @InjectMocks
     private WebhookController webhookController;
 
@@ -661,8 +685,237 @@ class WebhookControllerTest {
         verify(parkingService, times(1)).handleEntry(any(WebhookEventDTO.class));
     }
 
+    // ==================== Testes de Lote ====================
+
+    @Test
+    @DisplayName("Deve processar lote e devolver status por evento")
+    void testHandleWebhookBatch_Success() {
+        // Arrange
+        List<WebhookEventDTO> events = List.of(entryEvent, parkedEvent, exitEvent);
+        List<WebhookEventResultDTO> results = List.of(
+            new WebhookEventResultDTO(0, "ABC1234", "ENTRY", 200),
+            new WebhookEventResultDTO(1, "ABC1234", "PARKED", 200),
+            new WebhookEventResultDTO(2, "ABC1234", "EXIT", 404));
+        when(webhookBatchService.processBatch(events)).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<WebhookEventResultDTO>> response = webhookController.handleWebhookBatch(events);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+        verify(webhookBatchService, times(1)).processBatch(events);
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    @DisplayName("Deve retornar BAD_REQUEST para lote vazio")
+    void testHandleWebhookBatch_Empty() {
+        // Act
+        ResponseEntity<List<WebhookEventResultDTO>> response =
+            webhookController.handleWebhookBatch(Collections.emptyList());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(webhookBatchService);
+    }
+
+    // ==================== Testes - Ingestão Assíncrona ====================
+
+    @Test
+    @DisplayName("Deve enfileirar evento e retornar ACCEPTED no modo assíncrono")
+    void testHandleWebhook_AsyncAccepted() {
+        // Arrange
+        AsyncWebhookIngestor ingestor = mock(AsyncWebhookIngestor.class);
+        ReflectionTestUtils.setField(webhookController, "asyncWebhookIngestor", ingestor);
+        entryEvent.setEntryTime(LocalDateTime.now());
+        when(ingestor.enqueue(entryEvent)).thenReturn(true);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(entryEvent);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(ingestor, times(1)).enqueue(entryEvent);
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    @DisplayName("Deve retornar SERVICE_UNAVAILABLE quando a fila estiver cheia")
+    void testHandleWebhook_AsyncQueueFull() {
+        // Arrange
+        AsyncWebhookIngestor ingestor = mock(AsyncWebhookIngestor.class);
+        ReflectionTestUtils.setField(webhookController, "asyncWebhookIngestor", ingestor);
+        exitEvent.setExitTime(LocalDateTime.now());
+        when(ingestor.enqueue(exitEvent)).thenReturn(false);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(exitEvent);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        verifyNoInteractions(parkingService);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar tipo de evento inválido sem enfileirar no modo assíncrono")
+    void testHandleWebhook_AsyncInvalidEventType() {
+        // Arrange
+        AsyncWebhookIngestor ingestor = mock(AsyncWebhookIngestor.class);
+        ReflectionTestUtils.setField(webhookController, "asyncWebhookIngestor", ingestor);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(invalidEvent);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(ingestor);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar EXIT sem exit_time sem enfileirar no modo assíncrono")
+    void testHandleWebhook_AsyncMissingExitTime() {
+        // Arrange
+        AsyncWebhookIngestor ingestor = mock(AsyncWebhookIngestor.class);
+        ReflectionTestUtils.setField(webhookController, "asyncWebhookIngestor", ingestor);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(exitEvent);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(ingestor);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar evento sem placa sem enfileirar no modo assíncrono")
+    void testHandleWebhook_AsyncMissingLicensePlate() {
+        // Arrange
+        AsyncWebhookIngestor ingestor = mock(AsyncWebhookIngestor.class);
+        ReflectionTestUtils.setField(webhookController, "asyncWebhookIngestor", ingestor);
+        WebhookEventDTO event = createWebhookEvent("PARKED", " ");
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(event);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(ingestor);
+    }
+
+    // ==================== Testes de Métricas ====================
+
+    @Test
+    @DisplayName("Deve registrar métrica do evento com status e causa do erro")
+    void testHandleWebhook_RecordsMetricsForConflict() {
+        // Arrange
+        ParkingFullException error = new ParkingFullException("Parking is full");
+        when(parkingService.handleEntry(entryEvent)).thenThrow(error);
+
+        // Act
+        webhookController.handleWebhook(entryEvent);
+
+        // Assert
+        verify(parkingMetrics).start();
+        verify(parkingMetrics).stop(any(), eq("http"), eq("ENTRY"), eq(HttpStatus.CONFLICT), eq(error));
+    }
+
+    @Test
+    @DisplayName("Deve registrar métrica de sucesso e de tipo inválido")
+    void testHandleWebhook_RecordsMetricsForSuccessAndInvalid() {
+        // Act
+        webhookController.handleWebhook(exitEvent);
+        webhookController.handleWebhook(invalidEvent);
+
+        // Assert
+        verify(parkingMetrics).stop(any(), eq("http"), eq("EXIT"), eq(HttpStatus.OK), isNull());
+        verify(parkingMetrics).stop(any(), eq("http"), eq(invalidEvent.getEventType()), eq(HttpStatus.BAD_REQUEST), isNull());
+    }
+
+    @Test
+    @DisplayName("Deve limpar placa e sessão do contexto de log ao terminar o evento")
+    void testHandleWebhook_ClearsLogContext() {
+        // Arrange
+        when(parkingService.handleExit(exitEvent)).thenAnswer(invocation -> {
+            LogContext.plate(exitEvent.getLicensePlate());
+            LogContext.session(42L);
+            throw new VehicleNotFoundException("not found");
+        });
+
+        // Act
+        webhookController.handleWebhook(exitEvent);
+
+        // Assert
+        assertNull(MDC.get(LogContext.PLATE));
+        assertNull(MDC.get(LogContext.SESSION_ID));
+    }
+
     // ==================== Método Auxiliar ====================
 
+    // ==================== Testes de Idempotência ====================
+
+    @Test
+    @DisplayName("Reenvio dentro da janela deve retornar OK sem chamar o ParkingService")
+    void testHandleWebhook_DuplicateWithinWindow() {
+        // Arrange
+        when(webhookDeduplicator.isDuplicate(entryEvent)).thenReturn(true);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(entryEvent);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyNoInteractions(parkingService);
+        verify(parkingMetrics).recordDuplicate("http", "ENTRY");
+    }
+
+    @Test
+    @DisplayName("CONFLICT de um ENTRY já aplicado deve retornar o resultado original")
+    void testHandleWebhook_RetriedEntryAlreadyProcessed() {
+        // Arrange
+        when(parkingService.handleEntry(entryEvent))
+            .thenThrow(new VehicleAlreadyParkedException("Veículo já estacionado"));
+        when(webhookDeduplicator.wasProcessed(entryEvent)).thenReturn(true);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(entryEvent);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(parkingMetrics).stop(any(), eq("http"), eq("ENTRY"), eq(HttpStatus.OK), isNull());
+    }
+
+    @Test
+    @DisplayName("NOT_FOUND de um EXIT já aplicado deve retornar o resultado original")
+    void testHandleWebhook_RetriedExitAfterSessionClosed() {
+        // Arrange
+        when(parkingService.handleExit(exitEvent))
+            .thenThrow(new VehicleNotFoundException("Sessão não encontrada"));
+        when(webhookDeduplicator.wasProcessed(exitEvent)).thenReturn(true);
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(exitEvent);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(parkingMetrics).recordDuplicate("http", "EXIT");
+    }
+
+    @Test
+    @DisplayName("Reenvio aplicado em paralelo (chave duplicada) deve retornar OK")
+    void testHandleWebhook_ConcurrentDuplicateKey() {
+        // Arrange
+        when(parkingService.handleExit(exitEvent))
+            .thenThrow(new DuplicateKeyException("Duplicate entry"));
+
+        // Act
+        ResponseEntity<Void> response = webhookController.handleWebhook(exitEvent);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(webhookDeduplicator).remember(exitEvent);
+    }
+
     private WebhookEventDTO createWebhookEvent(String eventType, String plate) {
         WebhookEventDTO event = new WebhookEventDTO();
         event.setEventType(eventType);
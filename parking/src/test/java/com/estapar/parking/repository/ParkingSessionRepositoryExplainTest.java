@@ -0,0 +1,140 @@
+package com.estapar.parking.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Executa EXPLAIN da consulta de faturamento num MySQL real (migrado pelo
+ * Flyway) para impedir que uma alteração volte a fazer varredura completa.
+ * Ignorado quando não há Docker disponível.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("ParkingSessionRepository EXPLAIN Tests")
+class ParkingSessionRepositoryExplainTest {
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @BeforeAll
+    static void migrateAndSeed() throws Exception {
+        Flyway.configure()
+            .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+            .load()
+            .migrate();
+
+        try (Connection connection = connect();
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO parking_sessions (license_plate, sector_id, entry_time, exit_time, final_amount) " +
+                 "SELECT ?, id, ?, ?, ? FROM sectors WHERE sector_code = ?")) {
+            String[] sectors = {"A", "B", "C"};
+            LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+            for (int i = 0; i < 3_000; i++) {
+                LocalDateTime exit = base.plusMinutes(i * 37L);
+                insert.setString(1, "CAR" + i);
+                insert.setTimestamp(2, Timestamp.valueOf(exit.minusHours(2)));
+                insert.setTimestamp(3, Timestamp.valueOf(exit));
+                insert.setBigDecimal(4, new java.math.BigDecimal("20.00"));
+                insert.setString(5, sectors[i % sectors.length]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE parking_sessions");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Faturamento por setor e dia deve ser respondido só pelo índice composto")
+    void testSumRevenueBetween_UsesCoveringIndexRange() throws Exception {
+        // Arrange
+        String sql = nativeQuery("sumRevenueBetween", Long.class, LocalDateTime.class, LocalDateTime.class);
+        Map<String, Object> parameters = Map.of(
+            "sectorId", sectorId("A"),
+            "start", Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 0, 0)),
+            "end", Timestamp.valueOf(LocalDateTime.of(2024, 1, 16, 0, 0)));
+
+        // Act
+        Map<String, String> plan = explain(sql, parameters);
+
+        // Assert
+        assertNotEquals("ALL", plan.get("type"), "full table scan: " + plan);
+        assertEquals("idx_sessions_sector_exit_amount", plan.get("key"), "plan: " + plan);
+        assertTrue(plan.get("Extra") != null && plan.get("Extra").contains("Using index"),
+            "consulta não é coberta pelo índice: " + plan);
+    }
+
+    private static String nativeQuery(String methodName, Class<?>... parameterTypes) throws Exception {
+        Method method = ParkingSessionRepository.class.getMethod(methodName, parameterTypes);
+        Query query = method.getAnnotation(Query.class);
+        assertTrue(query.nativeQuery(), methodName + " deve ser uma consulta nativa");
+        return query.value();
+    }
+
+    private static Map<String, String> explain(String sql, Map<String, Object> parameters) throws Exception {
+        List<Object> values = new ArrayList<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        StringBuilder positional = new StringBuilder();
+        while (matcher.find()) {
+            values.add(parameters.get(matcher.group(1)));
+            matcher.appendReplacement(positional, "?");
+        }
+        matcher.appendTail(positional);
+
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + positional)) {
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                assertTrue(rs.next(), "EXPLAIN sem linhas");
+                return Map.of(
+                    "type", String.valueOf(rs.getString("type")),
+                    "key", String.valueOf(rs.getString("key")),
+                    "Extra", String.valueOf(rs.getString("Extra")));
+            }
+        }
+    }
+
+    private static Long sectorId(String sectorCode) throws Exception {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("SELECT id FROM sectors WHERE sector_code = ?")) {
+            statement.setString(1, sectorCode);
+            try (ResultSet rs = statement.executeQuery()) {
+                assertTrue(rs.next(), "setor " + sectorCode + " não encontrado");
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+}
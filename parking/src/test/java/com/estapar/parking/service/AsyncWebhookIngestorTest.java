@@ -0,0 +1,184 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("AsyncWebhookIngestor Tests")
+class AsyncWebhookIngestorTest {
+
+    private static final int PARTITION_SIZE_MB = 1;
+
+    @TempDir
+    Path tempDir;
+
+    private WebhookBatchService webhookBatchService;
+    private AsyncWebhookIngestor ingestor;
+
+    @BeforeEach
+    void setUp() {
+        webhookBatchService = mock(WebhookBatchService.class);
+        ingestor = new AsyncWebhookIngestor();
+        ReflectionTestUtils.setField(ingestor, "webhookBatchService", webhookBatchService);
+        ReflectionTestUtils.setField(ingestor, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(ingestor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(ingestor, "parkingMetrics", mock(ParkingMetrics.class));
+        ReflectionTestUtils.setField(ingestor, "queueDir", tempDir.toString());
+        ReflectionTestUtils.setField(ingestor, "partitionCount", 1);
+        ReflectionTestUtils.setField(ingestor, "partitionSizeMb", PARTITION_SIZE_MB);
+        ReflectionTestUtils.setField(ingestor, "fsync", false);
+        ReflectionTestUtils.setField(ingestor, "maxAttempts", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ingestor.isRunning()) {
+            ingestor.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Falhas transitórias devem ser repetidas até o evento ser aplicado")
+    void testConsume_RetriesUntilApplied() throws Exception {
+        // Arrange
+        WebhookEventDTO event = event("ENTRY", "ABC1234");
+        when(webhookBatchService.dispatch(any(WebhookEventDTO.class), eq("queue")))
+            .thenThrow(new DataAccessResourceFailureException("db down"))
+            .thenThrow(new DataAccessResourceFailureException("db down"))
+            .thenThrow(new DataAccessResourceFailureException("db down"))
+            .thenReturn(HttpStatus.OK);
+        ingestor.start();
+
+        // Act
+        assertTrue(ingestor.enqueue(event));
+        await(() -> ingestor.backlog() == 0);
+
+        // Assert
+        verify(webhookBatchService, times(4)).dispatch(any(WebhookEventDTO.class), eq("queue"));
+    }
+
+    @Test
+    @DisplayName("Evento ainda não aplicado deve continuar na fila após parar")
+    void testStop_KeepsUnappliedRecord() throws Exception {
+        // Arrange
+        when(webhookBatchService.dispatch(any(WebhookEventDTO.class), eq("queue")))
+            .thenThrow(new DataAccessResourceFailureException("db down"));
+        ingestor.start();
+        assertTrue(ingestor.enqueue(event("EXIT", "ABC1234")));
+        await(() -> !mockingDetails(webhookBatchService).getInvocations().isEmpty());
+
+        // Act
+        ingestor.stop();
+
+        // Assert
+        verify(webhookBatchService, atLeast(1)).dispatch(any(WebhookEventDTO.class), eq("queue"));
+        try (MappedWebhookLog reopened = new MappedWebhookLog(
+                tempDir.resolve("partition-0.log"), PARTITION_SIZE_MB * 1024 * 1024, false)) {
+            assertEquals(1, reopened.pending());
+        }
+    }
+
+    @Test
+    @DisplayName("Payload ilegível deve ir para o dead-letter antes de sair da fila")
+    void testConsume_UnreadablePayloadDeadLettered() throws Exception {
+        // Arrange
+        try (MappedWebhookLog partition = new MappedWebhookLog(
+                tempDir.resolve("partition-0.log"), PARTITION_SIZE_MB * 1024 * 1024, false)) {
+            partition.append("not json".getBytes(StandardCharsets.UTF_8), 1L);
+        }
+
+        // Act
+        ingestor.start();
+        await(() -> ingestor.backlog() == 0);
+
+        // Assert
+        List<String> lines = Files.readAllLines(tempDir.resolve("dead-letter.log"));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("1\tbm90IGpzb24=\t"));
+    }
+
+    @Test
+    @DisplayName("Falha não transitória deve ir para o dead-letter sem bloquear o próximo evento da partição")
+    void testConsume_NonTransientFailureDeadLettered() throws Exception {
+        // Arrange
+        WebhookEventDTO bad = event("EXIT", "ABC1234");
+        WebhookEventDTO good = event("ENTRY", "DEF5678");
+        when(webhookBatchService.dispatch(any(WebhookEventDTO.class), eq("queue")))
+            .thenThrow(new NullPointerException("exitTime"))
+            .thenReturn(HttpStatus.OK);
+        ingestor.start();
+
+        // Act
+        assertTrue(ingestor.enqueue(bad));
+        assertTrue(ingestor.enqueue(good));
+        await(() -> ingestor.backlog() == 0);
+
+        // Assert
+        verify(webhookBatchService, times(2)).dispatch(any(WebhookEventDTO.class), eq("queue"));
+        List<String> lines = Files.readAllLines(tempDir.resolve("dead-letter.log"));
+        assertEquals(1, lines.size());
+        WebhookEventDTO deadLettered = new ObjectMapper().findAndRegisterModules().readValue(
+            Base64.getDecoder().decode(lines.get(0).split("\t")[1]), WebhookEventDTO.class);
+        assertEquals("ABC1234", deadLettered.getLicensePlate());
+    }
+
+    @Test
+    @DisplayName("Deve classificar lock, deadlock e banco fora como transitórios")
+    void testIsTransient() {
+        assertTrue(AsyncWebhookIngestor.isTransient(new CannotAcquireLockException("lock wait timeout")));
+        assertTrue(AsyncWebhookIngestor.isTransient(new DeadlockLoserDataAccessException("deadlock", null)));
+        assertTrue(AsyncWebhookIngestor.isTransient(new DataAccessResourceFailureException("db down")));
+        assertTrue(AsyncWebhookIngestor.isTransient(
+            new RuntimeException(new SQLTransientConnectionException("connection reset"))));
+        assertFalse(AsyncWebhookIngestor.isTransient(new NullPointerException()));
+        assertFalse(AsyncWebhookIngestor.isTransient(new DataIntegrityViolationException("duplicate")));
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timeout");
+            Thread.sleep(20);
+        }
+    }
+
+    private WebhookEventDTO event(String eventType, String licensePlate) {
+        WebhookEventDTO event = new WebhookEventDTO();
+        event.setEventType(eventType);
+        event.setLicensePlate(licensePlate);
+        return event;
+    }
+}
@@ -0,0 +1,127 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.estapar.parking.dto.GarageConfigDTO;
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SpotConfigView;
+import com.estapar.parking.repository.SpotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GarageConfigurationWriter Tests")
+class GarageConfigurationWriterTest {
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private SpotRepository spotRepository;
+
+    @InjectMocks
+    private GarageConfigurationWriter garageConfigurationWriter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(garageConfigurationWriter, "objectMapper", objectMapper);
+    }
+
+    @Test
+    @DisplayName("Deve escrever o mesmo JSON que a serialização de GarageConfigDTO")
+    void testWrite_MatchesDtoSerialization() throws IOException {
+        // Arrange
+        when(sectorRepository.findAll(any(Sort.class))).thenReturn(List.of(
+            sector("A", "10.00", 100), sector("B", "12.50", 80)));
+        when(spotRepository.streamSpotConfigs()).thenReturn(Stream.of(
+            view(1L, "A", -23.561684, -46.655981),
+            view(2L, "B", -23.561690, -46.655990)));
+
+        GarageConfigDTO expected = new GarageConfigDTO();
+        expected.setGarage(List.of(sectorDto("A", "10.00", 100), sectorDto("B", "12.50", 80)));
+        expected.setSpots(List.of(
+            spotDto(1L, "A", -23.561684, -46.655981),
+            spotDto(2L, "B", -23.561690, -46.655990)));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        garageConfigurationWriter.write(out);
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(expected), out.toString());
+    }
+
+    @Test
+    @DisplayName("Deve fechar o cursor de vagas ao terminar")
+    void testWrite_ClosesSpotCursor() throws IOException {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(sectorRepository.findAll(any(Sort.class))).thenReturn(List.of());
+        when(spotRepository.streamSpotConfigs()).thenReturn(
+            Stream.<SpotConfigView>empty().onClose(() -> closed.set(true)));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        garageConfigurationWriter.write(out);
+
+        // Assert
+        assertEquals("{\"garage\":[],\"spots\":[]}", out.toString());
+        assertTrue(closed.get(), "Cursor deve ser fechado");
+    }
+
+    private Sector sector(String code, String basePrice, int maxCapacity) {
+        Sector sector = new Sector();
+        sector.setSectorCode(code);
+        sector.setBasePrice(new BigDecimal(basePrice));
+        sector.setMaxCapacity(maxCapacity);
+        return sector;
+    }
+
+    private GarageConfigDTO.SectorConfigDTO sectorDto(String code, String basePrice, int maxCapacity) {
+        GarageConfigDTO.SectorConfigDTO sector = new GarageConfigDTO.SectorConfigDTO();
+        sector.setSector(code);
+        sector.setBasePrice(new BigDecimal(basePrice));
+        sector.setMax_capacity(maxCapacity);
+        return sector;
+    }
+
+    private GarageConfigDTO.SpotConfigDTO spotDto(Long id, String sector, double lat, double lng) {
+        GarageConfigDTO.SpotConfigDTO spot = new GarageConfigDTO.SpotConfigDTO();
+        spot.setId(id);
+        spot.setSector(sector);
+        spot.setLat(lat);
+        spot.setLng(lng);
+        return spot;
+    }
+
+    private SpotConfigView view(Long id, String sector, Double lat, Double lng) {
+        return new SpotConfigView() {
+            @Override public Long getId() { return id; }
+            @Override public String getSector() { return sector; }
+            @Override public Double getLat() { return lat; }
+            @Override public Double getLng() { return lng; }
+        };
+    }
+}
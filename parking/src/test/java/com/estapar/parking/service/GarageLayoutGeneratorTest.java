@@ -0,0 +1,107 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DisplayName("GarageLayoutGenerator Tests")
+class GarageLayoutGeneratorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final GarageLayoutGenerator generator = new GarageLayoutGenerator();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(generator, "objectMapper", objectMapper);
+    }
+
+    private JsonNode generate(int sectors, int spots, long seed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.write(sectors, spots, seed, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Deve gerar a quantidade pedida de setores e vagas, com capacidades somando o total")
+    void testWrite_Sizes() throws IOException {
+        // Act
+        JsonNode layout = generate(7, 1_003, 1L);
+
+        // Assert
+        assertEquals(7, layout.get("garage").size());
+        assertEquals(1_003, layout.get("spots").size());
+        int capacity = 0;
+        for (JsonNode sector : layout.get("garage")) {
+            capacity += sector.get("max_capacity").asInt();
+            double basePrice = sector.get("basePrice").asDouble();
+            assertTrue(basePrice >= 5.0 && basePrice <= 20.0, "basePrice " + basePrice);
+        }
+        assertEquals(1_003, capacity);
+    }
+
+    @Test
+    @DisplayName("Códigos e coordenadas das vagas não devem se repetir")
+    void testWrite_UniqueSpots() throws IOException {
+        // Act
+        JsonNode layout = generate(30, 20_000, 7L);
+
+        // Assert
+        Set<String> codes = new HashSet<>();
+        Set<String> coordinates = new HashSet<>();
+        for (JsonNode spot : layout.get("spots")) {
+            double lat = spot.get("lat").asDouble();
+            double lng = spot.get("lng").asDouble();
+            assertTrue(codes.add(spot.get("id").asText()), "repeated code " + spot.get("id"));
+            assertTrue(spot.get("id").asText().length() <= 10);
+            assertTrue(coordinates.add(lat + "," + lng), "repeated coordinates " + lat + "," + lng);
+            assertTrue(lat < -23.0 && lat > -24.0);
+            assertTrue(lng < -46.0 && lng > -47.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Mesma semente deve gerar o mesmo ETag; outra semente, outro")
+    void testEtag_Deterministic() {
+        // Act & Assert
+        assertEquals(generator.etag(3, 30, 42L), generator.etag(3, 30, 42L));
+        assertNotEquals(generator.etag(3, 30, 42L), generator.etag(3, 30, 43L));
+    }
+
+    @Test
+    @DisplayName("Códigos de setor seguem o padrão de colunas de planilha")
+    void testSectorCode() {
+        // Act & Assert
+        assertEquals("A", GarageLayoutGenerator.sectorCode(0));
+        assertEquals("Z", GarageLayoutGenerator.sectorCode(25));
+        assertEquals("AA", GarageLayoutGenerator.sectorCode(26));
+        assertEquals("ALL", GarageLayoutGenerator.sectorCode(999));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar tamanhos fora dos limites")
+    void testIsValid() {
+        // Act & Assert
+        assertTrue(GarageLayoutGenerator.isValid(3, 30));
+        assertTrue(GarageLayoutGenerator.isValid(1_000, 500_000));
+        assertFalse(GarageLayoutGenerator.isValid(2, 30));
+        assertFalse(GarageLayoutGenerator.isValid(1_001, 500_000));
+        assertFalse(GarageLayoutGenerator.isValid(3, 29));
+        assertFalse(GarageLayoutGenerator.isValid(3, 500_001));
+        assertFalse(GarageLayoutGenerator.isValid(100, 50));
+    }
+}
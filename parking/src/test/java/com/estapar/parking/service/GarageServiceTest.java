@@ -0,0 +1,221 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.model.Spot;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SpotLayout;
+import com.estapar.parking.repository.SpotRepository;
+import com.estapar.parking.service.GarageService.LayoutSummary;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GarageService Tests")
+class GarageServiceTest {
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private SpotRepository spotRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GarageConfigurationCache garageConfigurationCache;
+
+    @Mock
+    private ParkingStateInitializer parkingStateInitializer;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private GarageService garageService;
+
+    private record Layout(Long id, String spotCode, Long sectorId, Double latitude, Double longitude)
+            implements SpotLayout {
+        public Long getId() { return id; }
+        public String getSpotCode() { return spotCode; }
+        public Long getSectorId() { return sectorId; }
+        public Double getLatitude() { return latitude; }
+        public Double getLongitude() { return longitude; }
+    }
+
+    private static Sector sector(long id, String code, String basePrice, int capacity) {
+        Sector sector = new Sector(code, new BigDecimal(basePrice), capacity);
+        sector.setId(id);
+        return sector;
+    }
+
+    private LayoutSummary apply(String json) {
+        return garageService.applyLayout(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Layout igual ao gravado não deve gerar escritas nem recarga")
+    void testApplyLayout_UnchangedLayout() {
+        // Arrange
+        when(sectorRepository.findAll()).thenReturn(List.of(sector(1L, "A", "10.00", 2)));
+        when(spotRepository.findSpotLayouts()).thenReturn(List.of(
+            new Layout(100L, "1", 1L, -23.56, -46.65),
+            new Layout(101L, "2", 1L, -23.57, -46.66)));
+
+        // Act
+        LayoutSummary summary = apply("""
+            {"garage":[{"sector":"A","basePrice":10.0,"max_capacity":2}],
+             "spots":[{"id":"1","sector":"A","lat":-23.56,"lng":-46.65},
+                      {"id":"2","sector":"A","lat":-23.57,"lng":-46.66}]}""");
+
+        // Assert
+        assertFalse(summary.changed());
+        assertEquals(1, summary.sectors());
+        assertEquals(2, summary.spots());
+        verify(sectorRepository, never()).save(any());
+        verify(entityManager, never()).persist(any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(parkingStateInitializer, never()).refreshLayout(any(), any());
+        verify(jdbcTemplate).update(anyString(), eq(summary.checksum()), eq(1), eq(2));
+    }
+
+    @Test
+    @DisplayName("Deve inserir vagas novas e atualizar em lote apenas as alteradas")
+    void testApplyLayout_InsertsNewAndUpdatesChangedSpots() {
+        // Arrange
+        when(sectorRepository.findAll()).thenReturn(List.of(sector(1L, "A", "10.00", 3)));
+        when(spotRepository.findSpotLayouts()).thenReturn(List.of(
+            new Layout(100L, "1", 1L, -23.56, -46.65),
+            new Layout(101L, "2", 1L, -23.57, -46.66)));
+        doAnswer(invocation -> {
+            invocation.<Spot>getArgument(0).setId(102L);
+            return null;
+        }).when(entityManager).persist(any(Spot.class));
+
+        // Act
+        LayoutSummary summary = apply("""
+            {"garage":[{"sector":"A","basePrice":10.0,"max_capacity":3}],
+             "spots":[{"id":"1","sector":"A","lat":-23.56,"lng":-46.65},
+                      {"id":"2","sector":"A","lat":-23.50,"lng":-46.60},
+                      {"id":"3","sector":"A","lat":-23.58,"lng":-46.67}]}""");
+
+        // Assert
+        assertTrue(summary.changed());
+        assertEquals(1, summary.spotsInserted());
+        assertEquals(1, summary.spotsUpdated());
+
+        ArgumentCaptor<Spot> inserted = ArgumentCaptor.forClass(Spot.class);
+        verify(entityManager).persist(inserted.capture());
+        assertEquals("3", inserted.getValue().getSpotCode());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), updates.capture());
+        assertEquals(1, updates.getValue().size());
+        assertEquals(101L, updates.getValue().get(0)[3]);
+
+        verify(garageConfigurationCache).invalidate();
+        verify(parkingStateInitializer).refreshLayout(
+            Map.of(1L, List.of(new SpotPoint(101L, -23.50, -46.60), new SpotPoint(102L, -23.58, -46.67))),
+            Set.of(102L));
+    }
+
+    @Test
+    @DisplayName("Vagas lidas antes dos setores devem usar o setor criado na mesma carga")
+    void testApplyLayout_SpotsBeforeSectors() {
+        // Arrange
+        when(sectorRepository.findAll()).thenReturn(List.of());
+        when(spotRepository.findSpotLayouts()).thenReturn(List.of());
+        when(sectorRepository.save(any(Sector.class))).thenAnswer(invocation -> {
+            Sector saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        doAnswer(invocation -> {
+            invocation.<Spot>getArgument(0).setId(200L);
+            return null;
+        }).when(entityManager).persist(any(Spot.class));
+
+        // Act
+        LayoutSummary summary = apply("""
+            {"spots":[{"id":"1","sector":"B","lat":-23.56,"lng":-46.65},
+                      {"id":"2","sector":"Z","lat":-23.57,"lng":-46.66}],
+             "garage":[{"sector":"B","basePrice":5.0,"max_capacity":1}]}""");
+
+        // Assert
+        assertEquals(1, summary.sectorsWritten());
+        assertEquals(1, summary.spotsInserted());
+        assertEquals(1, summary.spotsSkipped());
+        verify(entityManager).getReference(Sector.class, 7L);
+        verify(parkingStateInitializer).refreshLayout(
+            Map.of(7L, List.of(new SpotPoint(200L, -23.56, -46.65))), Set.of(200L));
+    }
+
+    @Test
+    @DisplayName("Setor com preço alterado deve ser regravado")
+    void testApplyLayout_UpdatesChangedSector() {
+        // Arrange
+        Sector existing = sector(1L, "A", "10.00", 2);
+        when(sectorRepository.findAll()).thenReturn(List.of(existing));
+        when(spotRepository.findSpotLayouts()).thenReturn(List.of());
+        when(sectorRepository.save(existing)).thenReturn(existing);
+
+        // Act
+        LayoutSummary summary = apply("""
+            {"garage":[{"sector":"A","basePrice":12.5,"max_capacity":2}],"spots":[]}""");
+
+        // Assert
+        assertEquals(1, summary.sectorsWritten());
+        assertEquals(0, new BigDecimal("12.5").compareTo(existing.getBasePrice()));
+        verify(parkingStateInitializer).refreshLayout(Map.of(), Set.of());
+    }
+
+    @Test
+    @DisplayName("ETag igual ao checksum gravado indica layout inalterado")
+    void testIsSameLayout() {
+        // Act & Assert
+        assertTrue(GarageService.isSameLayout("\"abc123\"", "abc123"));
+        assertTrue(GarageService.isSameLayout("W/\"ABC123\"", "abc123"));
+        assertFalse(GarageService.isSameLayout("\"def456\"", "abc123"));
+        assertFalse(GarageService.isSameLayout(null, "abc123"));
+        assertFalse(GarageService.isSameLayout("\"abc123\"", null));
+    }
+}
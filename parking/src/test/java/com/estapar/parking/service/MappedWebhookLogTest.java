@@ -0,0 +1,185 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("MappedWebhookLog Tests")
+class MappedWebhookLogTest {
+
+    private static final int CAPACITY = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Deve devolver registros na ordem de gravação")
+    void testAppendPeekAdvance_Fifo() throws Exception {
+        try (MappedWebhookLog log = new MappedWebhookLog(tempDir.resolve("p0.log"), CAPACITY, false)) {
+            // Arrange
+            log.append(bytes("first"), 1L);
+            log.append(bytes("second"), 2L);
+
+            // Act
+            MappedWebhookLog.Record first = log.peek(0);
+            log.advance();
+            MappedWebhookLog.Record second = log.peek(0);
+            log.advance();
+
+            // Assert
+            assertArrayEquals(bytes("first"), first.payload());
+            assertEquals(1L, first.enqueuedAt());
+            assertArrayEquals(bytes("second"), second.payload());
+            assertEquals(0, log.pending());
+            assertNull(log.peek(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recuperar registros pendentes ao reabrir o arquivo")
+    void testReopen_RecoversPending() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("p0.log");
+        try (MappedWebhookLog log = new MappedWebhookLog(file, CAPACITY, true)) {
+            log.append(bytes("applied"), 1L);
+            log.append(bytes("pending"), 2L);
+            log.peek(0);
+            log.advance();
+        }
+
+        // Act
+        try (MappedWebhookLog reopened = new MappedWebhookLog(file, CAPACITY, true)) {
+            MappedWebhookLog.Record record = reopened.peek(0);
+
+            // Assert
+            assertEquals(1, reopened.pending());
+            assertNotNull(record);
+            assertArrayEquals(bytes("pending"), record.payload());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar registro quando a partição estiver cheia")
+    void testAppend_FullPartition() throws Exception {
+        try (MappedWebhookLog log = new MappedWebhookLog(tempDir.resolve("p0.log"), 128, false)) {
+            // Act
+            boolean accepted = log.append(new byte[40], 1L);
+            boolean rejected = log.append(new byte[40], 2L);
+
+            // Assert
+            assertTrue(accepted);
+            assertFalse(rejected);
+            assertEquals(1, log.pending());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o arquivo depois que o consumidor alcança o produtor")
+    void testAdvance_CompactsWhenDrained() throws Exception {
+        try (MappedWebhookLog log = new MappedWebhookLog(tempDir.resolve("p0.log"), 1024, false)) {
+            // Arrange - ciclos que somados excedem a capacidade do arquivo
+            byte[] payload = new byte[200];
+
+            // Act & Assert
+            for (int i = 0; i < 20; i++) {
+                assertTrue(log.append(payload, i), "append " + i);
+                assertNotNull(log.peek(0));
+                log.advance();
+            }
+            assertEquals(0, log.pending());
+        }
+    }
+
+    @Test
+    @DisplayName("Fila que nunca esvazia deve reaproveitar o espaço dos registros consumidos")
+    void testAppend_SustainedBacklogWrapsAround() throws Exception {
+        try (MappedWebhookLog log = new MappedWebhookLog(tempDir.resolve("p0.log"), 1024, false)) {
+            // Arrange - sempre dois registros pendentes, ~25 vezes a capacidade do arquivo
+            assertTrue(log.append(payload(0), 0L));
+            assertTrue(log.append(payload(1), 1L));
+
+            // Act & Assert
+            for (int i = 2; i < 100; i++) {
+                assertTrue(log.append(payload(i), i), "append " + i);
+                MappedWebhookLog.Record record = log.peek(0);
+                assertArrayEquals(payload(i - 2), record.payload(), "record " + (i - 2));
+                assertEquals(i - 2, record.enqueuedAt());
+                log.advance();
+                assertEquals(2, log.pending());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Volta ao início não deve sobrescrever registros ainda não consumidos")
+    void testAppend_WrapDoesNotOverwriteUnread() throws Exception {
+        try (MappedWebhookLog log = new MappedWebhookLog(tempDir.resolve("p0.log"), 512, false)) {
+            // Arrange - três registros de 140 bytes; só o primeiro é consumido
+            for (int i = 0; i < 3; i++) {
+                assertTrue(log.append(new byte[128], i));
+            }
+            log.peek(0);
+            log.advance();
+
+            // Act
+            boolean tooLarge = log.append(new byte[140], 3L);
+            boolean fits = log.append(new byte[100], 4L);
+
+            // Assert
+            assertFalse(tooLarge);
+            assertTrue(fits);
+            assertEquals(3, log.pending());
+            assertEquals(1L, log.peek(0).enqueuedAt());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve recuperar registros pendentes depois da volta ao início")
+    void testReopen_AfterWrapRecoversPendingInOrder() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("p0.log");
+        try (MappedWebhookLog log = new MappedWebhookLog(file, 1024, true)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(payload(i), i);
+            }
+            for (int i = 0; i < 3; i++) {
+                log.peek(0);
+                log.advance();
+            }
+            log.append(payload(4), 4L);
+            log.append(payload(5), 5L);
+        }
+
+        // Act
+        try (MappedWebhookLog reopened = new MappedWebhookLog(file, 1024, true)) {
+            // Assert
+            assertEquals(3, reopened.pending());
+            for (int i = 3; i < 6; i++) {
+                assertArrayEquals(payload(i), reopened.peek(0).payload());
+                reopened.advance();
+            }
+            assertNull(reopened.peek(1));
+        }
+    }
+
+    private byte[] payload(int sequence) {
+        byte[] payload = new byte[200];
+        payload[0] = (byte) sequence;
+        payload[199] = (byte) (sequence * 7);
+        return payload;
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
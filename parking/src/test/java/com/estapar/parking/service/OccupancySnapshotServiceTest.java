@@ -0,0 +1,141 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.estapar.parking.repository.ParkingSessionRepository;
+import com.estapar.parking.service.ActiveSessionCache.ActiveSession;
+import com.estapar.parking.service.OccupancySnapshotService.Recovery;
+import com.estapar.parking.service.WebhookEventLog.LoggedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OccupancySnapshotService Tests")
+class OccupancySnapshotServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ParkingSessionRepository sessionRepository;
+
+    @Mock
+    private WebhookEventLog webhookEventLog;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OccupancySnapshotService occupancySnapshotService;
+
+    @Test
+    @DisplayName("Deve aplicar ENTRY, PARKED e EXIT sobre a fotografia")
+    void testReplay_AppliesEventsOverSnapshot() {
+        // Arrange
+        List<ActiveSession> snapshot = List.of(
+            new ActiveSession("AAA0001", 1L, 10L, 100L),
+            new ActiveSession("AAA0002", 2L, 10L, null));
+        List<LoggedEvent> events = List.of(
+            new LoggedEvent(1, "PARKED", "AAA0002", 2L, 10L, 101L),
+            new LoggedEvent(2, "EXIT", "AAA0001", 1L, 10L, 100L),
+            new LoggedEvent(3, "ENTRY", "AAA0003", 3L, 20L, null));
+
+        // Act
+        List<ActiveSession> sessions = OccupancySnapshotService.replay(snapshot, events);
+
+        // Assert
+        assertEquals(List.of(
+            new ActiveSession("AAA0002", 2L, 10L, 101L),
+            new ActiveSession("AAA0003", 3L, 20L, null)), sessions);
+    }
+
+    @Test
+    @DisplayName("Eventos já refletidos na fotografia não devem alterar o resultado")
+    void testReplay_OverlappingEventsAreIdempotent() {
+        // Arrange
+        List<ActiveSession> snapshot = List.of(new ActiveSession("AAA0001", 1L, 10L, 100L));
+        List<LoggedEvent> events = List.of(
+            new LoggedEvent(1, "ENTRY", "AAA0001", 1L, 10L, null),
+            new LoggedEvent(2, "PARKED", "AAA0001", 1L, 10L, 100L));
+
+        // Act
+        List<ActiveSession> sessions = OccupancySnapshotService.replay(snapshot, events);
+
+        // Assert
+        assertEquals(snapshot, sessions);
+    }
+
+    @Test
+    @DisplayName("Ordem de commit diferente da ordem de gravação não deve reabrir sessões")
+    void testReplay_OrderIndependent() {
+        // Arrange: EXIT gravado antes do ENTRY dentro da margem
+        List<LoggedEvent> events = List.of(
+            new LoggedEvent(5, "EXIT", "AAA0001", 1L, 10L, 100L),
+            new LoggedEvent(7, "PARKED", "AAA0001", 1L, 10L, 100L),
+            new LoggedEvent(9, "ENTRY", "AAA0001", 1L, 10L, null));
+
+        // Act
+        List<ActiveSession> sessions = OccupancySnapshotService.replay(List.of(), events);
+
+        // Assert
+        assertTrue(sessions.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sem fotografia não deve haver recuperação")
+    void testRecover_NoSnapshot() {
+        // Arrange
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of());
+
+        // Act
+        Optional<Recovery> recovery = occupancySnapshotService.recover();
+
+        // Assert
+        assertTrue(recovery.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve recuperar a última fotografia e reaplicar os eventos a partir da margem")
+    @SuppressWarnings("unchecked")
+    void testRecover_LatestSnapshotPlusEvents() throws Exception {
+        // Arrange
+        Timestamp takenAt = Timestamp.valueOf("2025-01-01 10:00:00");
+        ResultSet row = mock(ResultSet.class);
+        when(row.getTimestamp("taken_at")).thenReturn(takenAt);
+        when(row.getString("payload")).thenReturn(
+            "[{\"licensePlate\":\"AAA0001\",\"sessionId\":1,\"sectorId\":10,\"spotId\":100}]");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class)))
+            .thenAnswer(i -> List.of(((RowMapper<Object>) i.getArgument(1)).mapRow(row, 0)));
+        when(webhookEventLog.readSince(Timestamp.valueOf("2025-01-01 09:59:00")))
+            .thenReturn(List.of(new LoggedEvent(1, "ENTRY", "AAA0002", 2L, 10L, null)));
+
+        // Act
+        Recovery recovery = occupancySnapshotService.recover().orElseThrow();
+
+        // Assert
+        assertEquals(2, recovery.sessions().size());
+        assertEquals(1, recovery.replayedEvents());
+        assertEquals(takenAt.toInstant(), recovery.snapshotTakenAt());
+        verify(webhookEventLog).readSince(Timestamp.valueOf("2025-01-01 09:59:00"));
+    }
+}
@@ -0,0 +1,137 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.estapar.parking.exception.ParkingFullException;
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("ParkingMetrics Tests")
+class ParkingMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SectorOccupancyRegistry occupancyRegistry = new SectorOccupancyRegistry();
+    private final SpotIndexRegistry spotIndexRegistry = new SpotIndexRegistry();
+    private final ParkingMetrics parkingMetrics = new ParkingMetrics();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(parkingMetrics, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(parkingMetrics, "occupancyRegistry", occupancyRegistry);
+        ReflectionTestUtils.setField(parkingMetrics, "spotIndexRegistry", spotIndexRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve registrar latência por origem, tipo e status")
+    void testStop_RecordsEventTimer() {
+        // Act
+        parkingMetrics.stop(parkingMetrics.start(), "http", "ENTRY", HttpStatus.OK, null);
+        parkingMetrics.stop(parkingMetrics.start(), "http", "ENTRY", HttpStatus.OK, null);
+        parkingMetrics.stop(parkingMetrics.start(), "batch", "EXIT", HttpStatus.NOT_FOUND, null);
+
+        // Assert
+        assertEquals(2, meterRegistry.get("parking.webhook.events")
+            .tags("source", "http", "event_type", "ENTRY", "outcome", "200").timer().count());
+        assertEquals(1, meterRegistry.get("parking.webhook.events")
+            .tags("source", "batch", "event_type", "EXIT", "outcome", "404").timer().count());
+        assertEquals(2, meterRegistry.get("parking.handler.db.time").tag("handler", "ENTRY").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve contar erros com status e causa, sem contar sucessos")
+    void testStop_CountsErrors() {
+        // Act
+        parkingMetrics.stop(parkingMetrics.start(), "http", "ENTRY", HttpStatus.OK, null);
+        parkingMetrics.stop(parkingMetrics.start(), "http", "ENTRY", HttpStatus.CONFLICT,
+            new ParkingFullException("Parking is full"));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("parking.webhook.errors")
+            .tags("event_type", "ENTRY", "status", "409", "reason", "ParkingFullException").counter().count());
+        assertEquals(1, meterRegistry.get("parking.webhook.errors").counters().size());
+    }
+
+    @Test
+    @DisplayName("Deve agrupar tipos de evento desconhecidos numa única série")
+    void testStop_UnknownEventType() {
+        // Act
+        parkingMetrics.stop(parkingMetrics.start(), "http", "FOO", HttpStatus.BAD_REQUEST, null);
+        parkingMetrics.stop(parkingMetrics.start(), "http", null, HttpStatus.BAD_REQUEST, null);
+
+        // Assert
+        assertEquals(2, meterRegistry.get("parking.webhook.events").tag("event_type", "UNKNOWN").timer().count());
+        assertNull(meterRegistry.find("parking.handler.db.time").timer(), "Evento inválido não mede banco");
+    }
+
+    @Test
+    @DisplayName("Deve publicar lotação, vagas livres e capacidade por setor")
+    void testBindSectors_Gauges() {
+        // Arrange
+        Sector sector = new Sector();
+        sector.setId(1L);
+        sector.setSectorCode("A");
+        sector.setBasePrice(new BigDecimal("10.00"));
+        sector.setMaxCapacity(100);
+        occupancyRegistry.load(List.of(sector), Map.of(1L, 40L));
+        spotIndexRegistry.load(Map.of(1L, List.of(
+            new SpotPoint(1L, -23.56, -46.65), new SpotPoint(2L, -23.57, -46.66))));
+
+        // Act
+        parkingMetrics.bindSectors(List.of(sector));
+        occupancyRegistry.tryReserve(sector);
+
+        // Assert
+        assertEquals(41.0, meterRegistry.get("parking.sector.occupied").tag("sector", "A").gauge().value());
+        assertEquals(2.0, meterRegistry.get("parking.sector.free").tag("sector", "A").gauge().value());
+        assertEquals(100.0, meterRegistry.get("parking.sector.capacity").tag("sector", "A").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Gauges devem refletir o setor da última carga")
+    void testBindSectors_Rebind() {
+        // Arrange
+        Sector sector = new Sector();
+        sector.setId(1L);
+        sector.setSectorCode("A");
+        sector.setMaxCapacity(100);
+        Sector reloaded = new Sector();
+        reloaded.setId(1L);
+        reloaded.setSectorCode("A");
+        reloaded.setMaxCapacity(120);
+        parkingMetrics.bindSectors(List.of(sector));
+
+        // Act
+        parkingMetrics.bindSectors(List.of(reloaded));
+
+        // Assert
+        assertEquals(120.0, meterRegistry.get("parking.sector.capacity").tag("sector", "A").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve registrar a quantidade de vagas candidatas")
+    void testRecordSpotCandidates() {
+        // Act
+        parkingMetrics.recordSpotCandidates(10);
+        parkingMetrics.recordSpotCandidates(30);
+
+        // Assert
+        var summary = meterRegistry.get("parking.allocation.candidates").summary();
+        assertNotNull(summary);
+        assertEquals(2, summary.count());
+        assertEquals(40.0, summary.totalAmount());
+    }
+}
@@ -11,7 +11,8 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -21,7 +22,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,9 +39,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import com.estapar.parking.dto.GarageConfigDTO;
 import com.estapar.parking.dto.WebhookEventDTO;
 import com.estapar.parking.exception.ParkingFullException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
@@ -42,6 +52,8 @@ import com.estapar.parking.model.Spot;
 import com.estapar.parking.repository.ParkingSessionRepository;
 import com.estapar.parking.repository.SectorRepository;
 import com.estapar.parking.repository.SpotRepository;
+import com.estapar.parking.service.ActiveSessionCache.ActiveSession;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ParkingService Tests")
@@ -56,6 +68,30 @@ class ParkingServiceTest {
     @Mock
     private SpotRepository spotRepository;
 
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private ParkingMetrics parkingMetrics;
+
+    @Spy
+    private SectorOccupancyRegistry occupancyRegistry = new SectorOccupancyRegistry();
+
+    @Spy
+    private SpotIndexRegistry spotIndexRegistry = new SpotIndexRegistry();
+
+    @Spy
+    private ActiveSessionCache activeSessionCache = new ActiveSessionCache();
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
+    @Mock
+    private WebhookDeduplicator webhookDeduplicator;
+
+    @Mock
+    private WebhookEventLog webhookEventLog;
+
     @InjectMocks
     private ParkingService parkingService;
 
@@ -71,6 +107,12 @@ class ParkingServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Guarda de capacidade no banco: por padrão o setor aceita a reserva
+        lenient().when(sectorRepository.reserveCapacity(any())).thenReturn(1);
+        lenient().when(sectorRepository.releaseCapacity(any())).thenReturn(1);
+        // Ocupação otimista da vaga: por padrão a disputa é vencida
+        lenient().when(spotRepository.claim(any(), any(), any())).thenReturn(true);
+
         // Setup Sectors
         sectorA = new Sector();
         sectorA.setId(1L);
@@ -141,7 +183,7 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA, sectorB));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(2L); // 20% ocupação
+        when(sectorRepository.findActiveSessions(1L)).thenReturn(3L); // 20% ocupação antes desta entrada
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
             ParkingSession session = i.getArgument(0);
             session.setId(1L);
@@ -160,8 +202,7 @@ class ParkingServiceTest {
 
         verify(sessionRepository).findByLicensePlateAndExitTimeIsNull("ABC1234");
         verify(sectorRepository).findAll();
-        // ✅ CORRIGIDO: Aceita múltiplas chamadas
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorA, true);
+        verify(sectorRepository).findActiveSessions(1L);
         verify(sessionRepository).save(any(ParkingSession.class));
     }
 
@@ -172,7 +213,7 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(4L); // 40% ocupação
+        when(sectorRepository.findActiveSessions(1L)).thenReturn(5L); // 40% ocupação antes desta entrada
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
             ParkingSession session = i.getArgument(0);
             session.setId(1L);
@@ -185,8 +226,7 @@ class ParkingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(new BigDecimal("10.00"), result.getAppliedPrice()); // Preço base
-        // ✅ CORRIGIDO
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorA, true);
+        verify(sectorRepository).findActiveSessions(1L);
     }
 
     @Test
@@ -196,7 +236,7 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(6L); // 60% ocupação
+        when(sectorRepository.findActiveSessions(1L)).thenReturn(7L); // 60% ocupação antes desta entrada
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
             ParkingSession session = i.getArgument(0);
             session.setId(1L);
@@ -209,8 +249,7 @@ class ParkingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(new BigDecimal("11.00"), result.getAppliedPrice()); // +10%
-        // ✅ CORRIGIDO
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorA, true);
+        verify(sectorRepository).findActiveSessions(1L);
     }
 
     @Test
@@ -220,7 +259,7 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(8L); // 80% ocupação
+        when(sectorRepository.findActiveSessions(1L)).thenReturn(9L); // 80% ocupação antes desta entrada
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
             ParkingSession session = i.getArgument(0);
             session.setId(1L);
@@ -233,8 +272,7 @@ class ParkingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(new BigDecimal("12.50"), result.getAppliedPrice()); // +25%
-        // ✅ CORRIGIDO
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorA, true);
+        verify(sectorRepository).findActiveSessions(1L);
     }
 
     @Test
@@ -244,8 +282,8 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA, sectorB));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(10L); // Cheio
-        when(spotRepository.countBySectorAndOccupied(sectorB, true)).thenReturn(2L); // Disponível
+        when(sectorRepository.reserveCapacity(1L)).thenReturn(0); // Cheio
+        when(sectorRepository.findActiveSessions(2L)).thenReturn(3L); // Disponível
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
             ParkingSession session = i.getArgument(0);
             session.setId(1L);
@@ -258,9 +296,8 @@ class ParkingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(sectorB, result.getSector());
-        // ✅ CORRIGIDO
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorA, true);
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorB, true);
+        verify(sectorRepository, never()).findActiveSessions(1L);
+        verify(sectorRepository).findActiveSessions(2L);
     }
 
     @Test
@@ -290,8 +327,7 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA, sectorB));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(10L);
-        when(spotRepository.countBySectorAndOccupied(sectorB, true)).thenReturn(5L);
+        when(sectorRepository.reserveCapacity(any())).thenReturn(0);
 
         // Act & Assert
         ParkingFullException exception = assertThrows(
@@ -300,9 +336,9 @@ class ParkingServiceTest {
         );
 
         assertEquals("Parking is full", exception.getMessage());
-        // ✅ CORRIGIDO
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorA, true);
-        verify(spotRepository, atLeast(1)).countBySectorAndOccupied(sectorB, true);
+        verify(sectorRepository).reserveCapacity(1L);
+        verify(sectorRepository).reserveCapacity(2L);
+        verify(sectorRepository, never()).findActiveSessions(any());
         verify(sessionRepository, never()).save(any());
     }
 
@@ -333,7 +369,7 @@ class ParkingServiceTest {
         when(sessionRepository.findByLicensePlateAndExitTimeIsNull(anyString()))
             .thenReturn(Optional.empty());
         when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA));
-        when(spotRepository.countBySectorAndOccupied(sectorA, true)).thenReturn(2L);
+        when(sectorRepository.findActiveSessions(1L)).thenReturn(3L);
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
             ParkingSession session = i.getArgument(0);
             session.setId(System.currentTimeMillis());
@@ -352,6 +388,249 @@ class ParkingServiceTest {
         verify(sessionRepository, times(2)).save(any(ParkingSession.class));
     }
 
+    @Test
+    @DisplayName("Deve usar contadores em memória sem consultar o banco")
+    void testHandleEntry_UsesOccupancyRegistry() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA, sectorB), Map.of(1L, 10L, 2L, 4L));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.empty());
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleEntry(entryEvent);
+
+        // Assert
+        assertEquals(sectorB, result.getSector());
+        assertEquals(new BigDecimal("18.75"), result.getAppliedPrice()); // 80% ocupação, +25%
+        verify(sectorRepository, never()).findAll();
+        verify(sectorRepository, never()).findActiveSessions(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando contadores em memória indicam lotação")
+    void testHandleEntry_OccupancyRegistryFull() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA, sectorB), Map.of(1L, 10L, 2L, 5L));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ParkingFullException.class, () -> parkingService.handleEntry(entryEvent));
+        verify(sectorRepository, never()).findActiveSessions(any());
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve tentar o próximo setor quando a guarda do banco recusar a reserva")
+    void testHandleEntry_DatabaseGuardRejects() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA, sectorB), Map.of(1L, 2L, 2L, 0L));
+        when(sectorRepository.reserveCapacity(1L)).thenReturn(0);
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleEntry(entryEvent);
+
+        // Assert
+        assertEquals(sectorB, result.getSector());
+        assertEquals(2L, occupancyRegistry.getAllocated(sectorA));
+        assertEquals(1L, occupancyRegistry.getAllocated(sectorB));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando a guarda do banco recusar todos os setores")
+    void testHandleEntry_DatabaseGuardFull() {
+        // Arrange
+        when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA, sectorB));
+        when(sectorRepository.reserveCapacity(any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ParkingFullException.class, () -> parkingService.handleEntry(entryEvent));
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Não deve exceder a capacidade com ENTRY concorrentes")
+    void testHandleEntry_ConcurrentEntriesNeverOversubscribe() throws Exception {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA, sectorB), Map.of());
+        Map<Long, AtomicInteger> database = Map.of(1L, new AtomicInteger(), 2L, new AtomicInteger());
+        Map<Long, Integer> capacity = Map.of(1L, sectorA.getMaxCapacity(), 2L, sectorB.getMaxCapacity());
+        doAnswer(i -> {
+            Long sectorId = i.getArgument(0);
+            AtomicInteger count = database.get(sectorId);
+            int current;
+            do {
+                current = count.get();
+                if (current >= capacity.get(sectorId)) {
+                    return 0;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            return 1;
+        }).when(sectorRepository).reserveCapacity(any());
+        Map<Long, AtomicInteger> sessionsBySector = new ConcurrentHashMap<>();
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
+            ParkingSession session = i.getArgument(0);
+            sessionsBySector.computeIfAbsent(session.getSector().getId(), id -> new AtomicInteger()).incrementAndGet();
+            return session;
+        });
+
+        int threads = 16;
+        int entries = 400;
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            WebhookEventDTO event = new WebhookEventDTO();
+            event.setEventType("ENTRY");
+            event.setLicensePlate("CAR" + i);
+            event.setEntryTime(LocalDateTime.now());
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    parkingService.handleEntry(event);
+                } catch (ParkingFullException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(10, sessionsBySector.get(1L).get());
+        assertEquals(5, sessionsBySector.get(2L).get());
+        assertEquals(entries - 15, rejected.get());
+        assertEquals(10L, occupancyRegistry.getAllocated(sectorA));
+        assertEquals(5L, occupancyRegistry.getAllocated(sectorB));
+    }
+
+    @Test
+    @DisplayName("UPDATE condicional deve manter a lotação do banco na capacidade com o registro divergente")
+    void testHandleEntry_ConcurrentEntriesAgainstConditionalUpdate() throws Exception {
+        // Arrange - o registro em memória não conhece 4 sessões abertas por
+        // outra instância no setor A; só o UPDATE condicional as enxerga
+        occupancyRegistry.load(Arrays.asList(sectorA, sectorB), Map.of());
+        Map<Long, AtomicInteger> activeSessions = Map.of(1L, new AtomicInteger(4), 2L, new AtomicInteger());
+        Map<Long, Integer> capacity = Map.of(1L, sectorA.getMaxCapacity(), 2L, sectorB.getMaxCapacity());
+        Map<Long, AtomicInteger> highest = Map.of(1L, new AtomicInteger(4), 2L, new AtomicInteger());
+        // UPDATE sectors SET active_sessions = active_sessions + 1
+        // WHERE id = ? AND active_sessions < max_capacity, atômico por linha
+        doAnswer(i -> {
+            Long sectorId = i.getArgument(0);
+            AtomicInteger row = activeSessions.get(sectorId);
+            synchronized (row) {
+                if (row.get() >= capacity.get(sectorId)) {
+                    return 0;
+                }
+                highest.get(sectorId).accumulateAndGet(row.incrementAndGet(), Math::max);
+                return 1;
+            }
+        }).when(sectorRepository).reserveCapacity(any());
+        Map<Long, AtomicInteger> sessionsBySector = new ConcurrentHashMap<>();
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
+            ParkingSession session = i.getArgument(0);
+            sessionsBySector.computeIfAbsent(session.getSector().getId(), id -> new AtomicInteger()).incrementAndGet();
+            return session;
+        });
+
+        int threads = 16;
+        int entries = 200;
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            WebhookEventDTO event = new WebhookEventDTO();
+            event.setEventType("ENTRY");
+            event.setLicensePlate("CAR" + i);
+            event.setEntryTime(LocalDateTime.now());
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    parkingService.handleEntry(event);
+                } catch (ParkingFullException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(10, highest.get(1L).get());
+        assertEquals(5, highest.get(2L).get());
+        assertEquals(6, sessionsBySector.get(1L).get());
+        assertEquals(5, sessionsBySector.get(2L).get());
+        assertEquals(entries - 11, rejected.get());
+        // Reservas recusadas pelo banco foram canceladas na memória
+        assertEquals(6L, occupancyRegistry.getAllocated(sectorA));
+        assertEquals(5L, occupancyRegistry.getAllocated(sectorB));
+    }
+
+    @Test
+    @DisplayName("Deve verificar duplicidade pelo cache de sessões ativas")
+    void testHandleEntry_UsesActiveSessionCache() {
+        // Arrange
+        activeSessionCache.load(List.of(new ActiveSession("ABC1234", 1L, 1L, null)));
+
+        // Act & Assert
+        assertThrows(VehicleAlreadyParkedException.class, () -> parkingService.handleEntry(entryEvent));
+        verify(sessionRepository, never()).findByLicensePlateAndExitTimeIsNull(anyString());
+    }
+
+    @Test
+    @DisplayName("Deve registrar nova sessão no cache de sessões ativas")
+    void testHandleEntry_AddsToActiveSessionCache() {
+        // Arrange
+        activeSessionCache.load(List.of());
+        occupancyRegistry.load(Arrays.asList(sectorA), Map.of());
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> {
+            ParkingSession session = i.getArgument(0);
+            session.setId(7L);
+            return session;
+        });
+
+        // Act
+        parkingService.handleEntry(entryEvent);
+
+        // Assert
+        ActiveSession cached = activeSessionCache.get("ABC1234").orElseThrow();
+        assertEquals(7L, cached.sessionId());
+        assertEquals(1L, cached.sectorId());
+        assertNull(cached.spotId());
+        // Placa ausente do cache é conferida no banco antes de abrir a sessão
+        verify(sessionRepository).findByLicensePlateAndExitTimeIsNull("ABC1234");
+    }
+
+    @Test
+    @DisplayName("Placa ausente do cache mas com sessão aberta no banco deve ser recusada")
+    void testHandleEntry_CacheMissFallsBackToDatabase() {
+        // Arrange
+        activeSessionCache.load(List.of());
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+
+        // Act & Assert
+        assertThrows(VehicleAlreadyParkedException.class, () -> parkingService.handleEntry(entryEvent));
+        assertEquals(activeSession.getId(), activeSessionCache.get("ABC1234").orElseThrow().sessionId());
+        verify(sessionRepository, never()).save(any(ParkingSession.class));
+    }
+
     // ==================== TESTES DE handleParked ====================
 
     @Test
@@ -363,7 +642,6 @@ class ParkingServiceTest {
             .thenReturn(Optional.of(activeSession));
         when(spotRepository.findBySectorAndOccupied(sectorA, false))
             .thenReturn(Arrays.asList(spot1, spot2));
-        when(spotRepository.save(any(Spot.class))).thenAnswer(i -> i.getArgument(0));
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
@@ -377,14 +655,30 @@ class ParkingServiceTest {
 
         verify(sessionRepository).findByLicensePlateAndExitTimeIsNull("ABC1234");
         verify(spotRepository).findBySectorAndOccupied(sectorA, false);
-        verify(spotRepository).save(argThat(spot -> 
-            spot.getOccupied() && 
-            "ABC1234".equals(spot.getOccupiedBy()) &&
-            spot.getOccupiedAt() != null
-        ));
+        verify(spotRepository).claim(eq(spot1), eq("ABC1234"), any(LocalDateTime.class));
+        verify(spotRepository, never()).save(any(Spot.class));
         verify(sessionRepository).save(any(ParkingSession.class));
     }
 
+    @Test
+    @DisplayName("PARKED repetido deve manter a vaga já atribuída")
+    void testHandleParked_AlreadyAssignedKeepsSpot() {
+        // Arrange
+        activeSession.setSpot(spot2);
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+
+        // Act
+        ParkingSession result = parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(spot2, result.getSpot());
+        verify(spotRepository, never()).claim(any(), any(), any());
+        verify(spotRepository, never()).save(any(Spot.class));
+        verify(webhookDeduplicator, never()).record(any());
+        verify(webhookEventLog, never()).append(any(), any());
+    }
+
     @Test
     @DisplayName("Deve processar estacionamento sem coordenadas")
     void testHandleParked_Success_NoCoordinates() {
@@ -396,7 +690,6 @@ class ParkingServiceTest {
             .thenReturn(Optional.of(activeSession));
         when(spotRepository.findBySectorAndOccupied(sectorA, false))
             .thenReturn(Arrays.asList(spot1, spot2));
-        when(spotRepository.save(any(Spot.class))).thenAnswer(i -> i.getArgument(0));
         when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
 
         // Act
@@ -405,7 +698,8 @@ class ParkingServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(spot1.getId(), result.getSpot().getId());
-        verify(spotRepository).save(any(Spot.class));
+        verify(spotRepository).claim(eq(spot1), eq("ABC1234"), any(LocalDateTime.class));
+        verify(spotRepository, never()).save(any(Spot.class));
     }
 
     @Test
@@ -450,6 +744,260 @@ class ParkingServiceTest {
         verify(sessionRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Não deve alterar a lotação ao estacionar (reserva feita no ENTRY)")
+    void testHandleParked_KeepsReservation() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA, sectorB), Map.of(1L, 3L));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findBySectorAndOccupied(sectorA, false))
+            .thenReturn(Arrays.asList(spot1, spot2));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(3L, occupancyRegistry.getAllocated(sectorA));
+        assertEquals(0L, occupancyRegistry.getAllocated(sectorB));
+    }
+
+    @Test
+    @DisplayName("Deve atribuir vaga mais próxima pelo índice espacial")
+    void testHandleParked_UsesSpatialIndex() {
+        // Arrange
+        spotIndexRegistry.load(Map.of(1L, List.of(point(spot1), point(spot2))));
+        parkedEvent.setLat(new BigDecimal("-23.551000"));
+        parkedEvent.setLng(new BigDecimal("-46.634000"));
+
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findById(2L)).thenReturn(Optional.of(spot2));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(spot2, result.getSpot());
+        assertEquals(1, spotIndexRegistry.countFree(sectorA));
+        verify(spotRepository, never()).findBySectorAndOccupied(any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Deve tentar a próxima vaga mais próxima quando perder a disputa")
+    void testHandleParked_RetriesNextNearestWhenClaimLost() {
+        // Arrange
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findBySectorAndOccupied(sectorA, false))
+            .thenReturn(Arrays.asList(spot1, spot2));
+        when(spotRepository.claim(eq(spot1), eq("ABC1234"), any())).thenReturn(false);
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(spot2, result.getSpot());
+        verify(spotRepository).claim(eq(spot1), eq("ABC1234"), any());
+        verify(spotRepository).claim(eq(spot2), eq("ABC1234"), any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar ParkingFullException quando todas as disputas forem perdidas")
+    void testHandleParked_AllClaimsLost() {
+        // Arrange
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findBySectorAndOccupied(sectorA, false))
+            .thenReturn(Arrays.asList(spot1, spot2));
+        when(spotRepository.claim(any(), any(), any())).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ParkingFullException.class, () -> parkingService.handleParked(parkedEvent));
+        verify(spotRepository, never()).save(any());
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve tentar a próxima vaga do índice quando perder a disputa")
+    void testHandleParked_IndexRetriesWhenClaimLost() {
+        // Arrange
+        spotIndexRegistry.load(Map.of(1L, List.of(point(spot1), point(spot2))));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findById(1L)).thenReturn(Optional.of(spot1));
+        when(spotRepository.findById(2L)).thenReturn(Optional.of(spot2));
+        when(spotRepository.claim(eq(spot1), eq("ABC1234"), any())).thenReturn(false);
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(spot2, result.getSpot());
+        assertEquals(0, spotIndexRegistry.countFree(sectorA));
+    }
+
+    @Test
+    @DisplayName("Não deve atribuir a mesma vaga a PARKED concorrentes")
+    void testHandleParked_ConcurrentClaimsNeverDoubleAssign() throws Exception {
+        // Arrange - todas as threads leem a mesma lista de vagas livres
+        List<Spot> spots = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Spot spot = new Spot();
+            spot.setId(id);
+            spot.setSector(sectorA);
+            spot.setLatitude(-23.55 + id * 0.0001);
+            spot.setLongitude(-46.63);
+            spot.setOccupied(false);
+            spots.add(spot);
+        }
+        Map<Long, String> claimedBy = new ConcurrentHashMap<>();
+        when(spotRepository.findBySectorAndOccupied(sectorA, false)).thenReturn(spots);
+        when(spotRepository.claim(any(), any(), any())).thenAnswer(i -> {
+            Spot spot = i.getArgument(0);
+            return claimedBy.putIfAbsent(spot.getId(), i.getArgument(1)) == null;
+        });
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull(anyString())).thenAnswer(i -> {
+            ParkingSession session = new ParkingSession();
+            session.setLicensePlate(i.getArgument(0));
+            session.setSector(sectorA);
+            return Optional.of(session);
+        });
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        int vehicles = 30;
+        AtomicInteger rejected = new AtomicInteger();
+        Map<String, Long> assigned = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < vehicles; i++) {
+            WebhookEventDTO event = new WebhookEventDTO();
+            event.setEventType("PARKED");
+            event.setLicensePlate("CAR" + i);
+            event.setLat(new BigDecimal("-23.549900"));
+            event.setLng(new BigDecimal("-46.630000"));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    ParkingSession result = parkingService.handleParked(event);
+                    assigned.put(result.getLicensePlate(), claimedSpotId(result, claimedBy));
+                } catch (ParkingFullException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(20, assigned.size());
+        assertEquals(20, assigned.values().stream().distinct().count());
+        assertEquals(vehicles - 20, rejected.get());
+    }
+
+    @Test
+    @DisplayName("Deve descartar vaga do índice já ocupada no banco")
+    void testHandleParked_SkipsStaleIndexEntry() {
+        // Arrange
+        spotIndexRegistry.load(Map.of(1L, List.of(point(spot1), point(spot2))));
+        Spot staleSpot1 = new Spot();
+        staleSpot1.setId(1L);
+        staleSpot1.setOccupied(true);
+
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findById(1L)).thenReturn(Optional.of(staleSpot1));
+        when(spotRepository.findById(2L)).thenReturn(Optional.of(spot2));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(spot2, result.getSpot());
+        assertEquals(0, spotIndexRegistry.countFree(sectorA));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando índice espacial não tem vagas livres")
+    void testHandleParked_SpatialIndexEmpty() {
+        // Arrange
+        spotIndexRegistry.load(Map.of(1L, List.of()));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+
+        // Act & Assert
+        assertThrows(ParkingFullException.class, () -> parkingService.handleParked(parkedEvent));
+        verify(spotRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve buscar sessão pelo id em cache e atualizar a vaga")
+    void testHandleParked_UsesActiveSessionCache() {
+        // Arrange
+        activeSessionCache.load(List.of(new ActiveSession("ABC1234", 1L, 1L, null)));
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(activeSession));
+        when(spotRepository.findBySectorAndOccupied(sectorA, false))
+            .thenReturn(Arrays.asList(spot1, spot2));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(1L, activeSessionCache.get("ABC1234").orElseThrow().spotId());
+        verify(sessionRepository, never()).findByLicensePlateAndExitTimeIsNull(anyString());
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco quando sessão em cache não confere")
+    void testHandleParked_StaleCacheFallsBackToDatabase() {
+        // Arrange
+        ParkingSession closedSession = new ParkingSession();
+        closedSession.setId(99L);
+        closedSession.setLicensePlate("ABC1234");
+        closedSession.setExitTime(LocalDateTime.now());
+
+        activeSessionCache.load(List.of(new ActiveSession("ABC1234", 99L, 1L, null)));
+        when(sessionRepository.findById(99L)).thenReturn(Optional.of(closedSession));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.findBySectorAndOccupied(sectorA, false))
+            .thenReturn(Arrays.asList(spot1));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleParked(parkedEvent);
+
+        // Assert
+        assertEquals(activeSession, result);
+        assertEquals(1L, activeSessionCache.get("ABC1234").orElseThrow().sessionId());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando cache e banco não têm a sessão")
+    void testHandleParked_CacheMissAndDatabaseMiss() {
+        // Arrange
+        activeSessionCache.load(List.of());
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(VehicleNotFoundException.class, () -> parkingService.handleParked(parkedEvent));
+        assertFalse(activeSessionCache.contains("ABC1234"));
+    }
+
     // ==================== TESTES DE handleExit ====================
 
     @Test
@@ -514,6 +1062,29 @@ class ParkingServiceTest {
         assertEquals(new BigDecimal("10.00"), result.getFinalAmount());
     }
 
+    @Test
+    @DisplayName("Deve registrar a saída no log de eventos com a sessão encerrada")
+    void testHandleExit_AppendsToEventLog() {
+        // Arrange
+        LocalDateTime entryTime = LocalDateTime.now();
+        activeSession.setEntryTime(entryTime);
+        activeSession.setSpot(spot1);
+        activeSession.setAppliedPrice(new BigDecimal("10.00"));
+        exitEvent.setExitTime(entryTime.plusHours(1));
+
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleExit(exitEvent);
+
+        // Assert
+        verify(webhookDeduplicator).record(exitEvent);
+        verify(webhookEventLog).append(eq(exitEvent), argThat(session ->
+            session.getExitTime() != null && new BigDecimal("10.00").equals(session.getFinalAmount())));
+    }
+
     @Test
     @DisplayName("Deve processar saída com sucesso - arredondar horas")
     void testHandleExit_Success_RoundUpHours() {
@@ -561,6 +1132,116 @@ class ParkingServiceTest {
         verify(sessionRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Deve decrementar contador do setor ao liberar vaga")
+    void testHandleExit_DecrementsOccupancy() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA), Map.of(1L, 3L));
+        activeSession.setSpot(spot1);
+        spot1.setOccupied(true);
+
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.save(any(Spot.class))).thenAnswer(i -> i.getArgument(0));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleExit(exitEvent);
+
+        // Assert
+        assertEquals(2L, occupancyRegistry.getAllocated(sectorA));
+        verify(sectorRepository).releaseCapacity(1L);
+    }
+
+    @Test
+    @DisplayName("Não deve liberar capacidade em memória se o UPDATE do banco não afetar linha")
+    void testHandleExit_DatabaseHadNothingToRelease() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA), Map.of(1L, 3L));
+        when(sectorRepository.releaseCapacity(1L)).thenReturn(0);
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleExit(exitEvent);
+
+        // Assert
+        assertEquals(3L, occupancyRegistry.getAllocated(sectorA));
+        verify(occupancyRegistry, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("Deve somar o valor da saída no faturamento diário do setor")
+    void testHandleExit_RecordsDailyRevenue() {
+        // Arrange
+        activeSession.setEntryTime(exitEvent.getExitTime().minusMinutes(90));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        ParkingSession result = parkingService.handleExit(exitEvent);
+
+        // Assert
+        verify(revenueRollupService).recordExit(
+            sectorA, exitEvent.getExitTime().toLocalDate(), result.getFinalAmount());
+    }
+
+    @Test
+    @DisplayName("Deve devolver a capacidade do setor mesmo sem vaga atribuída")
+    void testHandleExit_ReleasesCapacityWithoutSpot() {
+        // Arrange
+        occupancyRegistry.load(Arrays.asList(sectorA), Map.of(1L, 1L));
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleExit(exitEvent);
+
+        // Assert
+        assertEquals(0L, occupancyRegistry.getAllocated(sectorA));
+        verify(sectorRepository).releaseCapacity(1L);
+        verify(spotRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve devolver vaga liberada ao índice espacial")
+    void testHandleExit_ReleasesSpotToIndex() {
+        // Arrange
+        spotIndexRegistry.load(Map.of(1L, List.of(point(spot2))));
+        activeSession.setSpot(spot1);
+        spot1.setOccupied(true);
+
+        when(sessionRepository.findByLicensePlateAndExitTimeIsNull("ABC1234"))
+            .thenReturn(Optional.of(activeSession));
+        when(spotRepository.save(any(Spot.class))).thenAnswer(i -> i.getArgument(0));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleExit(exitEvent);
+
+        // Assert
+        assertEquals(2, spotIndexRegistry.countFree(sectorA));
+    }
+
+    @Test
+    @DisplayName("Deve remover sessão do cache na saída")
+    void testHandleExit_RemovesFromActiveSessionCache() {
+        // Arrange
+        activeSessionCache.load(List.of(new ActiveSession("ABC1234", 1L, 1L, null)));
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(activeSession));
+        when(sessionRepository.save(any(ParkingSession.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        parkingService.handleExit(exitEvent);
+
+        // Assert
+        assertFalse(activeSessionCache.contains("ABC1234"));
+        verify(sessionRepository, never()).findByLicensePlateAndExitTimeIsNull(anyString());
+    }
+
     // ==================== TESTES DE getParkingStatistics ====================
 
     @Test
@@ -616,58 +1297,21 @@ class ParkingServiceTest {
         assertTrue(stats.contains("10"));
     }
 
-    // ==================== TESTES DE getGarageConfiguration ====================
-
-    @Test
-    @DisplayName("Deve retornar configuração da garagem com sucesso")
-    void testGetGarageConfiguration_Success() {
-        // Arrange
-        when(sectorRepository.findAll()).thenReturn(Arrays.asList(sectorA, sectorB));
-        when(spotRepository.findAll()).thenReturn(Arrays.asList(spot1, spot2, spot3));
-
-        // Act
-        GarageConfigDTO config = parkingService.getGarageConfiguration();
-
-        // Assert
-        assertNotNull(config);
-        assertNotNull(config.getGarage());
-        assertNotNull(config.getSpots());
-        assertEquals(2, config.getGarage().size());
-        assertEquals(3, config.getSpots().size());
-
-        GarageConfigDTO.SectorConfigDTO sectorConfig = config.getGarage().get(0);
-        assertEquals("A", sectorConfig.getSector());
-        assertEquals(new BigDecimal("10.00"), sectorConfig.getBasePrice());
-        assertEquals(10, sectorConfig.getMax_capacity());
-
-        GarageConfigDTO.SpotConfigDTO spotConfig = config.getSpots().get(0);
-        assertEquals(1L, spotConfig.getId());
-        assertEquals("A", spotConfig.getSector());
-        assertNotNull(spotConfig.getLat());
-        assertNotNull(spotConfig.getLng());
+    // ==================== MÉTODOS AUXILIARES ====================
 
-        verify(sectorRepository).findAll();
-        verify(spotRepository).findAll();
+    // O objeto Spot é compartilhado entre as threads; a fonte da verdade é quem venceu a disputa
+    private Long claimedSpotId(ParkingSession session, Map<Long, String> claimedBy) {
+        return claimedBy.entrySet().stream()
+            .filter(e -> e.getValue().equals(session.getLicensePlate()))
+            .map(Map.Entry::getKey)
+            .findFirst()
+            .orElseThrow();
     }
 
-    @Test
-    @DisplayName("Deve retornar configuração vazia quando não há setores")
-    void testGetGarageConfiguration_NoSectors() {
-        // Arrange
-        when(sectorRepository.findAll()).thenReturn(new ArrayList<>());
-        when(spotRepository.findAll()).thenReturn(new ArrayList<>());
-
-        // Act
-        GarageConfigDTO config = parkingService.getGarageConfiguration();
-
-        // Assert
-        assertNotNull(config);
-        assertTrue(config.getGarage().isEmpty());
-        assertTrue(config.getSpots().isEmpty());
+    private SpotPoint point(Spot spot) {
+        return new SpotPoint(spot.getId(), spot.getLatitude(), spot.getLongitude());
     }
 
-    // ==================== MÉTODOS AUXILIARES ====================
-
     private WebhookEventDTO createEntryEvent(String licensePlate) {
         WebhookEventDTO event = new WebhookEventDTO();
         event.setEventType("ENTRY");
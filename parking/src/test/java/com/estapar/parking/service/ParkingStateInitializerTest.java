@@ -0,0 +1,197 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import com.estapar.parking.model.Sector;
+import com.estapar.parking.model.Spot;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SpotRepository;
+import com.estapar.parking.service.ActiveSessionCache.ActiveSession;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ParkingStateInitializer Tests")
+class ParkingStateInitializerTest {
+
+    @Mock
+    private SpotRepository spotRepository;
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private ParkingMetrics parkingMetrics;
+
+    @Spy
+    private SectorOccupancyRegistry occupancyRegistry = new SectorOccupancyRegistry();
+
+    @Spy
+    private SpotIndexRegistry spotIndexRegistry = new SpotIndexRegistry();
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine();
+
+    @InjectMocks
+    private ParkingStateInitializer initializer;
+
+    @Test
+    @DisplayName("Deve acusar sessões abertas com setor ou vaga inexistente")
+    void testFindOrphanedSessions_MissingSectorOrSpot() {
+        // Arrange
+        List<ActiveSession> sessions = List.of(
+            new ActiveSession("ABC1234", 1L, 1L, 10L),
+            new ActiveSession("DEF5678", 2L, 1L, null),
+            new ActiveSession("GHI9012", 3L, 9L, null),
+            new ActiveSession("JKL3456", 4L, 1L, 99L));
+        when(spotRepository.findExistingIds(Set.of(10L, 99L))).thenReturn(List.of(10L));
+
+        // Act
+        List<Long> orphaned = initializer.findOrphanedSessions(List.of(sector(1L)), sessions);
+
+        // Assert
+        assertEquals(List.of(3L, 4L), orphaned);
+    }
+
+    @Test
+    @DisplayName("Sessões sem vaga não devem consultar as vagas")
+    void testFindOrphanedSessions_NoSpotsToCheck() {
+        // Act
+        List<Long> orphaned = initializer.findOrphanedSessions(
+            List.of(sector(1L)), List.of(new ActiveSession("ABC1234", 1L, 1L, null)));
+
+        // Assert
+        assertTrue(orphaned.isEmpty());
+        verify(spotRepository, never()).findExistingIds(any());
+    }
+
+    @Test
+    @DisplayName("Carga de layout concorrente com entradas e saídas deve preservar contadores e vagas")
+    void testRefreshLayout_ConcurrentWithEntries() throws Exception {
+        // Arrange - 20 vagas, 8 threads entrando e saindo enquanto o layout é reaplicado
+        int capacity = 20;
+        List<SpotPoint> points = new ArrayList<>();
+        for (long id = 1; id <= capacity; id++) {
+            points.add(new SpotPoint(id, -23.56 + id * 0.0001, -46.65));
+        }
+        occupancyRegistry.load(List.of(sector(1L, capacity)), Map.of());
+        spotIndexRegistry.load(Map.of(1L, points));
+        // Cada carga devolve instâncias novas do setor, como o banco
+        when(sectorRepository.findAll(any(Sort.class))).thenAnswer(invocation -> List.of(sector(1L, capacity)));
+
+        Set<Long> held = ConcurrentHashMap.newKeySet();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Long> mine = new ArrayList<>();
+                while (!done.get()) {
+                    // Setor atual do registro, como o ParkingService
+                    Sector sector = occupancyRegistry.getSectors().get(0);
+                    if (mine.size() < 3 && occupancyRegistry.tryReserve(sector) >= 0) {
+                        Long spotId = spotIndexRegistry.claimNearest(sector, null, null);
+                        assertNotNull(spotId, "capacidade reservada sem vaga livre");
+                        assertTrue(held.add(spotId), "vaga " + spotId + " entregue duas vezes");
+                        mine.add(spotId);
+                    } else if (!mine.isEmpty()) {
+                        Long spotId = mine.remove(ThreadLocalRandom.current().nextInt(mine.size()));
+                        held.remove(spotId);
+                        spotIndexRegistry.release(sector, spot(spotId, points));
+                        occupancyRegistry.release(sector);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (int i = 0; i < 200; i++) {
+            initializer.refreshLayout(Map.of(), Set.of());
+        }
+        done.set(true);
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        Sector sector = occupancyRegistry.getSectors().get(0);
+        assertEquals(held.size(), occupancyRegistry.getAllocated(sector));
+        assertEquals(capacity - held.size(), spotIndexRegistry.countFree(sector));
+    }
+
+    @Test
+    @DisplayName("Carga de layout deve mover vagas livres alteradas e incluir as novas")
+    void testRefreshLayout_MovesFreeSpotsAndAddsInserted() {
+        // Arrange - vaga 1 ocupada, vaga 2 livre
+        occupancyRegistry.load(List.of(sector(1L, 2)), Map.of(1L, 1L));
+        spotIndexRegistry.load(Map.of(1L, List.of(new SpotPoint(2L, -23.56, -46.65))));
+        when(sectorRepository.findAll(any(Sort.class))).thenReturn(List.of(sector(1L, 2), sector(2L, 5)));
+
+        // Act - vagas 1 e 2 passam para o setor 2; vaga 3 é nova
+        initializer.refreshLayout(
+            Map.of(2L, List.of(
+                new SpotPoint(1L, -23.50, -46.60),
+                new SpotPoint(2L, -23.51, -46.61),
+                new SpotPoint(3L, -23.52, -46.62))),
+            Set.of(3L));
+
+        // Assert
+        assertEquals(1L, occupancyRegistry.getAllocated(sector(1L, 2)));
+        assertEquals(0, spotIndexRegistry.countFree(sector(1L, 2)));
+        assertEquals(2, spotIndexRegistry.countFree(sector(2L, 5)));
+        assertEquals(5, occupancyRegistry.getSectors().get(1).getMaxCapacity());
+    }
+
+    private Spot spot(Long id, List<SpotPoint> points) {
+        SpotPoint point = points.get((int) (id - 1));
+        Spot spot = new Spot(String.valueOf(id), point.lng(), point.lat(), null);
+        spot.setId(id);
+        return spot;
+    }
+
+    private Sector sector(Long id, int capacity) {
+        Sector sector = sector(id);
+        sector.setBasePrice(new BigDecimal("10.00"));
+        sector.setMaxCapacity(capacity);
+        return sector;
+    }
+
+    private Sector sector(Long id) {
+        Sector sector = new Sector();
+        sector.setId(id);
+        return sector;
+    }
+}
@@ -0,0 +1,129 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.estapar.parking.model.Sector;
+
+@DisplayName("PricingEngine Tests")
+class PricingEngineTest {
+
+    private final PricingEngine pricingEngine = new PricingEngine();
+
+    @Test
+    @DisplayName("Preço por faixa deve ser igual ao cálculo com BigDecimal e HALF_UP")
+    void testTierPrice_MatchesBigDecimalHalfUp() {
+        // Arrange
+        int[] capacities = {1, 3, 4, 7, 10, 33, 100};
+
+        for (long baseCents = 0; baseCents <= 5_000; baseCents++) {
+            BigDecimal basePrice = BigDecimal.valueOf(baseCents, 2);
+            for (int maxCapacity : capacities) {
+                for (long occupied = 0; occupied <= maxCapacity; occupied++) {
+                    // Act
+                    long cents = PricingEngine.tierPrice(baseCents, PricingEngine.tier(occupied, maxCapacity));
+
+                    // Assert
+                    assertEquals(referencePrice(basePrice, occupied, maxCapacity), PricingEngine.toDecimal(cents),
+                        "base=" + basePrice + " occupied=" + occupied + "/" + maxCapacity);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Valor final deve ser igual ao cálculo com BigDecimal")
+    void testFinalAmountCents_MatchesBigDecimal() {
+        // Arrange
+        long[] prices = {0, 1, 9, 900, 1_000, 1_099, 1_875, 99_999};
+
+        for (long priceCents : prices) {
+            BigDecimal price = BigDecimal.valueOf(priceCents, 2);
+            for (long minutes = 31; minutes <= 3 * 24 * 60; minutes++) {
+                // Act
+                long cents = PricingEngine.finalAmountCents(minutes, priceCents);
+
+                // Assert
+                BigDecimal expected = price.multiply(BigDecimal.valueOf((minutes + 59) / 60))
+                    .setScale(2, RoundingMode.HALF_UP);
+                assertEquals(expected, PricingEngine.toDecimal(cents), "price=" + price + " minutes=" + minutes);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Primeiros 30 minutos devem ser gratuitos")
+    void testFinalAmountCents_FreePeriod() {
+        // Act & Assert
+        assertEquals(0, PricingEngine.finalAmountCents(0, 1_000));
+        assertEquals(0, PricingEngine.finalAmountCents(30, 1_000));
+        assertEquals(1_000, PricingEngine.finalAmountCents(31, 1_000));
+        assertEquals(2_000, PricingEngine.finalAmountCents(61, 1_000));
+    }
+
+    @Test
+    @DisplayName("Deve usar as faixas pré-calculadas do setor carregado")
+    void testPriceCents_UsesLoadedTiers() {
+        // Arrange
+        Sector sector = new Sector("A", new BigDecimal("10.00"), 10);
+        sector.setId(1L);
+        pricingEngine.load(List.of(sector));
+
+        // Act
+        long[] prices = {
+            pricingEngine.priceCents(sector, 0),
+            pricingEngine.priceCents(sector, 3),
+            pricingEngine.priceCents(sector, 5),
+            pricingEngine.priceCents(sector, 8)
+        };
+
+        // Assert
+        assertArrayEquals(new long[] {900, 1_000, 1_100, 1_250}, prices);
+    }
+
+    @Test
+    @DisplayName("Setor não carregado deve ser calculado a partir do preço base")
+    void testPriceCents_SectorNotLoaded() {
+        // Arrange
+        Sector sector = new Sector("B", new BigDecimal("15.00"), 5);
+        sector.setId(2L);
+
+        // Act
+        long cents = pricingEngine.priceCents(sector, 4);
+
+        // Assert
+        assertEquals(1_875, cents);
+    }
+
+    @Test
+    @DisplayName("Conversão entre centavos e BigDecimal deve manter duas casas")
+    void testCentsConversion() {
+        // Act & Assert
+        assertEquals(1_050, PricingEngine.toCents(new BigDecimal("10.50")));
+        assertEquals(1_000, PricingEngine.toCents(BigDecimal.TEN));
+        assertEquals(new BigDecimal("10.50"), PricingEngine.toDecimal(1_050));
+    }
+
+    /** Cálculo anterior com BigDecimal, mantido como referência. */
+    private static BigDecimal referencePrice(BigDecimal basePrice, long occupiedCount, int maxCapacity) {
+        double occupancyRate = (double) occupiedCount / maxCapacity;
+        BigDecimal multiplier;
+        if (occupancyRate < 0.25) {
+            multiplier = new BigDecimal("0.90");
+        } else if (occupancyRate < 0.50) {
+            multiplier = BigDecimal.ONE;
+        } else if (occupancyRate < 0.75) {
+            multiplier = new BigDecimal("1.10");
+        } else {
+            multiplier = new BigDecimal("1.25");
+        }
+        return basePrice.multiply(multiplier).setScale(2, RoundingMode.HALF_UP);
+    }
+}
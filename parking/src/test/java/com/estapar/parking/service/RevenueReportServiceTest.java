@@ -0,0 +1,128 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.estapar.parking.repository.DailySectorRevenueRepository;
+import com.estapar.parking.repository.RevenueReportRow;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevenueReportService Tests")
+class RevenueReportServiceTest {
+
+    @Mock
+    private DailySectorRevenueRepository dailyRevenueRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RevenueReportService revenueReportService;
+
+    private final LocalDate from = LocalDate.of(2024, 1, 1);
+    private final LocalDate to = LocalDate.of(2024, 1, 2);
+
+    @Test
+    @DisplayName("Deve escrever uma linha por dia e setor com valor e quantidade de sessões")
+    void testWriteReport_AllSectors() throws Exception {
+        // Arrange
+        when(dailyRevenueRepository.streamReport(from, to)).thenReturn(Stream.of(
+            row(from, "A", "120.50", 8L),
+            row(from, "B", "45.00", 3L),
+            row(to, "A", "0.00", 2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        revenueReportService.writeReport(from, to, null, out);
+
+        // Assert
+        JsonNode report = objectMapper.readTree(out.toByteArray());
+        assertEquals("2024-01-01", report.get("from").asText());
+        assertEquals("2024-01-02", report.get("to").asText());
+        assertEquals("BRL", report.get("currency").asText());
+        assertEquals(3, report.get("rows").size());
+        JsonNode first = report.get("rows").get(0);
+        assertEquals("2024-01-01", first.get("date").asText());
+        assertEquals("A", first.get("sector").asText());
+        assertEquals(0, new BigDecimal("120.50").compareTo(first.get("amount").decimalValue()));
+        assertTrue(out.toString().contains("\"amount\":120.50"), "escala do valor deve ser preservada");
+        assertEquals(8L, first.get("sessions").asLong());
+    }
+
+    @Test
+    @DisplayName("Deve filtrar pelos setores informados")
+    void testWriteReport_FilteredSectors() throws Exception {
+        // Arrange
+        List<String> sectors = List.of("B");
+        when(dailyRevenueRepository.streamReport(from, to, sectors)).thenReturn(Stream.of(
+            row(from, "B", "45.00", 3L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        revenueReportService.writeReport(from, to, sectors, out);
+
+        // Assert
+        JsonNode report = objectMapper.readTree(out.toByteArray());
+        assertEquals(1, report.get("rows").size());
+        assertEquals("B", report.get("rows").get(0).get("sector").asText());
+        verify(dailyRevenueRepository, never()).streamReport(from, to);
+    }
+
+    @Test
+    @DisplayName("Deve escrever lista vazia quando não houver faturamento")
+    void testWriteReport_Empty() throws Exception {
+        // Arrange
+        when(dailyRevenueRepository.streamReport(from, to)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        revenueReportService.writeReport(from, to, List.of(), out);
+
+        // Assert
+        JsonNode report = objectMapper.readTree(out.toByteArray());
+        assertEquals(0, report.get("rows").size());
+    }
+
+    private RevenueReportRow row(LocalDate date, String sector, String amount, Long sessions) {
+        return new RevenueReportRow() {
+            @Override
+            public LocalDate getDate() {
+                return date;
+            }
+
+            @Override
+            public String getSector() {
+                return sector;
+            }
+
+            @Override
+            public BigDecimal getTotalAmount() {
+                return new BigDecimal(amount);
+            }
+
+            @Override
+            public Long getSessionCount() {
+                return sessions;
+            }
+        };
+    }
+}
@@ -30,7 +30,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.estapar.parking.model.DailySectorRevenue;
+import com.estapar.parking.model.DailySectorRevenueId;
 import com.estapar.parking.model.Sector;
+import com.estapar.parking.repository.DailySectorRevenueRepository;
 import com.estapar.parking.repository.ParkingSessionRepository;
 import com.estapar.parking.repository.SectorRepository;
 
@@ -44,6 +47,9 @@ class RevenueServiceTest {
     @Mock
     private SectorRepository sectorRepository;
 
+    @Mock
+    private DailySectorRevenueRepository dailyRevenueRepository;
+
     @InjectMocks
     private RevenueService revenueService;
 
@@ -75,6 +81,42 @@ class RevenueServiceTest {
         sectorC.setMaxCapacity(20);
     }
 
+    // ==================== FATURAMENTO PRÉ-AGREGADO ====================
+
+    @Test
+    @DisplayName("Deve ler o faturamento da tabela diária sem somar sessões")
+    void testCalculateRevenue_UsesDailyRollup() {
+        // Arrange
+        when(sectorRepository.findBysectorCode("A")).thenReturn(Optional.of(sectorA));
+        when(dailyRevenueRepository.findById(new DailySectorRevenueId(testDate, 1L)))
+            .thenReturn(Optional.of(new DailySectorRevenue(
+                new DailySectorRevenueId(testDate, 1L), new BigDecimal("320.50"), 12L)));
+
+        // Act
+        BigDecimal result = revenueService.calculateRevenue(testDate, "A");
+
+        // Assert
+        assertEquals(new BigDecimal("320.50"), result);
+        verify(sessionRepository, never()).sumRevenueByDateAndSector(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve somar as sessões quando o dia não estiver na tabela diária")
+    void testCalculateRevenue_FallsBackWithoutRollup() {
+        // Arrange
+        when(sectorRepository.findBysectorCode("A")).thenReturn(Optional.of(sectorA));
+        when(dailyRevenueRepository.findById(new DailySectorRevenueId(testDate, 1L)))
+            .thenReturn(Optional.empty());
+        when(sessionRepository.sumRevenueByDateAndSector(testDate, sectorA))
+            .thenReturn(new BigDecimal("75.00"));
+
+        // Act
+        BigDecimal result = revenueService.calculateRevenue(testDate, "A");
+
+        // Assert
+        assertEquals(new BigDecimal("75.00"), result);
+    }
+
     // ==================== TESTES DE MUTAÇÃO - VALORES DE RETORNO ====================
 
     @DisplayName("Mutation Tests - Return Values")
@@ -0,0 +1,137 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.estapar.parking.model.Sector;
+
+@DisplayName("SectorOccupancyRegistry Tests")
+class SectorOccupancyRegistryTest {
+
+    private SectorOccupancyRegistry registry;
+    private Sector sector;
+
+    @BeforeEach
+    void setUp() {
+        sector = new Sector();
+        sector.setId(1L);
+        sector.setSectorCode("A");
+        sector.setBasePrice(new BigDecimal("10.00"));
+        sector.setMaxCapacity(3);
+
+        registry = new SectorOccupancyRegistry();
+        registry.load(List.of(sector), Map.of(1L, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve reservar até a capacidade e retornar a lotação anterior")
+    void testTryReserve_UntilFull() {
+        // Act & Assert
+        assertEquals(1L, registry.tryReserve(sector));
+        assertEquals(2L, registry.tryReserve(sector));
+        assertEquals(-1L, registry.tryReserve(sector));
+        assertEquals(3L, registry.getAllocated(sector));
+    }
+
+    @Test
+    @DisplayName("Deve liberar capacidade ao cancelar reserva ou registrar saída")
+    void testCancelAndRelease() {
+        // Arrange
+        registry.tryReserve(sector);
+        registry.tryReserve(sector);
+
+        // Act
+        registry.cancelReservation(sector);
+        registry.release(sector);
+
+        // Assert
+        assertEquals(1L, registry.getAllocated(sector));
+    }
+
+    @Test
+    @DisplayName("Não deve exceder a capacidade sob reservas e liberações concorrentes")
+    void testTryReserve_ConcurrentStress() throws Exception {
+        // Arrange - 16 threads segurando até 5 reservas cada: demanda acima da capacidade
+        sector.setMaxCapacity(50);
+        registry.load(List.of(sector), Map.of());
+        AtomicLong maxSampled = new AtomicLong();
+        AtomicInteger reservations = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(17);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Amostragem do contador enquanto as reservas estão de fato em posse das threads
+        Future<?> sampler = executor.submit(() -> {
+            start.await();
+            while (!done.get()) {
+                maxSampled.accumulateAndGet(registry.getAllocated(sector), Math::max);
+            }
+            return null;
+        });
+
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int held = 0;
+                for (int i = 0; i < 20_000; i++) {
+                    boolean reserve = held == 0 || (held < 5 && ThreadLocalRandom.current().nextBoolean());
+                    if (reserve) {
+                        long before = registry.tryReserve(sector);
+                        if (before >= 0) {
+                            reservations.incrementAndGet();
+                            held++;
+                            assertTrue(before < 50, "reserva acima da capacidade: " + before);
+                        }
+                    } else {
+                        if (ThreadLocalRandom.current().nextBoolean()) {
+                            registry.release(sector);
+                        } else {
+                            registry.cancelReservation(sector);
+                        }
+                        held--;
+                    }
+                    long allocated = registry.getAllocated(sector);
+                    maxSampled.accumulateAndGet(allocated, Math::max);
+                    assertTrue(allocated <= 50, "lotação acima da capacidade: " + allocated);
+                }
+                for (; held > 0; held--) {
+                    registry.release(sector);
+                }
+                return null;
+            }));
+        }
+
+        // Act
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        done.set(true);
+        sampler.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        assertTrue(maxSampled.get() <= 50, "máximo amostrado: " + maxSampled.get());
+        assertTrue(reservations.get() > 0);
+        assertEquals(0L, registry.getAllocated(sector));
+    }
+}
@@ -0,0 +1,215 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.estapar.parking.model.Spot;
+import com.estapar.parking.service.SectorSpotIndex.SpotPoint;
+
+@DisplayName("SectorSpotIndex Tests")
+class SectorSpotIndexTest {
+
+    private final ParkingService parkingService = new ParkingService();
+
+    @Test
+    @DisplayName("Deve encontrar a mesma vaga que a busca linear")
+    void testNearest_MatchesLinearScan() {
+        // Arrange
+        Random random = new Random(42);
+        List<Spot> spots = randomSpots(random, 2_000);
+        SectorSpotIndex index = new SectorSpotIndex(toPoints(spots));
+
+        // Act & Assert
+        for (int i = 0; i < 500; i++) {
+            double lat = -23.56 + random.nextDouble() * 0.02;
+            double lng = -46.66 + random.nextDouble() * 0.02;
+
+            Spot expected = parkingService.findClosestSpot(spots, lat, lng);
+            SpotPoint actual = index.nearest(lat, lng);
+
+            assertEquals(distance(expected, lat, lng), distance(actual, lat, lng), 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve continuar correto com vagas sendo ocupadas e liberadas")
+    void testPollAndAdd_MatchesLinearScan() {
+        // Arrange
+        Random random = new Random(7);
+        List<Spot> spots = randomSpots(random, 500);
+        SectorSpotIndex index = new SectorSpotIndex(toPoints(spots));
+        List<Spot> free = new ArrayList<>(spots);
+        List<Spot> taken = new ArrayList<>();
+
+        // Act & Assert
+        for (int i = 0; i < 2_000; i++) {
+            if (!taken.isEmpty() && (free.isEmpty() || random.nextInt(3) == 0)) {
+                Spot released = taken.remove(random.nextInt(taken.size()));
+                index.add(new SpotPoint(released.getId(), released.getLatitude(), released.getLongitude()));
+                free.add(released);
+                continue;
+            }
+
+            double lat = -23.56 + random.nextDouble() * 0.02;
+            double lng = -46.66 + random.nextDouble() * 0.02;
+            Spot expected = parkingService.findClosestSpot(free, lat, lng);
+            SpotPoint claimed = index.pollNearest(lat, lng);
+
+            assertEquals(distance(expected, lat, lng), distance(claimed, lat, lng), 0.0);
+            Spot claimedSpot = free.stream().filter(s -> s.getId() == claimed.id()).findFirst().orElseThrow();
+            free.remove(claimedSpot);
+            taken.add(claimedSpot);
+            assertEquals(free.size(), index.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve encontrar vaga mesmo com consulta fora da área do setor")
+    void testNearest_QueryOutsideGrid() {
+        // Arrange
+        SectorSpotIndex index = new SectorSpotIndex(List.of(
+            new SpotPoint(1L, -23.5506, -46.6334),
+            new SpotPoint(2L, -23.5515, -46.6343)
+        ));
+
+        // Act
+        SpotPoint result = index.nearest(-22.0, -45.0);
+
+        // Assert
+        assertEquals(1L, result.id());
+    }
+
+    @Test
+    @DisplayName("Deve retornar menor id quando não há coordenadas")
+    void testPollNearest_NoCoordinates() {
+        // Arrange
+        SectorSpotIndex index = new SectorSpotIndex(List.of(
+            new SpotPoint(5L, -23.5506, -46.6334),
+            new SpotPoint(3L, -23.5515, -46.6343)
+        ));
+
+        // Act
+        SpotPoint result = index.pollNearest(null, null);
+
+        // Assert
+        assertEquals(3L, result.id());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Índice criado sem vagas livres deve refazer a grade conforme as vagas voltam")
+    void testAdd_RegridsFromEmptyIndex() {
+        // Arrange - setor lotado na carga: a célula começa no tamanho padrão
+        Random random = new Random(11);
+        List<Spot> spots = randomSpots(random, 2_000);
+        SectorSpotIndex index = new SectorSpotIndex(List.of());
+        double defaultCellSize = index.cellSize();
+
+        // Act
+        for (SpotPoint point : toPoints(spots)) {
+            index.add(point);
+        }
+
+        // Assert - célula na escala da calculada com todas as vagas, e busca correta
+        double expected = new SectorSpotIndex(toPoints(spots)).cellSize();
+        assertTrue(index.cellSize() > defaultCellSize * 5);
+        assertTrue(index.cellSize() > expected / 2 && index.cellSize() < expected * 2);
+        assertEquals(spots.size(), index.size());
+        for (int i = 0; i < 200; i++) {
+            double lat = -23.56 + random.nextDouble() * 0.02;
+            double lng = -46.66 + random.nextDouble() * 0.02;
+
+            Spot expectedSpot = parkingService.findClosestSpot(spots, lat, lng);
+            assertEquals(distance(expectedSpot, lat, lng), distance(index.nearest(lat, lng), lat, lng), 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve retornar null quando índice está vazio")
+    void testNearest_Empty() {
+        // Arrange
+        SectorSpotIndex index = new SectorSpotIndex(List.of(new SpotPoint(1L, -23.5506, -46.6334)));
+
+        // Act
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+
+        // Assert
+        assertNull(index.nearest(-23.55, -46.63));
+        assertNull(index.pollNearest(null, null));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: índice espacial x busca linear")
+    void benchmarkNearest_IndexVersusLinearScan() {
+        Random random = new Random(1);
+        for (int size : new int[] {1_000, 10_000, 50_000}) {
+            List<Spot> spots = randomSpots(random, size);
+            SectorSpotIndex index = new SectorSpotIndex(toPoints(spots));
+            double[][] queries = new double[2_000][];
+            for (int i = 0; i < queries.length; i++) {
+                queries[i] = new double[] {-23.56 + random.nextDouble() * 0.02, -46.66 + random.nextDouble() * 0.02};
+            }
+
+            long linearNanos = time(() -> {
+                for (double[] q : queries) {
+                    parkingService.findClosestSpot(spots, q[0], q[1]);
+                }
+            });
+            long indexNanos = time(() -> {
+                for (double[] q : queries) {
+                    index.nearest(q[0], q[1]);
+                }
+            });
+
+            System.out.printf("spots=%d linear=%.1f us/op index=%.2f us/op%n",
+                size, linearNanos / 1_000.0 / queries.length, indexNanos / 1_000.0 / queries.length);
+        }
+    }
+
+    private long time(Runnable work) {
+        for (int i = 0; i < 5; i++) {
+            work.run();
+        }
+        long start = System.nanoTime();
+        work.run();
+        return System.nanoTime() - start;
+    }
+
+    private List<Spot> randomSpots(Random random, int count) {
+        List<Spot> spots = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Spot spot = new Spot();
+            spot.setId(id);
+            spot.setLatitude(-23.56 + random.nextDouble() * 0.02);
+            spot.setLongitude(-46.66 + random.nextDouble() * 0.02);
+            spots.add(spot);
+        }
+        return spots;
+    }
+
+    private List<SpotPoint> toPoints(List<Spot> spots) {
+        return spots.stream()
+            .map(s -> new SpotPoint(s.getId(), s.getLatitude(), s.getLongitude()))
+            .toList();
+    }
+
+    private double distance(Spot spot, double lat, double lng) {
+        return parkingService.calculateDistance(spot.getLatitude(), spot.getLongitude(), lat, lng);
+    }
+
+    private double distance(SpotPoint spot, double lat, double lng) {
+        return parkingService.calculateDistance(spot.lat(), spot.lng(), lat, lng);
+    }
+}
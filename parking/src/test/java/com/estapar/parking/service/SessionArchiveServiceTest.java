@@ -0,0 +1,135 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.estapar.parking.service.SessionArchiveService.Partition;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SessionArchiveService Tests")
+class SessionArchiveServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SessionArchiveService sessionArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sessionArchiveService, "batchSize", 2);
+    }
+
+    @Test
+    @DisplayName("Deve dividir p_future nos meses que faltam até o limite")
+    void testReorganizeStatement_AddsMissingMonths() {
+        // Arrange
+        List<Partition> partitions = List.of(
+            new Partition("p202601", 1769904000L),
+            new Partition("p202602", 1772323200L),
+            new Partition("p_future", null));
+
+        // Act
+        String statement = SessionArchiveService.reorganizeStatement(partitions, YearMonth.of(2026, 4));
+
+        // Assert
+        assertEquals("ALTER TABLE parking_sessions REORGANIZE PARTITION p_future INTO (" +
+            "PARTITION p202603 VALUES LESS THAN (UNIX_TIMESTAMP('2026-04-01 00:00:00')), " +
+            "PARTITION p202604 VALUES LESS THAN (UNIX_TIMESTAMP('2026-05-01 00:00:00')), " +
+            "PARTITION p_future VALUES LESS THAN (MAXVALUE))", statement);
+    }
+
+    @Test
+    @DisplayName("Não deve reorganizar quando os meses já existem ou a tabela não é particionada")
+    void testReorganizeStatement_NothingToDo() {
+        // Arrange
+        List<Partition> covered = List.of(new Partition("p202604", 1777593600L), new Partition("p_future", null));
+
+        // Act & Assert
+        assertNull(SessionArchiveService.reorganizeStatement(covered, YearMonth.of(2026, 4)));
+        assertNull(SessionArchiveService.reorganizeStatement(List.of(), YearMonth.of(2026, 4)));
+    }
+
+    @Test
+    @DisplayName("Deve arquivar só partições mensais anteriores ao corte")
+    void testExpiredPartitions_BeforeCutoffOnly() {
+        // Arrange
+        List<Partition> partitions = List.of(
+            new Partition("p202601", 100L),
+            new Partition("p202602", 200L),
+            new Partition("p202603", 300L),
+            new Partition("p_future", null));
+
+        // Act
+        List<Partition> expired = SessionArchiveService.expiredPartitions(partitions, 200L);
+
+        // Assert
+        assertEquals(List.of("p202601", "p202602"), expired.stream().map(Partition::name).toList());
+    }
+
+    @Test
+    @DisplayName("Deve mover sessões em lotes e remover a partição vazia")
+    void testArchivePartition_MovesChunksAndDropsPartition() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2)))
+            .thenReturn(List.of(1L, 2L))
+            .thenReturn(List.of(3L));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+
+        // Act
+        long moved = sessionArchiveService.archivePartition("p202601");
+
+        // Assert
+        assertEquals(3, moved);
+        verify(namedParameterJdbcTemplate, times(2))
+            .update(startsWith("INSERT INTO parking_sessions_archive"), anyMap());
+        verify(namedParameterJdbcTemplate, times(2))
+            .update(startsWith("DELETE FROM parking_sessions PARTITION (p202601)"), anyMap());
+        verify(jdbcTemplate).execute("ALTER TABLE parking_sessions DROP PARTITION p202601");
+    }
+
+    @Test
+    @DisplayName("Deve manter a partição enquanto houver sessões abertas")
+    void testArchivePartition_KeepsPartitionWithOpenSessions() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        // Act
+        long moved = sessionArchiveService.archivePartition("p202601");
+
+        // Assert
+        assertEquals(0, moved);
+        verify(namedParameterJdbcTemplate, never()).update(anyString(), anyMap());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,158 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+import com.estapar.parking.dto.WebhookEventResultDTO;
+import com.estapar.parking.exception.ParkingFullException;
+import com.estapar.parking.exception.VehicleAlreadyParkedException;
+import com.estapar.parking.exception.VehicleNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookBatchService Tests")
+class WebhookBatchServiceTest {
+
+    @Mock
+    private ParkingService parkingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ParkingMetrics parkingMetrics;
+
+    @Mock
+    private WebhookDeduplicator webhookDeduplicator;
+
+    @InjectMocks
+    private WebhookBatchService webhookBatchService;
+
+    @Test
+    @DisplayName("Deve processar eventos na ordem e devolver status de cada um")
+    void testProcessBatch_InOrderWithStatuses() {
+        // Arrange
+        WebhookEventDTO entry = event("ENTRY", "ABC1234");
+        WebhookEventDTO parked = event("PARKED", "ABC1234");
+        WebhookEventDTO duplicate = event("ENTRY", "XYZ9876");
+        WebhookEventDTO exit = event("EXIT", "DEF5678");
+        WebhookEventDTO invalid = event("UNKNOWN", "ABC1234");
+
+        // lenient: o mesmo método também é chamado com outros eventos
+        lenient().when(parkingService.handleEntry(duplicate)).thenThrow(new VehicleAlreadyParkedException("already parked"));
+        when(parkingService.handleExit(exit)).thenThrow(new VehicleNotFoundException("not found"));
+
+        // Act
+        List<WebhookEventResultDTO> results = webhookBatchService.processBatch(
+            List.of(entry, parked, duplicate, exit, invalid));
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(409, results.get(2).getStatus());
+        assertEquals(404, results.get(3).getStatus());
+        assertEquals(400, results.get(4).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+        assertEquals("DEF5678", results.get(3).getLicensePlate());
+
+        InOrder order = inOrder(parkingService);
+        order.verify(parkingService).handleEntry(entry);
+        order.verify(parkingService).handleParked(parked);
+        order.verify(parkingService).handleEntry(duplicate);
+        order.verify(parkingService).handleExit(exit);
+
+        // Um único grupo: uma transação
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Deve dividir o lote em grupos de transação")
+    void testProcessBatch_SplitsIntoChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(webhookBatchService, "chunkSize", 2);
+        List<WebhookEventDTO> events = List.of(
+            event("ENTRY", "A1"), event("ENTRY", "A2"), event("ENTRY", "A3"),
+            event("ENTRY", "A4"), event("ENTRY", "A5"));
+
+        // Act
+        List<WebhookEventResultDTO> results = webhookBatchService.processBatch(events);
+
+        // Assert
+        assertEquals(5, results.size());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Deve desfazer o grupo e reprocessar individualmente em erro inesperado")
+    void testProcessBatch_UnexpectedErrorRetriesIndividually() {
+        // Arrange
+        WebhookEventDTO entry = event("ENTRY", "ABC1234");
+        WebhookEventDTO broken = event("PARKED", "ABC1234");
+        WebhookEventDTO full = event("ENTRY", "XYZ9876");
+
+        lenient().when(parkingService.handleParked(broken)).thenThrow(new IllegalStateException("db down"));
+        lenient().when(parkingService.handleEntry(full)).thenThrow(new ParkingFullException("Parking is full"));
+
+        // Act
+        List<WebhookEventResultDTO> results = webhookBatchService.processBatch(List.of(entry, broken, full));
+
+        // Assert
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(500, results.get(1).getStatus());
+        assertEquals(409, results.get(2).getStatus());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(parkingService, times(2)).handleEntry(entry);
+        verify(parkingService, times(2)).handleParked(broken);
+        verify(parkingService, times(1)).handleEntry(full);
+    }
+
+    @Test
+    @DisplayName("Reenvios no lote devem retornar OK sem reaplicar o evento")
+    void testProcessBatch_DuplicatesReturnOriginalResult() {
+        // Arrange
+        WebhookEventDTO retriedEntry = event("ENTRY", "ABC1234");
+        WebhookEventDTO retriedExit = event("EXIT", "DEF5678");
+
+        when(webhookDeduplicator.isDuplicate(retriedEntry)).thenReturn(true);
+        when(parkingService.handleExit(retriedExit)).thenThrow(new VehicleNotFoundException("not found"));
+        when(webhookDeduplicator.wasProcessed(retriedExit)).thenReturn(true);
+
+        // Act
+        List<WebhookEventResultDTO> results = webhookBatchService.processBatch(List.of(retriedEntry, retriedExit));
+
+        // Assert
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(200, results.get(1).getStatus());
+        verify(parkingService, never()).handleEntry(any());
+        verify(parkingMetrics).recordDuplicate("batch", "ENTRY");
+        verify(parkingMetrics).recordDuplicate("batch", "EXIT");
+    }
+
+    private WebhookEventDTO event(String eventType, String plate) {
+        WebhookEventDTO event = new WebhookEventDTO();
+        event.setEventType(eventType);
+        event.setLicensePlate(plate);
+        return event;
+    }
+}
@@ -0,0 +1,161 @@
+package com.estapar.parking.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.estapar.parking.dto.WebhookEventDTO;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WebhookDeduplicator Tests")
+class WebhookDeduplicatorTest {
+
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private WebhookDeduplicator webhookDeduplicator;
+
+    @Test
+    @DisplayName("Chave deve depender de placa, tipo e horário, ou do event_id")
+    void testKeyOf_DerivedFromEvent() {
+        // Arrange
+        WebhookEventDTO entry = entry("ABC1234", ENTRY_TIME);
+        WebhookEventDTO retried = entry("ABC1234", ENTRY_TIME);
+        WebhookEventDTO later = entry("ABC1234", ENTRY_TIME.plusSeconds(1));
+        WebhookEventDTO withId = entry("ABC1234", ENTRY_TIME);
+        withId.setEventId("gate-7:123");
+        WebhookEventDTO parked = event("PARKED", "ABC1234");
+
+        // Act & Assert
+        assertEquals(64, webhookDeduplicator.keyOf(entry).length());
+        assertEquals(webhookDeduplicator.keyOf(entry), webhookDeduplicator.keyOf(retried));
+        assertNotEquals(webhookDeduplicator.keyOf(entry), webhookDeduplicator.keyOf(later));
+        assertNotEquals(webhookDeduplicator.keyOf(entry), webhookDeduplicator.keyOf(withId));
+        assertNull(webhookDeduplicator.keyOf(parked), "PARKED sem event_id não tem chave");
+    }
+
+    @Test
+    @DisplayName("Evento gravado deve ser reconhecido como reenvio")
+    void testRecord_RemembersEvent() {
+        // Arrange
+        WebhookEventDTO entry = entry("ABC1234", ENTRY_TIME);
+
+        // Act
+        webhookDeduplicator.record(entry);
+
+        // Assert
+        assertTrue(webhookDeduplicator.isDuplicate(entry("ABC1234", ENTRY_TIME)));
+        assertFalse(webhookDeduplicator.isDuplicate(entry("XYZ9876", ENTRY_TIME)));
+        verify(jdbcTemplate).update(anyString(), eq(webhookDeduplicator.keyOf(entry)), eq("ENTRY"), eq("ABC1234"));
+    }
+
+    @Test
+    @DisplayName("Evento sem chave não deve ser gravado")
+    void testRecord_EventWithoutKey() {
+        // Act
+        webhookDeduplicator.record(event("PARKED", "ABC1234"));
+
+        // Assert
+        assertEquals(0, webhookDeduplicator.size());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Chaves devem expirar ao fim da janela")
+    void testIsDuplicate_ExpiresAfterWindow() {
+        // Arrange
+        ReflectionTestUtils.setField(webhookDeduplicator, "windowSeconds", 0L);
+        WebhookEventDTO entry = entry("ABC1234", ENTRY_TIME);
+
+        // Act
+        webhookDeduplicator.record(entry);
+
+        // Assert
+        assertFalse(webhookDeduplicator.isDuplicate(entry));
+    }
+
+    @Test
+    @DisplayName("Janela deve descartar as chaves mais antigas acima do limite")
+    void testRemember_EvictsOldestAboveLimit() {
+        // Arrange
+        ReflectionTestUtils.setField(webhookDeduplicator, "maxEntries", 2);
+        WebhookEventDTO first = entry("AAA0001", ENTRY_TIME);
+        WebhookEventDTO second = entry("AAA0002", ENTRY_TIME);
+        WebhookEventDTO third = entry("AAA0003", ENTRY_TIME);
+
+        // Act
+        webhookDeduplicator.remember(first);
+        webhookDeduplicator.remember(second);
+        webhookDeduplicator.remember(third);
+
+        // Assert
+        assertEquals(2, webhookDeduplicator.size());
+        assertFalse(webhookDeduplicator.isDuplicate(first));
+        assertTrue(webhookDeduplicator.isDuplicate(second));
+        assertTrue(webhookDeduplicator.isDuplicate(third));
+    }
+
+    @Test
+    @DisplayName("Fora da janela deve consultar a tabela e lembrar o resultado")
+    void testWasProcessed_FallsBackToDatabase() {
+        // Arrange
+        WebhookEventDTO exit = event("EXIT", "ABC1234");
+        exit.setExitTime(ENTRY_TIME.plusHours(2));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(webhookDeduplicator.keyOf(exit))))
+            .thenReturn(true);
+
+        // Act
+        boolean processed = webhookDeduplicator.wasProcessed(exit);
+
+        // Assert
+        assertTrue(processed);
+        assertTrue(webhookDeduplicator.isDuplicate(exit));
+    }
+
+    @Test
+    @DisplayName("Evento nunca aplicado não deve ser tratado como reenvio")
+    void testWasProcessed_NotFound() {
+        // Arrange
+        WebhookEventDTO entry = entry("ABC1234", ENTRY_TIME);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(false);
+
+        // Act & Assert
+        assertFalse(webhookDeduplicator.wasProcessed(entry));
+        assertFalse(webhookDeduplicator.isDuplicate(entry));
+    }
+
+    private WebhookEventDTO entry(String plate, LocalDateTime entryTime) {
+        WebhookEventDTO event = event("ENTRY", plate);
+        event.setEntryTime(entryTime);
+        return event;
+    }
+
+    private WebhookEventDTO event(String eventType, String plate) {
+        WebhookEventDTO event = new WebhookEventDTO();
+        event.setEventType(eventType);
+        event.setLicensePlate(plate);
+        return event;
+    }
+}